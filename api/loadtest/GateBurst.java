@@ -0,0 +1,86 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulates a gate-opening burst against a running payment-microservice.
+ *
+ * Usage: java loadtest/GateBurst.java [baseUrl] [concurrency] [requests] [users]
+ */
+public class GateBurst {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8001";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+        int users = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        seed(client, baseUrl, users);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<Long>> latencies = new ArrayList<>(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            latencies.add(executor.submit(() -> {
+                String user = "burst-user-" + ThreadLocalRandom.current().nextInt(users);
+                HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(baseUrl + "/transactions_by_user/" + user + "/page?limit=20")).GET().build();
+                long sent = System.nanoTime();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    return -1L;
+                }
+                return System.nanoTime() - sent;
+            }));
+        }
+        List<Long> samples = new ArrayList<>(requests);
+        int errors = 0;
+        for (Future<Long> latency : latencies) {
+            long value = latency.get();
+            if (value < 0) {
+                errors++;
+            } else {
+                samples.add(value);
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        Collections.sort(samples);
+        System.out.printf("requests=%d errors=%d throughput=%.0f req/s p50=%.1fms p99=%.1fms max=%.1fms%n",
+                requests, errors, samples.size() / elapsedSeconds, percentile(samples, 0.50),
+                percentile(samples, 0.99), percentile(samples, 1.0));
+    }
+
+    private static void seed(HttpClient client, String baseUrl, int users) throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int user = 0; user < users; user++) {
+            for (int i = 0; i < 5; i++) {
+                body.append("{\"userEmail\":\"burst-user-").append(user)
+                        .append("\",\"iataFlight\":\"GB").append(i).append("\",\"status\":\"PAYED\"}\n");
+            }
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/transactions/batch"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build();
+        client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static double percentile(List<Long> sorted, double percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1e6;
+    }
+}
@@ -0,0 +1,47 @@
+package gatemate.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gatemate.entities.TransactionStatus;
+import gatemate.entities.Transactions;
+
+final class BenchmarkData {
+
+    static final int USERS = 100;
+    static final int TRANSACTIONS_PER_USER = 50;
+
+    private BenchmarkData() {
+    }
+
+    static String userEmail(int user) {
+        return "bench-user-" + user + "@gatemate.test";
+    }
+
+    static Transactions transaction(int user, int index) {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail(userEmail(user));
+        transaction.setIataFlight("TP" + (1000 + index % 20));
+        transaction.setStatus(TransactionStatus.PAYED);
+        return transaction;
+    }
+
+    static List<Transactions> transactionsOf(int user) {
+        List<Transactions> transactions = new ArrayList<>(TRANSACTIONS_PER_USER);
+        for (int i = 0; i < TRANSACTIONS_PER_USER; i++) {
+            transactions.add(transaction(user, i));
+        }
+        return transactions;
+    }
+
+    static String[] springArgs(boolean web) {
+        return new String[] {
+                "--spring.main.web-application-type=" + (web ? "servlet" : "none"),
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "--spring.main.banner-mode=off",
+                "--gatemate.ratelimit.enabled=false",
+                "--logging.level.root=WARN"
+        };
+    }
+}
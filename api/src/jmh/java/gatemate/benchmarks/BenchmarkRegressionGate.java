@@ -0,0 +1,90 @@
+package gatemate.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares a JMH JSON result file against a stored baseline and exits with a
+ * non-zero status when any benchmark got slower than the allowed threshold.
+ * A change only counts when the 99.9% confidence intervals of the two runs
+ * do not overlap, so noise within either run's error is not a regression.
+ *
+ * Usage: BenchmarkRegressionGate baseline.json result.json [threshold]
+ */
+public final class BenchmarkRegressionGate {
+
+    private BenchmarkRegressionGate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        File baselineFile = new File(args[0]);
+        File resultFile = new File(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.20;
+
+        if (!baselineFile.exists()) {
+            System.out.println("No JMH baseline at " + baselineFile + ", skipping regression check");
+            return;
+        }
+        List<String> regressions = compare(read(baselineFile), read(resultFile), threshold);
+        if (regressions.isEmpty()) {
+            System.out.println("No benchmark regressed more than " + Math.round(threshold * 100) + "%");
+            return;
+        }
+        regressions.forEach(System.err::println);
+        System.exit(1);
+    }
+
+    static List<String> compare(Map<String, Score> baseline, Map<String, Score> results, double threshold) {
+        List<String> regressions = new ArrayList<>();
+        results.forEach((name, result) -> {
+            Score expected = baseline.get(name);
+            if (expected == null || !expected.mode().equals(result.mode())) {
+                return;
+            }
+            double change = (result.value() - expected.value()) / expected.value();
+            boolean higherIsBetter = "thrpt".equals(result.mode());
+            boolean worse = higherIsBetter
+                    ? change < -threshold && result.high() < expected.low()
+                    : change > threshold && result.low() > expected.high();
+            if (worse) {
+                regressions.add(String.format("REGRESSION %s: %.3f +/- %.3f -> %.3f +/- %.3f %s (%+.1f%%)", name,
+                        expected.value(), expected.error(), result.value(), result.error(), result.unit(),
+                        change * 100));
+            }
+        });
+        return regressions;
+    }
+
+    static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new HashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder name = new StringBuilder(run.path("benchmark").asText());
+            run.path("params").fields().forEachRemaining(param -> name.append(' ').append(param.getKey())
+                    .append('=').append(param.getValue().asText()));
+            JsonNode metric = run.path("primaryMetric");
+            // A single measurement has no error, which JMH writes as "NaN"
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(name.toString(), new Score(run.path("mode").asText(), metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    record Score(String mode, double value, double error, String unit) {
+
+        double low() {
+            return value - error;
+        }
+
+        double high() {
+            return value + error;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package gatemate.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import gatemate.entities.Transactions;
+import gatemate.repositories.TransactionView;
+
+/**
+ * Compares the response formats the controller negotiates on a list of
+ * transactions, with and without the gzip the server applies above
+ * {@code server.compression.min-response-size}. The encoded and gzipped
+ * sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ResponseFormatBenchmark {
+
+    private static final TypeReference<List<TransactionView>> TRANSACTION_LIST = new TypeReference<>() {
+    };
+
+    @Param({ "json", "smile", "cbor" })
+    private String format;
+
+    @Param({ "100", "1000" })
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<TransactionView> transactions;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "smile" -> new ObjectMapper(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build());
+            case "cbor" -> new ObjectMapper(new CBORFactory());
+            default -> new ObjectMapper();
+        };
+        transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Transactions transaction = BenchmarkData.transaction(i % BenchmarkData.USERS, i);
+            transactions.add(new TransactionView((long) i + 1, transaction.getUserEmail(), transaction.getIataFlight(),
+                    transaction.getStatus(), 0L));
+        }
+        encoded = objectMapper.writeValueAsBytes(transactions);
+        System.out.printf("%n%s, %d transactions: %d bytes, %d bytes gzipped%n", format, size, encoded.length,
+                gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(transactions);
+    }
+
+    @Benchmark
+    public byte[] serializeGzipped() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(transactions));
+    }
+
+    @Benchmark
+    public List<TransactionView> deserialize() throws IOException {
+        return objectMapper.readValue(encoded, TRANSACTION_LIST);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,64 @@
+package gatemate.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gatemate.entities.Transactions;
+import gatemate.repositories.TransactionView;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class SerializationBenchmark {
+
+    private static final TypeReference<List<TransactionView>> TRANSACTION_LIST = new TypeReference<>() {
+    };
+
+    @Param({ "10", "100", "1000" })
+    private int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<TransactionView> transactions;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Transactions transaction = BenchmarkData.transaction(i % BenchmarkData.USERS, i);
+            transactions.add(new TransactionView((long) i + 1, transaction.getUserEmail(), transaction.getIataFlight(),
+                    transaction.getStatus(), 0L));
+        }
+        json = objectMapper.writeValueAsBytes(transactions);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactions);
+    }
+
+    @Benchmark
+    public List<TransactionView> deserializeList() throws Exception {
+        return objectMapper.readValue(json, TRANSACTION_LIST);
+    }
+}
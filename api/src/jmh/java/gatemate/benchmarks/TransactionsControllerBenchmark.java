@@ -0,0 +1,157 @@
+package gatemate.benchmarks;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import gatemate.Application;
+import gatemate.entities.TransactionStatus;
+import gatemate.services.BatchItemResult;
+import gatemate.services.TransactionsService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class TransactionsControllerBenchmark {
+
+    private static final String TRANSACTION_JSON =
+            "{\"userEmail\":\"bench-writer@gatemate.test\",\"iataFlight\":\"TP9999\",\"status\":\"PAYED\"}";
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private JdbcTemplate jdbcTemplate;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(Application.class, BenchmarkData.springArgs(true));
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        TransactionsService transactionsService = context.getBean(TransactionsService.class);
+        ids = new ArrayList<>();
+        for (int user = 0; user < BenchmarkData.USERS; user++) {
+            for (BatchItemResult result : transactionsService.createTransactions(BenchmarkData.transactionsOf(user))) {
+                ids.add(result.id());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getTransaction() throws Exception {
+        return mockMvc.perform(get("/" + randomId()))
+                .andExpect(status().is2xxSuccessful()).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getTransactionsByUser() throws Exception {
+        return mockMvc.perform(get("/transactions_by_user/" + randomUser()))
+                .andExpect(status().is2xxSuccessful()).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getTransactionsByUserPage() throws Exception {
+        return mockMvc.perform(get("/transactions_by_user/" + randomUser() + "/page").param("limit", "20"))
+                .andExpect(status().is2xxSuccessful()).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createTransaction() throws Exception {
+        return mockMvc.perform(post("/create_transaction").contentType(MediaType.APPLICATION_JSON)
+                .content(TRANSACTION_JSON))
+                .andExpect(status().is2xxSuccessful()).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createTransactionsBatch() throws Exception {
+        return mockMvc.perform(post("/transactions/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("[" + TRANSACTION_JSON + "," + TRANSACTION_JSON + "]"))
+                .andExpect(status().is2xxSuccessful()).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult updateTransaction(PayedTransaction transaction) throws Exception {
+        return mockMvc.perform(put("/update_transaction/" + transaction.id).contentType(MediaType.APPLICATION_JSON)
+                .content(TRANSACTION_JSON))
+                .andExpect(status().is2xxSuccessful()).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult updateFlightStatus(PayedFlight flight) throws Exception {
+        return mockMvc.perform(put("/flights/" + PayedFlight.FLIGHT + "/status").param("status", "CHECKEDIN"))
+                .andExpect(status().is2xxSuccessful()).andReturn();
+    }
+
+    /**
+     * A transaction put back to PAYED before each call, so every call
+     * checks in a row instead of hitting the 409 path.
+     */
+    @State(Scope.Thread)
+    public static class PayedTransaction {
+
+        private long id;
+
+        @Setup(Level.Invocation)
+        public void reset(TransactionsControllerBenchmark benchmark) {
+            id = benchmark.randomId();
+            benchmark.jdbcTemplate.update("update transactions set status = ? where id = ?",
+                    TransactionStatus.PAYED.getCode(), id);
+        }
+    }
+
+    /**
+     * The flight's transactions put back to PAYED before each call, so every
+     * call moves the whole flight instead of finding nothing to update.
+     */
+    @State(Scope.Thread)
+    public static class PayedFlight {
+
+        static final String FLIGHT = "TP1000";
+
+        @Setup(Level.Invocation)
+        public void reset(TransactionsControllerBenchmark benchmark) {
+            benchmark.jdbcTemplate.update("update transactions set status = ? where iata_flight = ?",
+                    TransactionStatus.PAYED.getCode(), FLIGHT);
+        }
+    }
+
+    private long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static String randomUser() {
+        return BenchmarkData.userEmail(ThreadLocalRandom.current().nextInt(BenchmarkData.USERS));
+    }
+}
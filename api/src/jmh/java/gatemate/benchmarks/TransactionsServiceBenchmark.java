@@ -0,0 +1,82 @@
+package gatemate.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import gatemate.Application;
+import gatemate.entities.Transactions;
+import gatemate.repositories.TransactionView;
+import gatemate.services.BatchItemResult;
+import gatemate.services.TransactionsPage;
+import gatemate.services.TransactionsService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class TransactionsServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private TransactionsService transactionsService;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(Application.class, BenchmarkData.springArgs(false));
+        transactionsService = context.getBean(TransactionsService.class);
+        ids = new ArrayList<>();
+        for (int user = 0; user < BenchmarkData.USERS; user++) {
+            for (BatchItemResult result : transactionsService.createTransactions(BenchmarkData.transactionsOf(user))) {
+                ids.add(result.id());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Transactions getTransaction() {
+        return transactionsService.getTransaction(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public List<TransactionView> getTransactionsByUser() {
+        return transactionsService.getTransactionsByUser(randomUser());
+    }
+
+    @Benchmark
+    public TransactionsPage getTransactionsByUserPage() {
+        return transactionsService.getTransactionsByUser(randomUser(), null, 20);
+    }
+
+    @Benchmark
+    public List<BatchItemResult> createTransactions() {
+        return transactionsService.createTransactions(BenchmarkData.transactionsOf(BenchmarkData.USERS));
+    }
+
+    private static String randomUser() {
+        return BenchmarkData.userEmail(ThreadLocalRandom.current().nextInt(BenchmarkData.USERS));
+    }
+}
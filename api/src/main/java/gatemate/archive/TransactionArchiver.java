@@ -0,0 +1,111 @@
+package gatemate.archive;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import gatemate.cache.TransactionsCache;
+import gatemate.entities.TransactionStatus;
+import gatemate.repositories.ArchivedTransactionsRepository;
+import gatemate.repositories.TransactionView;
+import gatemate.repositories.TransactionsRepository;
+import gatemate.statistics.FlightCounters;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Moves completed transactions that have not changed within the retention
+ * window from {@code transactions} to {@code transactions_archive}, one
+ * chunk per database transaction. Completed statuses are terminal, so an
+ * archived row can no longer change. Each chunk is copied and deleted in
+ * the same transaction; a chunk that fails is rolled back whole and picked
+ * up again by the next run.
+ */
+@Component
+@ConditionalOnProperty(name = "gatemate.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionArchiver implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    static final Set<TransactionStatus> COMPLETED = EnumSet.of(TransactionStatus.CHECKEDIN, TransactionStatus.CANCELED);
+
+    private final TransactionsRepository transactionsRepository;
+    private final ArchivedTransactionsRepository archivedTransactionsRepository;
+    private final TransactionsCache transactionsCache;
+    private final FlightCounters flightCounters;
+    private final TransactionOperations transactionOperations;
+    private final LongAdder archived = new LongAdder();
+
+    @Value("${gatemate.archive.retention:P90D}")
+    private Duration retention = Duration.ofDays(90);
+
+    @Value("${gatemate.archive.chunk-size:500}")
+    private int chunkSize = 500;
+
+    public TransactionArchiver(TransactionsRepository transactionsRepository,
+            ArchivedTransactionsRepository archivedTransactionsRepository, TransactionsCache transactionsCache,
+            FlightCounters flightCounters, TransactionOperations transactionOperations) {
+        this.transactionsRepository = transactionsRepository;
+        this.archivedTransactionsRepository = archivedTransactionsRepository;
+        this.transactionsCache = transactionsCache;
+        this.flightCounters = flightCounters;
+        this.transactionOperations = transactionOperations;
+    }
+
+    @Scheduled(fixedDelayString = "${gatemate.archive.interval:PT1H}",
+            initialDelayString = "${gatemate.archive.initial-delay:PT5M}")
+    public void archive() {
+        try {
+            long moved = archiveUpdatedBefore(Instant.now().minus(retention));
+            if (moved > 0) {
+                logger.info("Archived {} transactions", moved);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Archiving transactions failed: {}", e.getMessage());
+        }
+    }
+
+    public long archiveUpdatedBefore(Instant cutoff) {
+        long total = 0;
+        List<TransactionView> chunk;
+        do {
+            chunk = transactionOperations.execute(status -> {
+                List<TransactionView> rows = transactionsRepository.findViewsUpdatedBefore(COMPLETED, cutoff,
+                        Limit.of(chunkSize));
+                if (!rows.isEmpty()) {
+                    List<Long> ids = rows.stream().map(TransactionView::id).toList();
+                    archivedTransactionsRepository.archive(ids);
+                    transactionsRepository.deleteByIds(ids);
+                    rows.forEach(row -> flightCounters.recordRemoved(row.iataFlight(), row.status(), 1));
+                }
+                return rows;
+            });
+            transactionsCache.evictTransactions(chunk.stream().map(TransactionView::id).toList());
+            chunk.stream().map(TransactionView::userEmail).distinct().forEach(transactionsCache::evictTransactionsByUser);
+            archived.add(chunk.size());
+            total += chunk.size();
+        } while (chunk.size() == chunkSize);
+        return total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gatemate.archive.archived", archived, LongAdder::sum)
+                .description("Transactions moved to the archive table")
+                .register(registry);
+    }
+}
@@ -0,0 +1,29 @@
+package gatemate.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface CacheBackend {
+    Optional<String> get(String key);
+
+    /**
+     * Returns the values of {@code keys} in order, with null for a key that
+     * is not cached.
+     */
+    List<String> getAll(List<String> keys);
+
+    void set(String key, String value, Duration ttl);
+
+    void setAll(Map<String, String> values, Duration ttl);
+
+    /**
+     * Stores the value unless the key exists and returns whether it did.
+     * Unlike the other methods, a backend failure is thrown rather than
+     * ignored, since the caller cannot tell a lost claim from a won one.
+     */
+    boolean setIfAbsent(String key, String value, Duration ttl);
+
+    void delete(String... keys);
+}
@@ -0,0 +1,50 @@
+package gatemate.cache;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import redis.clients.jedis.JedisPooled;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "gatemate.cache.backend", havingValue = "redis")
+    public CacheBackend redisCacheBackend(JedisPooled jedisPooled) {
+        return new RedisCacheBackend(jedisPooled);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gatemate.cache.backend", havingValue = "memory", matchIfMissing = true)
+    public CacheBackend inMemoryCacheBackend(@Value("${gatemate.cache.memory.max-entries:100000}") int maxEntries) {
+        return new InMemoryCacheBackend(maxEntries);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gatemate.cache.backend", havingValue = "redis")
+    public CacheInvalidations redisCacheInvalidations(JedisPooled jedisPooled,
+            @Value("${gatemate.cache.near.invalidation-channel:gatemate:cache:invalidations}") String channel,
+            @Value("${gatemate.cache.near.invalidation-retry:PT5S}") Duration retryInterval) {
+        return new RedisCacheInvalidations(jedisPooled, channel, retryInterval);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gatemate.cache.backend", havingValue = "memory", matchIfMissing = true)
+    public CacheInvalidations localCacheInvalidations() {
+        // The in-memory backend is per node, so there is no cluster to tell
+        return CacheInvalidations.NONE;
+    }
+
+    @Bean(initMethod = "start")
+    public TransactionsNearCache transactionsNearCache(CacheInvalidations cacheInvalidations,
+            @Value("${gatemate.cache.near.enabled:true}") boolean enabled,
+            @Value("${gatemate.cache.near.max-entries:10000}") long maxEntries,
+            @Value("${gatemate.cache.near.ttl:PT10S}") Duration ttl,
+            @Value("${gatemate.cache.near.missing-ttl:PT2S}") Duration missingTtl) {
+        return new TransactionsNearCache(cacheInvalidations, enabled, maxEntries, ttl, missingTtl);
+    }
+}
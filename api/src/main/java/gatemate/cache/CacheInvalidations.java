@@ -0,0 +1,28 @@
+package gatemate.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries near cache invalidations between nodes. A node publishes the ids
+ * it changed; every other node drops them from its near cache. {@code reset}
+ * is called whenever messages may have been missed, so the listener can drop
+ * everything it holds.
+ */
+public interface CacheInvalidations {
+
+    CacheInvalidations NONE = new CacheInvalidations() {
+        @Override
+        public void publish(Collection<Long> transactionIds) {
+        }
+
+        @Override
+        public void subscribe(Consumer<List<Long>> listener, Runnable reset) {
+        }
+    };
+
+    void publish(Collection<Long> transactionIds);
+
+    void subscribe(Consumer<List<Long>> listener, Runnable reset);
+}
@@ -0,0 +1,107 @@
+package gatemate.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Per-node backend on Caffeine. Each entry expires after its own TTL, and
+ * once {@code maxEntries} is reached Caffeine evicts in amortized constant
+ * time, preferring entries that are rarely read, instead of scanning.
+ */
+public class InMemoryCacheBackend implements CacheBackend {
+
+    private final Cache<String, Entry> entries;
+
+    public InMemoryCacheBackend(int maxEntries) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new EntryExpiry())
+                .build();
+    }
+
+    /**
+     * A backend that only drops entries when they expire. The caller keeps
+     * it within bounds, as {@code IdempotencyStore} does.
+     */
+    public InMemoryCacheBackend() {
+        this.entries = Caffeine.newBuilder()
+                .expireAfter(new EntryExpiry())
+                .build();
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        Entry entry = entries.getIfPresent(key);
+        return entry == null ? Optional.empty() : Optional.of(entry.value());
+    }
+
+    @Override
+    public List<String> getAll(List<String> keys) {
+        List<String> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(get(key).orElse(null));
+        }
+        return values;
+    }
+
+    @Override
+    public void set(String key, String value, Duration ttl) {
+        entries.put(key, new Entry(value, ttl.toNanos()));
+    }
+
+    @Override
+    public void setAll(Map<String, String> values, Duration ttl) {
+        values.forEach((key, value) -> set(key, value, ttl));
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, String value, Duration ttl) {
+        // Expired entries are invisible to the map view, so they count as absent
+        return entries.asMap().putIfAbsent(key, new Entry(value, ttl.toNanos())) == null;
+    }
+
+    @Override
+    public void delete(String... keys) {
+        entries.invalidateAll(List.of(keys));
+    }
+
+    public long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    /**
+     * Cheaper than {@link #size()}, but may still count expired entries.
+     */
+    public long estimatedSize() {
+        return entries.estimatedSize();
+    }
+
+    private record Entry(String value, long ttlNanos) {
+    }
+
+    private static final class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package gatemate.cache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.SetParams;
+
+public class RedisCacheBackend implements CacheBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheBackend.class);
+
+    private final JedisPooled jedis;
+
+    public RedisCacheBackend(JedisPooled jedis) {
+        this.jedis = jedis;
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        try {
+            return Optional.ofNullable(jedis.get(key));
+        } catch (JedisException e) {
+            logger.warn("Redis get failed for key {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<String> getAll(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return jedis.mget(keys.toArray(String[]::new));
+        } catch (JedisException e) {
+            logger.warn("Redis mget failed for {} keys: {}", keys.size(), e.getMessage());
+            return Arrays.asList(new String[keys.size()]);
+        }
+    }
+
+    @Override
+    public void set(String key, String value, Duration ttl) {
+        try {
+            jedis.psetex(key, ttl.toMillis(), value);
+        } catch (JedisException e) {
+            logger.warn("Redis set failed for key {}: {}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void setAll(Map<String, String> values, Duration ttl) {
+        if (values.isEmpty()) {
+            return;
+        }
+        try (AbstractPipeline pipeline = jedis.pipelined()) {
+            values.forEach((key, value) -> pipeline.psetex(key, ttl.toMillis(), value));
+            pipeline.sync();
+        } catch (JedisException e) {
+            logger.warn("Redis pipelined set failed for {} keys: {}", values.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, String value, Duration ttl) {
+        try {
+            return "OK".equals(jedis.set(key, value, SetParams.setParams().nx().px(ttl.toMillis())));
+        } catch (JedisException e) {
+            logger.warn("Redis set-if-absent failed for key {}: {}", key, e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String... keys) {
+        try {
+            jedis.del(keys);
+        } catch (JedisException e) {
+            logger.warn("Redis delete failed for keys {}: {}", String.join(",", keys), e.getMessage());
+        }
+    }
+}
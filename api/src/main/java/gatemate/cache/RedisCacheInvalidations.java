@@ -0,0 +1,133 @@
+package gatemate.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.PreDestroy;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * Near cache invalidations over Redis pub/sub. A message is the publishing
+ * node's id followed by the comma separated transaction ids, so a node skips
+ * its own messages. Pub/sub does not buffer for disconnected subscribers, so
+ * the listener is reset on every (re)subscribe. A failed publish is logged
+ * and the other nodes keep the entry until it expires.
+ */
+public class RedisCacheInvalidations implements CacheInvalidations {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheInvalidations.class);
+
+    private final JedisPooled jedis;
+    private final String channel;
+    private final Duration retryInterval;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private volatile JedisPubSub subscription;
+    private Thread subscriber;
+
+    public RedisCacheInvalidations(JedisPooled jedis, String channel, Duration retryInterval) {
+        this.jedis = jedis;
+        this.channel = channel;
+        this.retryInterval = retryInterval;
+    }
+
+    @Override
+    public void publish(Collection<Long> transactionIds) {
+        if (transactionIds.isEmpty()) {
+            return;
+        }
+        String message = nodeId + ":" + transactionIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            jedis.publish(channel, message);
+        } catch (JedisException e) {
+            logger.warn("Could not publish near cache invalidation of {} transactions: {}", transactionIds.size(),
+                    e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<List<Long>> listener, Runnable reset) {
+        if (subscriber != null) {
+            throw new IllegalStateException("Already subscribed to " + channel);
+        }
+        running = true;
+        subscriber = new Thread(() -> runSubscriber(listener, reset), "near-cache-invalidations");
+        subscriber.setDaemon(true);
+        subscriber.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        JedisPubSub current = subscription;
+        if (current != null && current.isSubscribed()) {
+            current.unsubscribe();
+        }
+        if (subscriber != null) {
+            subscriber.interrupt();
+            subscriber.join(retryInterval.toMillis());
+        }
+    }
+
+    private void runSubscriber(Consumer<List<Long>> listener, Runnable reset) {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            subscription = new JedisPubSub() {
+                @Override
+                public void onSubscribe(String channel, int subscribedChannels) {
+                    reset.run();
+                }
+
+                @Override
+                public void onMessage(String channel, String message) {
+                    List<Long> ids = parse(message);
+                    if (ids != null) {
+                        listener.accept(ids);
+                    }
+                }
+            };
+            try {
+                jedis.subscribe(subscription, channel);
+            } catch (JedisException e) {
+                logger.warn("Near cache invalidation subscription lost, retrying in {}: {}", retryInterval,
+                        e.getMessage());
+            }
+            // Messages published while disconnected are lost
+            reset.run();
+            if (running) {
+                try {
+                    Thread.sleep(retryInterval.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    List<Long> parse(String message) {
+        int separator = message.indexOf(':');
+        if (separator < 0 || message.startsWith(nodeId + ":")) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (String id : message.substring(separator + 1).split(",")) {
+            try {
+                ids.add(Long.valueOf(id));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed near cache invalidation {}", message);
+                return null;
+            }
+        }
+        return ids;
+    }
+}
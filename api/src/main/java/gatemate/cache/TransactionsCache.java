@@ -0,0 +1,229 @@
+package gatemate.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gatemate.entities.Transactions;
+import gatemate.repositories.TransactionView;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Component
+public class TransactionsCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionsCache.class);
+    private static final TypeReference<List<TransactionView>> TRANSACTION_VIEWS = new TypeReference<>() {
+    };
+
+    private final CacheBackend backend;
+    private final TransactionsNearCache nearCache;
+    private final ObjectMapper objectMapper;
+    private final Duration transactionTtl;
+    private final Duration userTtl;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TransactionsCache(CacheBackend backend, TransactionsNearCache nearCache, ObjectMapper objectMapper,
+            @Value("${gatemate.cache.ttl.transaction:PT5M}") Duration transactionTtl,
+            @Value("${gatemate.cache.ttl.user:PT1M}") Duration userTtl) {
+        this.backend = backend;
+        this.nearCache = nearCache;
+        this.objectMapper = objectMapper;
+        this.transactionTtl = transactionTtl;
+        this.userTtl = userTtl;
+    }
+
+    /**
+     * Looks the transaction up in the near cache, then in the backend. An id
+     * cached as missing returns empty without reaching the backend; check
+     * {@link #isTransactionMissing} to tell it from a miss.
+     */
+    public Optional<Transactions> getTransaction(Long id) {
+        Optional<Transactions> near = nearCache.get(id);
+        if (near != null) {
+            return near;
+        }
+        Optional<Transactions> cached = read(transactionKey(id), Transactions.class);
+        cached.ifPresent(nearCache::put);
+        return cached;
+    }
+
+    /**
+     * Looks the transactions up in the near cache, then the rest in the
+     * backend with one multi-key read. Ids that are not cached, or are
+     * cached as missing, are left out of the result.
+     */
+    public Map<Long, Transactions> getTransactions(Collection<Long> ids) {
+        Map<Long, Transactions> found = new HashMap<>();
+        List<Long> remote = new ArrayList<>();
+        for (Long id : ids) {
+            Optional<Transactions> near = nearCache.get(id);
+            if (near == null) {
+                remote.add(id);
+            } else {
+                near.ifPresent(transaction -> found.put(id, transaction));
+            }
+        }
+        if (remote.isEmpty()) {
+            return found;
+        }
+        List<String> values = backend.getAll(remote.stream().map(TransactionsCache::transactionKey).toList());
+        for (int i = 0; i < remote.size(); i++) {
+            Long id = remote.get(i);
+            Optional<Transactions> cached = parse(transactionKey(id), values.get(i),
+                    json -> objectMapper.readValue(json, Transactions.class));
+            cached.ifPresent(transaction -> {
+                found.put(id, transaction);
+                nearCache.put(transaction);
+            });
+        }
+        return found;
+    }
+
+    public boolean isTransactionMissing(Long id) {
+        return nearCache.isMissing(id);
+    }
+
+    public void putTransaction(Transactions transaction) {
+        write(transactionKey(transaction.getId()), transaction, transactionTtl);
+        nearCache.put(transaction);
+    }
+
+    public void putTransactions(Collection<Transactions> transactions) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Transactions transaction : transactions) {
+            try {
+                values.put(transactionKey(transaction.getId()), objectMapper.writeValueAsString(transaction));
+            } catch (JsonProcessingException e) {
+                logger.warn("Could not cache entry {}: {}", transactionKey(transaction.getId()), e.getMessage());
+            }
+            nearCache.put(transaction);
+        }
+        backend.setAll(values, transactionTtl);
+    }
+
+    public void putMissingTransaction(Long id) {
+        nearCache.putMissing(id);
+    }
+
+    public void evictTransaction(Long id) {
+        backend.delete(transactionKey(id));
+        nearCache.invalidate(List.of(id));
+    }
+
+    public void evictTransactions(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        backend.delete(ids.stream().map(TransactionsCache::transactionKey).toArray(String[]::new));
+        nearCache.invalidate(ids);
+    }
+
+    /**
+     * Forgets that the ids were missing, once they have been created. Only
+     * the near cache holds missing ids.
+     */
+    public void evictMissingTransactions(Collection<Long> ids) {
+        nearCache.invalidate(ids);
+    }
+
+    public Optional<List<TransactionView>> getTransactionsByUser(String userEmail) {
+        return read(userKey(userEmail), TRANSACTION_VIEWS);
+    }
+
+    public void putTransactionsByUser(String userEmail, List<TransactionView> transactions) {
+        write(userKey(userEmail), transactions, userTtl);
+    }
+
+    public void evictTransactionsByUser(String userEmail) {
+        backend.delete(userKey(userEmail));
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gatemate.cache.requests", this, TransactionsCache::getHits)
+                .description("Transaction cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("gatemate.cache.requests", this, TransactionsCache::getMisses)
+                .description("Transaction cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    private <T> Optional<T> read(String key, Class<T> type) {
+        return read(key, json -> objectMapper.readValue(json, type));
+    }
+
+    private <T> Optional<T> read(String key, TypeReference<T> type) {
+        return read(key, json -> objectMapper.readValue(json, type));
+    }
+
+    private <T> Optional<T> read(String key, JsonReader<T> reader) {
+        return parse(key, backend.get(key).orElse(null), reader);
+    }
+
+    private <T> Optional<T> parse(String key, String json, JsonReader<T> reader) {
+        if (json == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        try {
+            T value = reader.read(json);
+            hits.increment();
+            return Optional.of(value);
+        } catch (JsonProcessingException e) {
+            logger.warn("Discarding unreadable cache entry {}: {}", key, e.getMessage());
+            backend.delete(key);
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    private void write(String key, Object value, Duration ttl) {
+        try {
+            backend.set(key, objectMapper.writeValueAsString(value), ttl);
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    static String transactionKey(Long id) {
+        return "transactions:id:" + id;
+    }
+
+    static String userKey(String userEmail) {
+        return "transactions:user:" + userEmail;
+    }
+
+    @FunctionalInterface
+    private interface JsonReader<T> {
+        T read(String json) throws JsonProcessingException;
+    }
+}
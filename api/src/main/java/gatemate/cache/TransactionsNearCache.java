@@ -0,0 +1,172 @@
+package gatemate.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import gatemate.entities.Transactions;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * In-process tier in front of {@link CacheBackend} for single transactions.
+ * Caffeine's W-TinyLFU admission keeps the ids read most often during
+ * boarding. Ids that do not exist are cached as missing for a shorter time.
+ * Entries live only briefly because another node's write reaches this cache
+ * through {@link CacheInvalidations}, which is best effort.
+ */
+public class TransactionsNearCache implements MeterBinder {
+
+    private static final Optional<Transactions> MISSING = Optional.empty();
+
+    private final Cache<Long, Optional<Transactions>> cache;
+    private final CacheInvalidations invalidations;
+    private final boolean enabled;
+
+    private final LongAdder missingHits = new LongAdder();
+    private final LongAdder remoteInvalidations = new LongAdder();
+
+    public TransactionsNearCache(CacheInvalidations invalidations, boolean enabled, long maxEntries, Duration ttl,
+            Duration missingTtl) {
+        this.invalidations = invalidations;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new EntryExpiry(ttl.toNanos(), missingTtl.toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    public void start() {
+        if (enabled) {
+            invalidations.subscribe(this::invalidateLocally, cache::invalidateAll);
+        }
+    }
+
+    /**
+     * Returns the cached lookup of {@code id}: the transaction, an empty
+     * {@link Optional} when it is cached as missing, or {@code null} when
+     * this node does not know.
+     */
+    Optional<Transactions> get(Long id) {
+        if (!enabled) {
+            return null;
+        }
+        Optional<Transactions> cached = cache.getIfPresent(id);
+        if (cached != null && cached.isEmpty()) {
+            missingHits.increment();
+        }
+        return cached;
+    }
+
+    boolean isMissing(Long id) {
+        Optional<Transactions> cached = enabled ? cache.policy().getIfPresentQuietly(id) : null;
+        return cached != null && cached.isEmpty();
+    }
+
+    void put(Transactions transaction) {
+        if (enabled) {
+            cache.put(transaction.getId(), Optional.of(transaction));
+        }
+    }
+
+    void putMissing(Long id) {
+        if (enabled) {
+            cache.put(id, MISSING);
+        }
+    }
+
+    /**
+     * Drops the ids here and on every other node.
+     */
+    void invalidate(Collection<Long> ids) {
+        if (enabled) {
+            cache.invalidateAll(ids);
+            invalidations.publish(ids);
+        }
+    }
+
+    void invalidateLocally(List<Long> ids) {
+        remoteInvalidations.add(ids.size());
+        cache.invalidateAll(ids);
+    }
+
+    public long getHits() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMisses() {
+        return cache.stats().missCount();
+    }
+
+    public long getMissingHits() {
+        return missingHits.sum();
+    }
+
+    public long getEvictions() {
+        return cache.stats().evictionCount();
+    }
+
+    public long getRemoteInvalidations() {
+        return remoteInvalidations.sum();
+    }
+
+    public double getHitRatio() {
+        return cache.stats().hitRate();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gatemate.cache.near.requests", this, TransactionsNearCache::getHits)
+                .description("Near cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("gatemate.cache.near.requests", this, TransactionsNearCache::getMisses)
+                .description("Near cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("gatemate.cache.near.missing.hits", this, TransactionsNearCache::getMissingHits)
+                .description("Near cache hits on ids cached as missing")
+                .register(registry);
+        FunctionCounter.builder("gatemate.cache.near.evictions", this, TransactionsNearCache::getEvictions)
+                .description("Near cache entries evicted by size or age")
+                .register(registry);
+        FunctionCounter.builder("gatemate.cache.near.invalidations", this,
+                TransactionsNearCache::getRemoteInvalidations)
+                .description("Near cache entries dropped on another node's request")
+                .register(registry);
+        Gauge.builder("gatemate.cache.near.hit.ratio", this, TransactionsNearCache::getHitRatio)
+                .description("Near cache hit ratio since startup")
+                .register(registry);
+        Gauge.builder("gatemate.cache.near.size", cache, Cache::estimatedSize)
+                .description("Near cache entries")
+                .register(registry);
+    }
+
+    private record EntryExpiry(long ttlNanos, long missingTtlNanos) implements Expiry<Long, Optional<Transactions>> {
+
+        @Override
+        public long expireAfterCreate(Long key, Optional<Transactions> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : missingTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Optional<Transactions> value, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Optional<Transactions> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package gatemate.coalescing;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import gatemate.entities.Transactions;
+import gatemate.repositories.TransactionView;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Coalesces concurrent cache-miss loads of the same transaction or the same
+ * user's list, as when a gate opens and every device asks at once. Only
+ * loads are coalesced; cache hits never get here. The loaded value is
+ * cached through {@code store}, which is skipped when a write forgot the
+ * key during the load.
+ */
+@Component
+public class ReadCoalescing implements MeterBinder {
+
+    private final SingleFlight<Long, Transactions> transactions = new SingleFlight<>();
+    private final SingleFlight<String, List<TransactionView>> transactionsByUser = new SingleFlight<>();
+
+    @Value("${gatemate.coalescing.enabled:true}")
+    private boolean enabled = true;
+
+    public Transactions transaction(Long id, Supplier<Transactions> loader, Consumer<Transactions> store) {
+        return enabled ? transactions.execute(id, loader, store) : load(loader, store);
+    }
+
+    public List<TransactionView> transactionsByUser(String userEmail, Supplier<List<TransactionView>> loader,
+            Consumer<List<TransactionView>> store) {
+        return enabled ? transactionsByUser.execute(userEmail, loader, store) : load(loader, store);
+    }
+
+    public void forgetTransaction(Long id) {
+        transactions.forget(id);
+    }
+
+    public void forgetTransactionsByUser(String userEmail) {
+        transactionsByUser.forget(userEmail);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "transaction", transactions);
+        bind(registry, "user", transactionsByUser);
+    }
+
+    private static <V> V load(Supplier<V> loader, Consumer<V> store) {
+        V value = loader.get();
+        store.accept(value);
+        return value;
+    }
+
+    private static void bind(MeterRegistry registry, String read, SingleFlight<?, ?> singleFlight) {
+        FunctionCounter.builder("gatemate.coalescing.requests", singleFlight, SingleFlight::getLoads)
+                .description("Cache-miss reads, by whether they ran the query or shared another request's")
+                .tag("read", read)
+                .tag("result", "loaded")
+                .register(registry);
+        FunctionCounter.builder("gatemate.coalescing.requests", singleFlight, SingleFlight::getCoalesced)
+                .description("Cache-miss reads, by whether they ran the query or shared another request's")
+                .tag("read", read)
+                .tag("result", "coalesced")
+                .register(registry);
+        FunctionCounter.builder("gatemate.coalescing.stale", singleFlight, SingleFlight::getStale)
+                .description("Loads not cached because a write forgot the key while they ran")
+                .tag("read", read)
+                .register(registry);
+        Gauge.builder("gatemate.coalescing.in.flight", singleFlight, SingleFlight::getInFlight)
+                .description("Loads currently running")
+                .tag("read", read)
+                .register(registry);
+    }
+}
@@ -0,0 +1,111 @@
+package gatemate.coalescing;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs at most one load per key at a time. The first caller for a key runs
+ * the loader; callers that arrive while it is running wait for its result,
+ * or its exception, instead of running their own. Nothing is kept after the
+ * load completes, so this is not a cache.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+
+    public V execute(K key, Supplier<V> loader) {
+        return execute(key, loader, value -> {
+        });
+    }
+
+    /**
+     * Like {@link #execute(Object, Supplier)}, and hands the loaded value to
+     * {@code store} unless the key was forgotten while it loaded, since the
+     * value may then predate the write.
+     */
+    public V execute(K key, Supplier<V> loader, Consumer<V> store) {
+        Flight<V> flight = new Flight<>();
+        Flight<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.increment();
+            return await(running.result);
+        }
+        loads.increment();
+        try {
+            V value = loader.get();
+            synchronized (flight) {
+                if (flight.forgotten) {
+                    stale.increment();
+                } else {
+                    store.accept(value);
+                }
+            }
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Lets callers that arrive after a write start a new load instead of
+     * joining one that may have read the row before the write, and stops the
+     * running load from storing its value. A store that already ran is not
+     * undone, so writers forget before they evict.
+     */
+    public void forget(K key) {
+        Flight<V> flight = inFlight.remove(key);
+        if (flight != null) {
+            synchronized (flight) {
+                flight.forgotten = true;
+            }
+        }
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getStale() {
+        return stale.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Flight<V> {
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private boolean forgotten;
+    }
+}
@@ -0,0 +1,19 @@
+package gatemate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import redis.clients.jedis.JedisPooled;
+
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    @Lazy
+    public JedisPooled jedisPooled(@Value("${gatemate.redis.host:localhost}") String host,
+            @Value("${gatemate.redis.port:6379}") int port) {
+        return new JedisPooled(host, port);
+    }
+}
@@ -0,0 +1,34 @@
+package gatemate.controllers;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import gatemate.ingestion.IngestionStatus;
+import gatemate.ingestion.WriteBehindIngestion;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.AllArgsConstructor;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/ingestion")
+@ConditionalOnProperty(name = "gatemate.ingestion.mode", havingValue = "write-behind")
+public class IngestionController {
+    private final WriteBehindIngestion writeBehindIngestion;
+
+    @Operation(summary = "Obter o estado da ingestão assíncrona de transações")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estado da ingestão", content = @Content(schema = @Schema(implementation = IngestionStatus.class)))
+    })
+    @GetMapping("/status")
+    public ResponseEntity<Object> getStatus() {
+        return new ResponseEntity<>(writeBehindIngestion.getStatus(), HttpStatus.OK);
+    }
+}
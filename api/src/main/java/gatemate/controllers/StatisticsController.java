@@ -0,0 +1,71 @@
+package gatemate.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import gatemate.entities.TransactionStatus;
+import gatemate.statistics.FlightCounters;
+import gatemate.statistics.FlightStatistics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.AllArgsConstructor;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/statistics")
+public class StatisticsController {
+    static final int MAX_TOP_FLIGHTS = 100;
+
+    private final FlightCounters flightCounters;
+
+    @Operation(summary = "Obter a contagem de transações de um voo por estado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Contagens do voo", content = @Content(schema = @Schema(implementation = FlightStatistics.class))),
+            @ApiResponse(responseCode = "404", description = "Nenhuma transação encontrada para o voo", content = @Content)
+    })
+    @GetMapping("/flights/{iataFlight}")
+    public ResponseEntity<Object> getFlightStatistics(@PathVariable String iataFlight) {
+        FlightStatistics statistics = flightCounters.getFlight(iataFlight);
+        if (statistics == null) {
+            return new ResponseEntity<>("No transactions found for flight: " + iataFlight, HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(statistics, HttpStatus.OK);
+    }
+
+    @Operation(summary = "Listar os voos com mais transações, opcionalmente num estado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Voos ordenados por número de transações", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Estado inválido", content = @Content)
+    })
+    @GetMapping("/flights")
+    public ResponseEntity<Object> getTopFlights(@RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "10") int limit) {
+        TransactionStatus filter = null;
+        if (status != null) {
+            try {
+                filter = TransactionStatus.valueOf(status);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>("Invalid status: " + status, HttpStatus.BAD_REQUEST);
+            }
+        }
+        int size = Math.min(Math.max(limit, 1), MAX_TOP_FLIGHTS);
+        return new ResponseEntity<>(flightCounters.getTopFlights(filter, size), HttpStatus.OK);
+    }
+
+    @Operation(summary = "Obter o total de transações por estado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Totais por estado", content = @Content)
+    })
+    @GetMapping("/statuses")
+    public ResponseEntity<Object> getStatusTotals() {
+        return new ResponseEntity<>(flightCounters.getTotals(), HttpStatus.OK);
+    }
+}
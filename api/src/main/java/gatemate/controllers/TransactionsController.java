@@ -1,15 +1,54 @@
 package gatemate.controllers;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gatemate.entities.TransactionStatus;
 import gatemate.entities.Transactions;
+import gatemate.idempotency.IdempotencyRecord;
+import gatemate.idempotency.IdempotencyStore;
+import gatemate.idempotency.IdempotencyStoreFullException;
+import gatemate.idempotency.IdempotencyStoreUnavailableException;
+import gatemate.ingestion.IngestionBackpressureException;
+import gatemate.ingestion.WriteBehindIngestion;
+import gatemate.repositories.TransactionView;
+import gatemate.repositories.TransactionsVersion;
+import gatemate.services.BatchItemResult;
+import gatemate.services.BatchTooLargeException;
+import gatemate.services.FlightStatusUpdate;
+import gatemate.services.InvalidCursorException;
+import gatemate.services.InvalidStatusTransitionException;
 import gatemate.services.TransactionNotFoundException;
+import gatemate.services.TransactionsLookup;
+import gatemate.services.TransactionsPage;
 import gatemate.services.TransactionsService;
-import lombok.AllArgsConstructor;
+import gatemate.services.VersionConflictException;
+import gatemate.subscriptions.TooManySubscribersException;
+import gatemate.subscriptions.TransactionSubscriptions;
+import lombok.RequiredArgsConstructor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -17,70 +56,345 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 @RestController
-@AllArgsConstructor
+@RequiredArgsConstructor
 @RequestMapping("/")
 public class TransactionsController {
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final TransactionsService transactionsService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectProvider<WriteBehindIngestion> writeBehindIngestion;
+    private final TransactionSubscriptions transactionSubscriptions;
+
+    @Value("${gatemate.transactions.batch.max-items:1000}")
+    private int batchMaxItems = 1000;
 
     @Operation(summary = "Obter transações por e-mail do usuário")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Transações encontradas", content = @Content(schema = @Schema(implementation = Transactions.class))),
+            @ApiResponse(responseCode = "200", description = "Transações encontradas", content = @Content(schema = @Schema(implementation = TransactionView.class))),
+            @ApiResponse(responseCode = "304", description = "Transações inalteradas desde o ETag enviado em If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Nenhuma transação encontrada para o usuário", content = @Content(schema = @Schema(implementation = String.class)))
     })
     @GetMapping("/transactions_by_user/{userEmail}")
-    public ResponseEntity<Object> getTransactionsByUser(@PathVariable String userEmail) {
-        List<Transactions> transactions = transactionsService.getTransactionsByUser(userEmail);
+    public ResponseEntity<Object> getTransactionsByUser(@PathVariable String userEmail,
+            @RequestParam(required = false) Set<TransactionStatus> status, WebRequest request) {
+        boolean filtered = status != null && !status.isEmpty();
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            TransactionsVersion version = filtered
+                    ? transactionsService.getTransactionsByUserVersion(userEmail, status)
+                    : transactionsService.getTransactionsByUserVersion(userEmail);
+            if (version.count() > 0 && request.checkNotModified(listETag(version))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(listETag(version))
+                        .varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+        List<TransactionView> transactions = filtered
+                ? transactionsService.getTransactionsByUser(userEmail, status)
+                : transactionsService.getTransactionsByUser(userEmail);
 
         if (transactions.isEmpty()) {
             return new ResponseEntity<>("No transactions found for user: " + userEmail, HttpStatus.NOT_FOUND);
         } else {
-            return new ResponseEntity<>(transactions, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(listETag(TransactionsVersion.of(transactions))).varyBy(HttpHeaders.ACCEPT)
+                    .body(transactions);
+        }
+    }
+
+    @Operation(summary = "Obter transações por e-mail do usuário, paginadas por cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de transações", content = @Content(schema = @Schema(implementation = TransactionsPage.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor ou tamanho de página inválido", content = @Content(schema = @Schema(implementation = String.class)))
+    })
+    @GetMapping("/transactions_by_user/{userEmail}/page")
+    public ResponseEntity<Object> getTransactionsByUserPage(@PathVariable String userEmail,
+            @RequestParam(required = false) Set<TransactionStatus> status,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1) {
+            return new ResponseEntity<>("Invalid page size", HttpStatus.BAD_REQUEST);
+        }
+        try {
+            TransactionsPage page = status == null || status.isEmpty()
+                    ? transactionsService.getTransactionsByUser(userEmail, cursor, limit)
+                    : transactionsService.getTransactionsByUser(userEmail, status, cursor, limit);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (InvalidCursorException e) {
+            return new ResponseEntity<>("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Operation(summary = "Transmitir as transações do usuário em NDJSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Uma transação por linha", content = @Content(mediaType = APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = TransactionView.class)))
+    })
+    @GetMapping(value = "/transactions_by_user/{userEmail}/stream", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTransactionsByUser(@PathVariable String userEmail) {
+        StreamingResponseBody body = out -> transactionsService.streamTransactionsByUser(userEmail, transaction -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(transaction));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
+    }
+
+    @Operation(summary = "Subscrever alterações às transações do usuário (Server-Sent Events)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Eventos created e status_changed com a transação alterada", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = TransactionView.class))),
+            @ApiResponse(responseCode = "503", description = "Limite de subscrições atingido", content = @Content)
+    })
+    @GetMapping(value = "/transactions_by_user/{userEmail}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeTransactionsByUser(@PathVariable String userEmail) {
+        try {
+            return new ResponseEntity<>(transactionSubscriptions.subscribe(userEmail), HttpStatus.OK);
+        } catch (TooManySubscribersException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build();
         }
     }
 
     @Operation(summary = "Criar uma nova transação")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Transação criada", content = @Content(schema = @Schema(implementation = String.class))),
-            @ApiResponse(responseCode = "400", description = "Dados da transação inválidos", content = @Content(schema = @Schema(implementation = String.class)))
+            @ApiResponse(responseCode = "202", description = "Transação aceite para escrita assíncrona", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "400", description = "Dados da transação inválidos", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "409", description = "Pedido com a mesma Idempotency-Key ainda em curso", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key reutilizada com dados diferentes", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "503", description = "Fila de ingestão ou armazenamento de Idempotency-Key cheio ou indisponível", content = @Content(schema = @Schema(implementation = String.class)))
     })
     @PostMapping("/create_transaction")
-    public ResponseEntity<String> createTransaction(@RequestBody Transactions transaction) {
+    public ResponseEntity<String> createTransaction(@RequestBody Transactions transaction,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         if (transaction.getUserEmail() == null || transaction.getIataFlight() == null
-                || transaction.getStatus() == null) {
+                || transaction.getStatus() == null
+                || transaction.getUserEmail().length() > Transactions.MAX_TEXT_LENGTH
+                || transaction.getIataFlight().length() > Transactions.MAX_TEXT_LENGTH) {
             return new ResponseEntity<>("Invalid transaction data", HttpStatus.BAD_REQUEST);
         }
-        transactionsService.createTransaction(transaction);
-        return new ResponseEntity<>("Transaction created", HttpStatus.CREATED);
+        if (idempotencyKey == null) {
+            return create(transaction);
+        }
+
+        String fingerprint = transaction.getUserEmail() + "|" + transaction.getIataFlight() + "|"
+                + transaction.getStatus();
+        Optional<IdempotencyRecord> existing;
+        try {
+            existing = idempotencyStore.claim(idempotencyKey, fingerprint);
+        } catch (IdempotencyStoreFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Idempotency store is full");
+        } catch (IdempotencyStoreUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Idempotency store is unavailable");
+        }
+        if (existing.isPresent()) {
+            return replay(existing.get(), fingerprint);
+        }
+        ResponseEntity<String> response;
+        try {
+            response = create(transaction);
+        } catch (RuntimeException e) {
+            idempotencyStore.release(idempotencyKey);
+            throw e;
+        }
+        if (response.getStatusCode().is2xxSuccessful()) {
+            idempotencyStore.complete(idempotencyKey,
+                    new IdempotencyRecord(fingerprint, response.getStatusCode().value(), response.getBody()));
+        } else {
+            idempotencyStore.release(idempotencyKey);
+        }
+        return response;
+    }
+
+    private ResponseEntity<String> create(Transactions transaction) {
+        WriteBehindIngestion ingestion = writeBehindIngestion.getIfAvailable();
+        if (ingestion == null) {
+            transactionsService.createTransaction(transaction);
+            return new ResponseEntity<>("Transaction created", HttpStatus.CREATED);
+        }
+        try {
+            long id = ingestion.submit(transaction);
+            return ResponseEntity.accepted().location(URI.create("/" + id)).body("Transaction accepted");
+        } catch (IngestionBackpressureException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Ingestion queue is full");
+        }
+    }
+
+    private static ResponseEntity<String> replay(IdempotencyRecord record, String fingerprint) {
+        if (!fingerprint.equals(record.fingerprint())) {
+            return new ResponseEntity<>("Idempotency-Key reused with different transaction data",
+                    HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        if (record.isPending()) {
+            return new ResponseEntity<>("Request with this Idempotency-Key is still in progress", HttpStatus.CONFLICT);
+        }
+        return ResponseEntity.status(record.status()).header(IDEMPOTENT_REPLAYED_HEADER, "true").body(record.body());
+    }
+
+    @Operation(summary = "Criar transações em lote (array JSON ou NDJSON)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Todas as transações criadas", content = @Content(schema = @Schema(implementation = BatchItemResult.class))),
+            @ApiResponse(responseCode = "207", description = "Algumas transações rejeitadas", content = @Content(schema = @Schema(implementation = BatchItemResult.class))),
+            @ApiResponse(responseCode = "400", description = "Lote vazio ou inválido", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "413", description = "Lote demasiado grande", content = @Content(schema = @Schema(implementation = String.class)))
+    })
+    @PostMapping(value = "/transactions/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> createTransactions(@RequestBody List<Transactions> transactions) {
+        return createBatch(transactions);
+    }
+
+    /**
+     * Stops reading at the first line past {@code batch.max-items}, so an
+     * oversized body is rejected without holding it in memory.
+     */
+    @PostMapping(value = "/transactions/batch", consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Object> createTransactionsFromNdjson(InputStream body) throws IOException {
+        List<Transactions> transactions = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (transactions.size() == batchMaxItems) {
+                return new ResponseEntity<>("Batch exceeds " + batchMaxItems + " transactions",
+                        HttpStatus.PAYLOAD_TOO_LARGE);
+            }
+            try {
+                transactions.add(objectMapper.readValue(line, Transactions.class));
+            } catch (JsonProcessingException e) {
+                transactions.add(null);
+            }
+        }
+        return createBatch(transactions);
+    }
+
+    private ResponseEntity<Object> createBatch(List<Transactions> transactions) {
+        if (transactions == null || transactions.isEmpty()) {
+            return new ResponseEntity<>("Empty transaction batch", HttpStatus.BAD_REQUEST);
+        }
+        List<BatchItemResult> results;
+        try {
+            results = transactionsService.createTransactions(transactions);
+        } catch (BatchTooLargeException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        boolean allCreated = results.stream().allMatch(result -> result.outcome() == BatchItemResult.Outcome.CREATED);
+        return new ResponseEntity<>(results, allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
     }
 
     @Operation(summary = "Atualizar uma transação existente")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Transação atualizada", content = @Content(schema = @Schema(implementation = String.class))),
             @ApiResponse(responseCode = "400", description = "Dados da transação inválidos", content = @Content(schema = @Schema(implementation = String.class))),
-            @ApiResponse(responseCode = "404", description = "Transação não encontrada", content = @Content(schema = @Schema(implementation = String.class)))
+            @ApiResponse(responseCode = "404", description = "Transação não encontrada", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "409", description = "Transição de estado inválida", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "412", description = "A transação mudou desde o ETag enviado em If-Match", content = @Content(schema = @Schema(implementation = String.class)))
     })
     @PutMapping("/update_transaction/{id}")
-    public ResponseEntity<String> updateTransaction(@PathVariable Long id, @RequestBody Transactions transaction) {
+    public ResponseEntity<String> updateTransaction(@PathVariable Long id, @RequestBody Transactions transaction,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (transaction.getUserEmail() == null || transaction.getIataFlight() == null
                 || transaction.getStatus() == null) {
             return new ResponseEntity<>("Invalid transaction data", HttpStatus.BAD_REQUEST);
         }
+        Long expectedVersion = null;
+        if (ifMatch != null) {
+            expectedVersion = parseVersion(ifMatch, id);
+            if (expectedVersion == null) {
+                return new ResponseEntity<>("Transaction was modified", HttpStatus.PRECONDITION_FAILED);
+            }
+        }
         try {
-            transactionsService.updateTransaction(id);
+            if (expectedVersion == null) {
+                transactionsService.updateTransaction(id);
+            } else {
+                transactionsService.updateTransaction(id, expectedVersion);
+            }
             return new ResponseEntity<>("Transaction updated", HttpStatus.OK);
         } catch (TransactionNotFoundException e) {
             return new ResponseEntity<>("Transaction not found", HttpStatus.NOT_FOUND);
+        } catch (InvalidStatusTransitionException e) {
+            return new ResponseEntity<>("Invalid status transition", HttpStatus.CONFLICT);
+        } catch (VersionConflictException e) {
+            return new ResponseEntity<>("Transaction was modified", HttpStatus.PRECONDITION_FAILED);
+        }
+    }
+
+    @Operation(summary = "Alterar o estado de todas as transações de um voo")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transações do voo atualizadas", content = @Content(schema = @Schema(implementation = FlightStatusUpdate.class))),
+            @ApiResponse(responseCode = "400", description = "Estado de destino inválido", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "404", description = "Nenhuma transação encontrada para o voo", content = @Content(schema = @Schema(implementation = String.class)))
+    })
+    @PutMapping("/flights/{iataFlight}/status")
+    public ResponseEntity<Object> updateFlightStatus(@PathVariable String iataFlight,
+            @RequestParam TransactionStatus status) {
+        try {
+            return new ResponseEntity<>(transactionsService.updateFlightStatus(iataFlight, status), HttpStatus.OK);
+        } catch (InvalidStatusTransitionException e) {
+            return new ResponseEntity<>("Invalid target status", HttpStatus.BAD_REQUEST);
+        } catch (TransactionNotFoundException e) {
+            return new ResponseEntity<>("No transactions found for flight: " + iataFlight, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @Operation(summary = "Obter transações de um voo, filtradas por estado e paginadas por cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de transações", content = @Content(schema = @Schema(implementation = TransactionsPage.class))),
+            @ApiResponse(responseCode = "400", description = "Estado, cursor ou tamanho de página inválido", content = @Content(schema = @Schema(implementation = String.class)))
+    })
+    @GetMapping("/flights/{iataFlight}/transactions")
+    public ResponseEntity<Object> getTransactionsByFlight(@PathVariable String iataFlight,
+            @RequestParam(required = false) Set<TransactionStatus> status,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1) {
+            return new ResponseEntity<>("Invalid page size", HttpStatus.BAD_REQUEST);
+        }
+        try {
+            TransactionsPage page = status == null || status.isEmpty()
+                    ? transactionsService.getTransactionsByFlight(iataFlight, cursor, limit)
+                    : transactionsService.getTransactionsByFlight(iataFlight, status, cursor, limit);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (InvalidCursorException e) {
+            return new ResponseEntity<>("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @Operation(summary = "Obter várias transações pelos IDs numa só chamada")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transações encontradas e IDs em falta", content = @Content(schema = @Schema(implementation = TransactionsLookup.class))),
+            @ApiResponse(responseCode = "400", description = "Lista de IDs inválida", content = @Content(schema = @Schema(implementation = String.class))),
+            @ApiResponse(responseCode = "413", description = "Demasiados IDs", content = @Content(schema = @Schema(implementation = String.class)))
+    })
+    @PostMapping(value = "/transactions/lookup", consumes = { MediaType.APPLICATION_JSON_VALUE,
+            APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE })
+    public ResponseEntity<Object> getTransactions(@RequestBody(required = false) List<Long> ids) {
+        if (ids == null || ids.contains(null)) {
+            return new ResponseEntity<>("Invalid transaction IDs", HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(transactionsService.getTransactions(ids), HttpStatus.OK);
+        } catch (BatchTooLargeException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE);
         }
     }
 
     @Operation(summary = "Obter informações de uma transação pelo ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Transação encontrada", content = @Content(schema = @Schema(implementation = Transactions.class))),
+            @ApiResponse(responseCode = "304", description = "Transação inalterada desde o ETag enviado em If-None-Match", content = @Content),
             @ApiResponse(responseCode = "400", description = "ID da transação inválido", content = @Content(schema = @Schema(implementation = String.class))),
             @ApiResponse(responseCode = "404", description = "Transação não encontrada", content = @Content(schema = @Schema(implementation = String.class)))
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getTransaction(@PathVariable String id) {
+    public ResponseEntity<Object> getTransaction(@PathVariable String id, WebRequest request) {
         Long longId;
         try {
             longId = Long.parseLong(id);
@@ -88,12 +402,53 @@ public class TransactionsController {
             return new ResponseEntity<>("Invalid transaction ID", HttpStatus.BAD_REQUEST);
         }
 
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = transactionsService.getTransactionVersion(longId);
+            if (version.isPresent() && request.checkNotModified(transactionETag(longId, version.get()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(transactionETag(longId, version.get()))
+                        .varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
         Transactions transaction = transactionsService.getTransaction(longId);
 
         if (transaction == null) {
             return new ResponseEntity<>("Transaction not found", HttpStatus.NOT_FOUND);
         } else {
-            return new ResponseEntity<>(transaction, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(transactionETag(longId, transaction.getVersion()))
+                    .varyBy(HttpHeaders.ACCEPT).body(transaction);
+        }
+    }
+
+    /**
+     * Weak, since JSON, Smile and CBOR bodies of the same version are
+     * equivalent but not byte-for-byte equal.
+     */
+    private static String transactionETag(Long id, Long version) {
+        return "W/\"" + id + "-" + version + "\"";
+    }
+
+    private static String listETag(TransactionsVersion version) {
+        return "W/\"" + version.count() + "-" + version.maxId() + "-" + version.versionSum() + "\"";
+    }
+
+    /**
+     * Reads the version out of an If-Match value produced by
+     * {@link #transactionETag}, or returns null if it names another resource.
+     * The strong form of the same tag is accepted too.
+     */
+    private static Long parseVersion(String ifMatch, Long id) {
+        String prefix = "\"" + id + "-";
+        String etag = ifMatch.trim();
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        if (!etag.startsWith(prefix) || !etag.endsWith("\"")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(etag.substring(prefix.length(), etag.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 }
@@ -0,0 +1,157 @@
+package gatemate.datasource;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Logs a warning at startup for each pool setting that does not fit the rest
+ * of the configuration: a pool larger than the request threads can use, a
+ * connection limit the pool cannot honour, a shrinking pool, MySQL driver
+ * properties the repositories rely on, and a {@code max-lifetime} the server
+ * would cut short. The {@code mysql} profile passes every check.
+ */
+@Component
+public class DataSourceSettingsCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceSettingsCheck.class);
+
+    static final String WAIT_TIMEOUT_SQL = "select @@wait_timeout";
+
+    private static final Map<String, String> MYSQL_PROPERTIES = new LinkedHashMap<>();
+
+    static {
+        MYSQL_PROPERTIES.put("cachePrepStmts", "the driver prepares every statement again");
+        MYSQL_PROPERTIES.put("useServerPrepStmts", "statements are not prepared on the server");
+        MYSQL_PROPERTIES.put("rewriteBatchedStatements", "JDBC batches are sent one statement per round trip");
+        MYSQL_PROPERTIES.put("useCursorFetch", "streamed reads load the whole result set into memory");
+    }
+
+    private final DataSource dataSource;
+    private final Environment environment;
+
+    public DataSourceSettingsCheck(DataSource dataSource, Environment environment) {
+        this.dataSource = dataSource;
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        HikariDataSource pool = unwrap(dataSource);
+        if (pool == null) {
+            logger.info("Data source is not a Hikari pool; skipping the settings check");
+            return;
+        }
+        List<String> warnings = check(pool);
+        if (isMySql(pool)) {
+            checkMaxLifetime(pool, warnings);
+        }
+        warnings.forEach(warning -> logger.warn("Data source settings: {}", warning));
+        logger.info("Data source pool {}: maximum-pool-size={}, minimum-idle={}, connection-timeout={}ms, {} warnings",
+                pool.getPoolName(), pool.getMaximumPoolSize(), pool.getMinimumIdle(), pool.getConnectionTimeout(),
+                warnings.size());
+    }
+
+    List<String> check(HikariConfig pool) {
+        List<String> warnings = new ArrayList<>();
+        int poolSize = pool.getMaximumPoolSize();
+        boolean virtualThreads = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        boolean connectionLimit = environment.getProperty("gatemate.datasource.connection-limit.enabled",
+                Boolean.class, false);
+        if (!virtualThreads) {
+            int requestThreads = environment.getProperty("server.tomcat.threads.max", Integer.class, 200);
+            if (poolSize > requestThreads) {
+                warnings.add("maximum-pool-size " + poolSize + " exceeds server.tomcat.threads.max "
+                        + requestThreads + "; the extra connections stay idle");
+            }
+        } else if (!connectionLimit) {
+            warnings.add("virtual threads are enabled without gatemate.datasource.connection-limit; a burst waits "
+                    + "in Hikari and fails after connection-timeout " + pool.getConnectionTimeout() + "ms");
+        }
+        if (connectionLimit) {
+            int permits = environment.getProperty("gatemate.datasource.connection-limit.permits", Integer.class,
+                    poolSize);
+            if (permits > poolSize) {
+                warnings.add("gatemate.datasource.connection-limit.permits " + permits
+                        + " exceeds maximum-pool-size " + poolSize + "; callers past the pool size wait in Hikari");
+            }
+        }
+        if (pool.getMinimumIdle() < poolSize) {
+            warnings.add("minimum-idle " + pool.getMinimumIdle() + " is below maximum-pool-size " + poolSize
+                    + "; the pool shrinks when idle and a boarding burst pays for new connections");
+        }
+        if (isMySql(pool)) {
+            Map<String, String> properties = driverProperties(pool);
+            MYSQL_PROPERTIES.forEach((property, consequence) -> {
+                if (!"true".equalsIgnoreCase(properties.get(property))) {
+                    warnings.add(property + " is not enabled; " + consequence);
+                }
+            });
+        }
+        return warnings;
+    }
+
+    private void checkMaxLifetime(HikariDataSource pool, List<String> warnings) {
+        try {
+            Long waitTimeout = new JdbcTemplate(pool).queryForObject(WAIT_TIMEOUT_SQL, Long.class);
+            if (waitTimeout != null && pool.getMaxLifetime() >= TimeUnit.SECONDS.toMillis(waitTimeout)) {
+                warnings.add("max-lifetime " + pool.getMaxLifetime() + "ms is not below the server's wait_timeout "
+                        + waitTimeout + "s; idle connections are closed by the server first");
+            }
+        } catch (DataAccessException e) {
+            warnings.add("could not read wait_timeout: " + e.getMessage());
+        }
+    }
+
+    private static boolean isMySql(HikariConfig pool) {
+        return pool.getJdbcUrl() != null && pool.getJdbcUrl().startsWith("jdbc:mysql:");
+    }
+
+    /**
+     * Properties set on the pool win over the same property in the URL, as
+     * in Connector/J.
+     */
+    static Map<String, String> driverProperties(HikariConfig pool) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        String url = pool.getJdbcUrl();
+        int query = url.indexOf('?');
+        if (query >= 0) {
+            for (String parameter : url.substring(query + 1).split("&")) {
+                int separator = parameter.indexOf('=');
+                if (separator > 0) {
+                    properties.put(parameter.substring(0, separator), parameter.substring(separator + 1));
+                }
+            }
+        }
+        Properties dataSourceProperties = pool.getDataSourceProperties();
+        dataSourceProperties.stringPropertyNames()
+                .forEach(name -> properties.put(name, dataSourceProperties.getProperty(name)));
+        return properties;
+    }
+
+    private static HikariDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
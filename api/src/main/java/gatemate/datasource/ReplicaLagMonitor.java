@@ -0,0 +1,81 @@
+package gatemate.datasource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Measures replica lag from a heartbeat row: each check stamps the primary's
+ * own clock on the row, reads the stamp back from the primary and compares
+ * it with the stamp each replica has applied. Only the database clock is
+ * used, so nodes whose clocks disagree still agree on the lag, and every
+ * node beating the same row only makes the stamp fresher. Because a replica
+ * cannot have the stamp written in the same check, the measured lag
+ * includes up to one heartbeat interval. Replicas that are
+ * behind by more than {@code maxLag}, or cannot be read, are taken out of
+ * rotation until a later check finds them caught up.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String BEAT_SQL = "update replica_heartbeat set beat = current_timestamp(3) where id = 1";
+    static final String READ_SQL = "select beat from replica_heartbeat where id = 1";
+
+    private final JdbcTemplate primary;
+    private final List<JdbcTemplate> replicas;
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final long maxLagMillis;
+    private final AtomicLongArray lagMillis;
+
+    public ReplicaLagMonitor(DataSource primary, List<DataSource> replicas, ReplicaRoutingDataSource routingDataSource,
+            Duration maxLag) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = replicas.stream().map(JdbcTemplate::new).toList();
+        this.routingDataSource = routingDataSource;
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagMillis = new AtomicLongArray(replicas.size());
+    }
+
+    @Scheduled(fixedDelayString = "${gatemate.datasource.replicas.heartbeat-interval:PT0.5S}")
+    public void check() {
+        Timestamp now = null;
+        try {
+            primary.update(BEAT_SQL);
+            now = primary.queryForObject(READ_SQL, Timestamp.class);
+        } catch (DataAccessException e) {
+            logger.warn("Could not write the replica heartbeat: {}", e.getMessage());
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            long lag;
+            try {
+                Timestamp beat = replicas.get(i).queryForObject(READ_SQL, Timestamp.class);
+                lag = now == null || beat == null ? Long.MAX_VALUE : Math.max(now.getTime() - beat.getTime(), 0);
+            } catch (DataAccessException e) {
+                logger.warn("Could not read the heartbeat of replica {}: {}", i, e.getMessage());
+                lag = Long.MAX_VALUE;
+            }
+            lagMillis.set(i, lag);
+            boolean available = lag <= maxLagMillis;
+            if (available != routingDataSource.isAvailable(i)) {
+                logger.info("Replica {} is {} (lag {} ms)", i, available ? "back in rotation" : "out of rotation",
+                        lag == Long.MAX_VALUE ? "unknown" : lag);
+            }
+            routingDataSource.setAvailable(i, available);
+        }
+    }
+
+    public double getLagSeconds(int replica) {
+        long lag = lagMillis.get(replica);
+        return lag == Long.MAX_VALUE ? Double.NaN : lag / 1000.0;
+    }
+}
@@ -0,0 +1,117 @@
+package gatemate.datasource;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read-your-writes for replica routing. Services mark the keys they write
+ * and wrap reads of the same key in {@link #read}; for a window covering
+ * the largest lag a replica in rotation can have, those reads go to the
+ * primary so a write is never followed by a stale read from this node. The
+ * marks are node-local. With replica routing disabled every call is a
+ * pass-through.
+ */
+@Component
+public class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+
+    @Value("${gatemate.datasource.replicas.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${gatemate.datasource.replicas.max-lag:PT2S}")
+    private Duration maxLag = Duration.ofSeconds(2);
+
+    @Value("${gatemate.datasource.replicas.heartbeat-interval:PT0.5S}")
+    private Duration heartbeatInterval = Duration.ofMillis(500);
+
+    @Value("${gatemate.datasource.replicas.max-sticky-keys:100000}")
+    private int maxStickyKeys = 100000;
+
+    public static String userKey(String userEmail) {
+        return "user:" + userEmail;
+    }
+
+    public static String transactionKey(Long id) {
+        return "transaction:" + id;
+    }
+
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    public static <T> T onPrimary(Supplier<T> query) {
+        if (isPrimaryRequired()) {
+            return query.get();
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    public void markWritten(String key) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (recentWrites.size() >= maxStickyKeys && !recentWrites.containsKey(key)) {
+            evict(now);
+        }
+        recentWrites.put(key, now + maxLag.plus(heartbeatInterval).toNanos());
+    }
+
+    public <T> T read(String key, Supplier<T> query) {
+        if (!enabled || !isRecentlyWritten(key)) {
+            return query.get();
+        }
+        return onPrimary(query);
+    }
+
+    /**
+     * Runs {@code query} on the primary if any of {@code keys} was written
+     * recently.
+     */
+    public <T> T read(Collection<String> keys, Supplier<T> query) {
+        if (enabled) {
+            for (String key : keys) {
+                if (isRecentlyWritten(key)) {
+                    return onPrimary(query);
+                }
+            }
+        }
+        return query.get();
+    }
+
+    private boolean isRecentlyWritten(String key) {
+        Long until = recentWrites.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until >= 0) {
+            recentWrites.remove(key, until);
+            return false;
+        }
+        return true;
+    }
+
+    private void evict(long now) {
+        recentWrites.values().removeIf(until -> now - until >= 0);
+        Iterator<String> keys = recentWrites.keySet().iterator();
+        while (recentWrites.size() >= maxStickyKeys && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package gatemate.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Replaces the single auto-configured pool with a primary pool built from
+ * {@code spring.datasource.*} and one pool per
+ * {@code gatemate.datasource.replicas.urls} entry, sharing the primary's
+ * credentials and {@code spring.datasource.hikari.*} settings.
+ */
+@Configuration
+@ConditionalOnProperty(name = "gatemate.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements DisposableBean {
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaRoutingConfig(DataSourceProperties properties, Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${gatemate.datasource.replicas.urls}") List<String> urls,
+            @Value("${gatemate.datasource.replicas.max-lag:PT2S}") Duration maxLag) {
+        this.primary = pool(properties, environment, meterRegistry, "primary", properties.determineUrl());
+        for (int i = 0; i < urls.size(); i++) {
+            replicas.add(pool(properties, environment, meterRegistry, "replica-" + i, urls.get(i)));
+        }
+        List<DataSource> replicaDataSources = List.copyOf(replicas);
+        this.routingDataSource = new ReplicaRoutingDataSource(primary, replicaDataSources);
+        this.lagMonitor = new ReplicaLagMonitor(primary, replicaDataSources, routingDataSource, maxLag);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor() {
+        return lagMonitor;
+    }
+
+    @Bean
+    public MeterBinder replicaRoutingMetrics() {
+        return registry -> {
+            FunctionCounter.builder("gatemate.datasource.reads", routingDataSource,
+                    ReplicaRoutingDataSource::getPrimaryReads).tag("target", "primary").register(registry);
+            FunctionCounter.builder("gatemate.datasource.reads", routingDataSource,
+                    ReplicaRoutingDataSource::getReplicaReads).tag("target", "replica").register(registry);
+            for (int i = 0; i < routingDataSource.getReplicaCount(); i++) {
+                int replica = i;
+                Gauge.builder("gatemate.datasource.replica.lag", lagMonitor, monitor -> monitor.getLagSeconds(replica))
+                        .tag("replica", String.valueOf(replica)).baseUnit("seconds").register(registry);
+                Gauge.builder("gatemate.datasource.replica.available", routingDataSource,
+                        routing -> routing.isAvailable(replica) ? 1 : 0)
+                        .tag("replica", String.valueOf(replica)).register(registry);
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry, String name, String url) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        return pool;
+    }
+}
@@ -0,0 +1,88 @@
+package gatemate.datasource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything
+ * else to the primary. Replicas are taken round robin among those the
+ * {@link ReplicaLagMonitor} last found within the lag limit; a replica
+ * starts unavailable until its lag is first measured. Reads fall back to
+ * the primary when no replica is available or when
+ * {@link ReplicaRouting#isPrimaryRequired()} asks for read-your-writes.
+ * The lookup happens when a connection is fetched, so this must sit behind
+ * a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * for the transaction's read-only flag to be set by then.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final int replicaCount;
+    private final AtomicIntegerArray available;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+        this.replicaCount = replicas.size();
+        this.available = new AtomicIntegerArray(replicaCount);
+    }
+
+    public int getReplicaCount() {
+        return replicaCount;
+    }
+
+    public void setAvailable(int replica, boolean isAvailable) {
+        available.set(replica, isAvailable ? 1 : 0);
+    }
+
+    public boolean isAvailable(int replica) {
+        return available.get(replica) == 1;
+    }
+
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (!ReplicaRouting.isPrimaryRequired()) {
+            int start = Math.floorMod(next.getAndIncrement(), Math.max(replicaCount, 1));
+            for (int i = 0; i < replicaCount; i++) {
+                int replica = (start + i) % replicaCount;
+                if (isAvailable(replica)) {
+                    replicaReads.increment();
+                    return replica;
+                }
+            }
+        }
+        primaryReads.increment();
+        return PRIMARY;
+    }
+}
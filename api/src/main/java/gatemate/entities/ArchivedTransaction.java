@@ -0,0 +1,44 @@
+package gatemate.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "transactions_archive")
+public class ArchivedTransaction {
+  @Id
+  private Long id;
+  private String userEmail;
+  private String iataFlight;
+  private TransactionStatus status;
+  @Column(nullable = false)
+  private Long version;
+  @Column(nullable = false)
+  private Instant createdAt;
+  @Column(nullable = false)
+  private Instant updatedAt;
+  @Column(nullable = false)
+  private Instant archivedAt;
+
+  public Transactions toTransaction() {
+    Transactions transaction = new Transactions();
+    transaction.setId(id);
+    transaction.setUserEmail(userEmail);
+    transaction.setIataFlight(iataFlight);
+    transaction.setStatus(status);
+    transaction.setVersion(version);
+    transaction.setCreatedAt(createdAt);
+    transaction.setUpdatedAt(updatedAt);
+    return transaction;
+  }
+}
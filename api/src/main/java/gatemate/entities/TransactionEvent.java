@@ -0,0 +1,37 @@
+package gatemate.entities;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "transaction_events")
+public class TransactionEvent {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+  @Column(nullable = false)
+  private Long transactionId;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private TransactionEventType eventType;
+  private String userEmail;
+  private String iataFlight;
+  private TransactionStatus status;
+  private Long version;
+  @Column(nullable = false)
+  private Instant createdAt;
+}
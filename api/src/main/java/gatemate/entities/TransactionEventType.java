@@ -0,0 +1,5 @@
+package gatemate.entities;
+
+public enum TransactionEventType {
+    CREATED, STATUS_CHANGED
+}
@@ -1,5 +1,47 @@
 package gatemate.entities;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Stored as its one-byte {@link #getCode() code} by
+ * {@link TransactionStatusConverter}. Codes are persisted and indexed, so
+ * they must never change or be reused; a new status takes the next free
+ * code, wherever it is declared.
+ */
 public enum TransactionStatus {
-    PAYED, CHECKEDIN, CANCELED
+    PAYED(0), CHECKEDIN(1), CANCELED(2);
+
+    private static final TransactionStatus[] BY_CODE = { PAYED, CHECKEDIN, CANCELED };
+
+    private final byte code;
+
+    TransactionStatus(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static TransactionStatus fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown transaction status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    public boolean canTransitionTo(TransactionStatus target) {
+        return this == PAYED && target != PAYED;
+    }
+
+    public static Set<TransactionStatus> sourcesOf(TransactionStatus target) {
+        Set<TransactionStatus> sources = EnumSet.noneOf(TransactionStatus.class);
+        for (TransactionStatus status : values()) {
+            if (status.canTransitionTo(target)) {
+                sources.add(status);
+            }
+        }
+        return sources;
+    }
 }
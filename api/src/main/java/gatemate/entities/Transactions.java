@@ -1,10 +1,19 @@
 package gatemate.entities;
 
+import java.time.Instant;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -13,12 +22,31 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_transactions_user_email_status_id", columnList = "user_email, status, id, iata_flight, version"),
+    @Index(name = "idx_transactions_iata_flight_status_id", columnList = "iata_flight, status, id, user_email, version"),
+    @Index(name = "idx_transactions_iata_flight_id", columnList = "iata_flight, id"),
+    @Index(name = "idx_transactions_user_email_id", columnList = "user_email, id"),
+    @Index(name = "idx_transactions_status_updated_at", columnList = "status, updated_at")
+})
 public class Transactions {
+  /** Length of the {@code user_email} and {@code iata_flight} columns. */
+  public static final int MAX_TEXT_LENGTH = 255;
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "transactions_id")
+  @TableGenerator(name = "transactions_id", table = "id_generators", pkColumnName = "sequence_name",
+      valueColumnName = "next_val", pkColumnValue = "transactions", allocationSize = 50)
   private Long id;
   private String userEmail;
   private String iataFlight;
   private TransactionStatus status;
+  @Version
+  private Long version;
+  @CreationTimestamp
+  @Column(nullable = false, updatable = false)
+  private Instant createdAt;
+  @UpdateTimestamp
+  @Column(nullable = false)
+  private Instant updatedAt;
 }
@@ -0,0 +1,15 @@
+package gatemate.idempotency;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public record IdempotencyRecord(String fingerprint, int status, String body) {
+
+    static IdempotencyRecord pending(String fingerprint) {
+        return new IdempotencyRecord(fingerprint, 0, null);
+    }
+
+    @JsonIgnore
+    public boolean isPending() {
+        return status == 0;
+    }
+}
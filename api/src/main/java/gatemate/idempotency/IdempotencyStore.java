@@ -0,0 +1,122 @@
+package gatemate.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gatemate.cache.CacheBackend;
+import gatemate.cache.InMemoryCacheBackend;
+import gatemate.cache.RedisCacheBackend;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.exceptions.JedisException;
+
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final CacheBackend backend;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration pendingTtl;
+    private final int maxKeys;
+
+    @Autowired
+    public IdempotencyStore(ObjectMapper objectMapper, ObjectProvider<JedisPooled> jedisPooled,
+            @Value("${gatemate.idempotency.backend:memory}") String backend,
+            @Value("${gatemate.idempotency.max-keys:100000}") int maxKeys,
+            @Value("${gatemate.idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${gatemate.idempotency.pending-ttl:PT30S}") Duration pendingTtl) {
+        this("redis".equals(backend) ? new RedisCacheBackend(jedisPooled.getObject()) : new InMemoryCacheBackend(),
+                maxKeys, objectMapper, ttl, pendingTtl);
+    }
+
+    IdempotencyStore(CacheBackend backend, int maxKeys, ObjectMapper objectMapper, Duration ttl,
+            Duration pendingTtl) {
+        this.backend = backend;
+        this.maxKeys = maxKeys;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.pendingTtl = pendingTtl;
+    }
+
+    /**
+     * Claims the key for a new request. Returns empty when the caller owns the
+     * key and must process the request, or the record already stored for it.
+     * The in-memory store never evicts a live key to make room: when it holds
+     * {@code max-keys} records, new keys are refused until some expire, since
+     * forgetting a key would let its retry create a duplicate.
+     *
+     * @throws IdempotencyStoreFullException        if the key is new and the
+     *                                              store is full
+     * @throws IdempotencyStoreUnavailableException if the store cannot be
+     *                                              reached to claim the key
+     */
+    public Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+        if (isFull()) {
+            Optional<IdempotencyRecord> existing = backend.get(storeKey(key)).map(this::read);
+            if (existing.isEmpty()) {
+                throw new IdempotencyStoreFullException("Idempotency store holds " + maxKeys + " keys");
+            }
+            return existing;
+        }
+        boolean claimed;
+        try {
+            claimed = backend.setIfAbsent(storeKey(key), write(IdempotencyRecord.pending(fingerprint)), pendingTtl);
+        } catch (JedisException e) {
+            throw new IdempotencyStoreUnavailableException("Could not claim idempotency key", e);
+        }
+        if (claimed) {
+            return Optional.empty();
+        }
+        Optional<IdempotencyRecord> existing = backend.get(storeKey(key)).map(this::read);
+        if (existing.isEmpty()) {
+            return claim(key, fingerprint);
+        }
+        return existing;
+    }
+
+    private boolean isFull() {
+        // Redis is bounded by its own maxmemory policy
+        return backend instanceof InMemoryCacheBackend memory && memory.estimatedSize() >= maxKeys
+                && memory.size() >= maxKeys;
+    }
+
+    public void complete(String key, IdempotencyRecord record) {
+        backend.set(storeKey(key), write(record), ttl);
+    }
+
+    public void release(String key) {
+        backend.delete(storeKey(key));
+    }
+
+    private String write(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotency record", e);
+        }
+    }
+
+    private IdempotencyRecord read(String json) {
+        try {
+            return objectMapper.readValue(json, IdempotencyRecord.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Unreadable idempotency record: {}", e.getMessage());
+            return IdempotencyRecord.pending(null);
+        }
+    }
+
+    private static String storeKey(String key) {
+        return "idempotency:" + key;
+    }
+}
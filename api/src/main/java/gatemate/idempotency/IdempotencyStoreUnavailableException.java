@@ -0,0 +1,7 @@
+package gatemate.idempotency;
+
+public class IdempotencyStoreUnavailableException extends RuntimeException {
+  public IdempotencyStoreUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
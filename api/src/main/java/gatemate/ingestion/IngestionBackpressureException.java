@@ -0,0 +1,7 @@
+package gatemate.ingestion;
+
+public class IngestionBackpressureException extends RuntimeException {
+  public IngestionBackpressureException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,170 @@
+package gatemate.ingestion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of accepted records plus a checkpoint with the offset up to
+ * which they are known to be in the database. Each record is framed as
+ * {@code [length][crc32][payload]}; a torn record left by a crash is cut off
+ * when the log is reopened. Records the database rejects are appended, one
+ * JSON object per line, to a dead-letter file next to the log. Appending
+ * does not wait for the disk; {@link #sync()} does, and concurrent callers
+ * share one fsync for everything appended before it started.
+ */
+class IngestionLog implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    record Entry(byte[] payload, long end) {
+    }
+
+    private final FileChannel channel;
+    private final Path checkpointFile;
+    private final Path deadLetterFile;
+    private final boolean fsync;
+    private final Object forceLock = new Object();
+    private long checkpoint;
+    // Bytes appended since opening, which unlike offsets never go back when the log is emptied
+    private volatile long appended;
+    private long forced;
+
+    IngestionLog(Path directory, boolean fsync) throws IOException {
+        Files.createDirectories(directory);
+        this.channel = FileChannel.open(directory.resolve("transactions.log"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.checkpointFile = directory.resolve("transactions.checkpoint");
+        this.deadLetterFile = directory.resolve("transactions.dead-letter.jsonl");
+        this.fsync = fsync;
+        this.checkpoint = Files.exists(checkpointFile)
+                ? Long.parseLong(Files.readString(checkpointFile, StandardCharsets.US_ASCII).trim())
+                : 0;
+        List<Entry> entries = readUncommitted();
+        long validEnd = entries.isEmpty() ? checkpoint : entries.get(entries.size() - 1).end();
+        if (channel.size() > validEnd) {
+            channel.truncate(validEnd);
+        }
+    }
+
+    /**
+     * Appends a record and returns the log offset just past it. Call
+     * {@link #sync()} before relying on it surviving a host crash.
+     */
+    synchronized long append(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(payload.length).putLong(crc.getValue()).put(payload).flip();
+        long position = channel.size();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        appended += HEADER_BYTES + payload.length;
+        return position;
+    }
+
+    /**
+     * Returns once everything appended before the call is on disk. A caller
+     * that finds another fsync running waits for it, and the next one then
+     * covers every record appended in the meantime.
+     */
+    void sync() throws IOException {
+        if (!fsync) {
+            return;
+        }
+        long target = appended;
+        synchronized (forceLock) {
+            if (forced >= target) {
+                return;
+            }
+            long upTo = appended;
+            channel.force(false);
+            forced = upTo;
+        }
+    }
+
+    synchronized List<Entry> readUncommitted() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long size = channel.size();
+        if (checkpoint > size) {
+            checkpoint = size;
+        }
+        long position = checkpoint;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            long expectedCrc = header.getLong();
+            if (length < 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if (crc.getValue() != expectedCrc) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+            entries.add(new Entry(payload.array(), position));
+        }
+        return entries;
+    }
+
+    /**
+     * Records that everything before {@code offset} is in the database, and
+     * empties the log once nothing after the checkpoint is left.
+     */
+    synchronized void commit(long offset) throws IOException {
+        if (offset <= checkpoint) {
+            return;
+        }
+        if (offset == channel.size()) {
+            channel.truncate(0);
+            offset = 0;
+        }
+        writeCheckpoint(offset);
+    }
+
+    synchronized void deadLetter(byte[] line) throws IOException {
+        try (FileChannel deadLetters = FileChannel.open(deadLetterFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.allocate(line.length + 1);
+            buffer.put(line).put((byte) '\n').flip();
+            while (buffer.hasRemaining()) {
+                deadLetters.write(buffer);
+            }
+            if (fsync) {
+                deadLetters.force(false);
+            }
+        }
+    }
+
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    private void writeCheckpoint(long offset) throws IOException {
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        Files.writeString(temp, Long.toString(offset), StandardCharsets.US_ASCII);
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = offset;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
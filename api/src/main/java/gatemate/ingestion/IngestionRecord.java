@@ -0,0 +1,7 @@
+package gatemate.ingestion;
+
+import gatemate.entities.TransactionStatus;
+
+public record IngestionRecord(long id, String userEmail, String iataFlight, TransactionStatus status,
+        long acceptedAt) {
+}
@@ -0,0 +1,7 @@
+package gatemate.ingestion;
+
+import java.time.Instant;
+
+public record IngestionStatus(long pending, long accepted, long flushed, long failedFlushes,
+        long deadLettered, long lagMillis, long logBytes, Instant lastFlushAt) {
+}
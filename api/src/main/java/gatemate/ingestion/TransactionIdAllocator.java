@@ -0,0 +1,94 @@
+package gatemate.ingestion;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands out transaction ids from blocks reserved in the same
+ * {@code id_generators} row that Hibernate's table generator uses, so ids
+ * assigned before the insert never collide with ones assigned by JPA. The
+ * next block is reserved in the background once half of the current one is
+ * used, so callers only wait for the database when they outrun the
+ * prefetch or it failed.
+ */
+class TransactionIdAllocator implements AutoCloseable {
+
+    private static final String SEQUENCE_NAME = "transactions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+    private final ExecutorService prefetcher;
+    private long next;
+    private long limit;
+    private CompletableFuture<Long> nextBlock;
+
+    TransactionIdAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+        this.prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ingestion-id-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts reserving the first block, so the first request does not wait
+     * for it.
+     */
+    synchronized void prefetch() {
+        if (nextBlock == null) {
+            nextBlock = CompletableFuture.supplyAsync(this::reserveBlock, prefetcher);
+        }
+    }
+
+    synchronized long nextId() {
+        if (next == limit) {
+            CompletableFuture<Long> reserved = nextBlock;
+            nextBlock = null;
+            next = reserved == null ? reserveBlock() : await(reserved);
+            limit = next + blockSize;
+        }
+        if (limit - next <= blockSize / 2) {
+            prefetch();
+        }
+        return next++;
+    }
+
+    @Override
+    public void close() {
+        prefetcher.shutdownNow();
+    }
+
+    private static long await(CompletableFuture<Long> reserved) {
+        try {
+            return reserved.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private long reserveBlock() {
+        return transactionTemplate.execute(status -> {
+            Long value = jdbcTemplate.queryForObject(
+                    "select next_val from id_generators where sequence_name = ? for update", Long.class,
+                    SEQUENCE_NAME);
+            jdbcTemplate.update("update id_generators set next_val = ? where sequence_name = ?", value + blockSize,
+                    SEQUENCE_NAME);
+            return value;
+        });
+    }
+}
@@ -0,0 +1,436 @@
+package gatemate.ingestion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gatemate.cache.TransactionsCache;
+import gatemate.datasource.ReplicaRouting;
+import gatemate.entities.TransactionStatus;
+import gatemate.entities.Transactions;
+import gatemate.metrics.TransactionMetrics;
+import gatemate.repositories.TransactionEventsRepository;
+import gatemate.statistics.FlightCounters;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Accepts transactions without touching the database on the request thread.
+ * Each accepted transaction gets its id up front, from a block the
+ * {@link TransactionIdAllocator} reserved in the background, and is appended
+ * to the local {@link IngestionLog} before the caller is answered. The
+ * fsync happens outside the append lock, so concurrent requests share it.
+ * A single writer thread then inserts queued transactions in JDBC batches.
+ * Whatever the log still holds past its checkpoint on startup is replayed
+ * first, by the writer, so a database that is down does not stop the
+ * application starting. A batch the database rejects as data is retried row
+ * by row, and rows that still fail go to the log's dead-letter file instead
+ * of blocking the queue.
+ */
+@Component
+@ConditionalOnProperty(name = "gatemate.ingestion.mode", havingValue = "write-behind")
+public class WriteBehindIngestion implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindIngestion.class);
+
+    static final String INSERT_SQL = "insert into transactions (id, user_email, iata_flight, status, version) "
+            + "values (?, ?, ?, ?, 0)";
+    private static final long POLL_MILLIS = 100;
+
+    record Pending(IngestionRecord record, long end) {
+    }
+
+    private final IngestionLog log;
+    private final TransactionIdAllocator idAllocator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final TransactionEventsRepository transactionEventsRepository;
+    private final TransactionsCache transactionsCache;
+    private final TransactionMetrics transactionMetrics;
+    private final FlightCounters flightCounters;
+    private final ReplicaRouting replicaRouting;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+
+    @Value("${gatemate.ingestion.retry-backoff:PT1S}")
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    @Value("${gatemate.ingestion.shutdown-timeout:PT10S}")
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    private final Object appendLock = new Object();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private volatile int inFlight;
+    private volatile long inFlightSince;
+    private volatile Instant lastFlushAt;
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public WriteBehindIngestion(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            TransactionEventsRepository transactionEventsRepository, TransactionsCache transactionsCache,
+            TransactionMetrics transactionMetrics, FlightCounters flightCounters, ReplicaRouting replicaRouting,
+            ObjectMapper objectMapper,
+            @Value("${gatemate.ingestion.log-dir:data/ingestion}") Path logDir,
+            @Value("${gatemate.ingestion.fsync:true}") boolean fsync,
+            @Value("${gatemate.ingestion.max-pending:10000}") int maxPending,
+            @Value("${gatemate.ingestion.batch-size:200}") int batchSize,
+            @Value("${gatemate.ingestion.id-block-size:50}") int idBlockSize) throws IOException {
+        this(new IngestionLog(logDir, fsync),
+                new TransactionIdAllocator(jdbcTemplate, transactionManager, idBlockSize), jdbcTemplate,
+                new TransactionTemplate(transactionManager), transactionEventsRepository, transactionsCache,
+                transactionMetrics, flightCounters, replicaRouting, objectMapper, maxPending, batchSize);
+    }
+
+    WriteBehindIngestion(IngestionLog log, TransactionIdAllocator idAllocator, JdbcTemplate jdbcTemplate,
+            TransactionOperations transactionOperations, TransactionEventsRepository transactionEventsRepository,
+            TransactionsCache transactionsCache, TransactionMetrics transactionMetrics, FlightCounters flightCounters,
+            ReplicaRouting replicaRouting, ObjectMapper objectMapper, int maxPending, int batchSize) {
+        this.log = log;
+        this.idAllocator = idAllocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.transactionEventsRepository = transactionEventsRepository;
+        this.transactionsCache = transactionsCache;
+        this.transactionMetrics = transactionMetrics;
+        this.flightCounters = flightCounters;
+        this.replicaRouting = replicaRouting;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(maxPending);
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        // Read before the first submit appends, so replayed entries are not also queued
+        List<Pending> replayed = readLog();
+        idAllocator.prefetch();
+        running = true;
+        writer = new Thread(() -> {
+            replay(replayed);
+            runWriter();
+        }, "ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        if (writer != null) {
+            writer.join(shutdownTimeout.toMillis());
+            if (writer.isAlive()) {
+                logger.warn("Ingestion writer did not drain in {}; {} transactions stay in the log for replay",
+                        shutdownTimeout, queue.size() + inFlight);
+                writer.interrupt();
+                writer.join(shutdownTimeout.toMillis());
+            }
+        }
+        idAllocator.close();
+        log.close();
+    }
+
+    /**
+     * Durably accepts the transaction and returns its id.
+     *
+     * @throws IngestionBackpressureException if {@code max-pending}
+     *                                        transactions are already waiting
+     *                                        for the writer
+     */
+    public long submit(Transactions transaction) {
+        if (!isInsertable(transaction)) {
+            throw new IllegalArgumentException("Transaction does not fit the transactions table");
+        }
+        if (queue.remainingCapacity() == 0) {
+            throw new IngestionBackpressureException("Ingestion queue is full");
+        }
+        IngestionRecord record = new IngestionRecord(idAllocator.nextId(), transaction.getUserEmail(),
+                transaction.getIataFlight(), transaction.getStatus(), System.currentTimeMillis());
+        synchronized (appendLock) {
+            if (queue.remainingCapacity() == 0) {
+                throw new IngestionBackpressureException("Ingestion queue is full");
+            }
+            long end;
+            try {
+                end = log.append(objectMapper.writeValueAsBytes(record));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            queue.add(new Pending(record, end));
+        }
+        try {
+            log.sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        accepted.increment();
+        return record.id();
+    }
+
+    public IngestionStatus getStatus() {
+        long oldest = inFlight > 0 ? inFlightSince : 0;
+        if (oldest == 0) {
+            Pending head = queue.peek();
+            oldest = head == null ? 0 : head.record().acceptedAt();
+        }
+        long logBytes;
+        try {
+            logBytes = log.size();
+        } catch (IOException e) {
+            logBytes = -1;
+        }
+        return new IngestionStatus(queue.size() + inFlight, accepted.sum(), flushed.sum(), failedFlushes.sum(),
+                deadLettered.sum(), oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest), logBytes,
+                lastFlushAt);
+    }
+
+    /**
+     * Whether the transaction can be inserted as it is. The log only holds
+     * transactions that pass, so a row the database rejects is a bug or a
+     * schema change rather than bad input.
+     */
+    public static boolean isInsertable(Transactions transaction) {
+        return transaction.getUserEmail() != null && transaction.getIataFlight() != null
+                && transaction.getStatus() != null
+                && transaction.getUserEmail().length() <= Transactions.MAX_TEXT_LENGTH
+                && transaction.getIataFlight().length() <= Transactions.MAX_TEXT_LENGTH;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gatemate.ingestion.pending", this, ingestion -> ingestion.getStatus().pending())
+                .description("Accepted transactions not yet written to the database")
+                .register(registry);
+        TimeGauge.builder("gatemate.ingestion.lag", this, TimeUnit.MILLISECONDS,
+                ingestion -> ingestion.getStatus().lagMillis())
+                .description("Age of the oldest transaction waiting for the writer")
+                .register(registry);
+        FunctionCounter.builder("gatemate.ingestion.flushed", flushed, LongAdder::sum)
+                .description("Transactions written to the database by the ingestion writer")
+                .register(registry);
+        FunctionCounter.builder("gatemate.ingestion.dead.lettered", deadLettered, LongAdder::sum)
+                .description("Transactions the database rejected, moved to the dead-letter file")
+                .register(registry);
+    }
+
+    /**
+     * Returns what the log holds past its checkpoint. Entries that cannot be
+     * parsed are moved to the dead-letter file.
+     */
+    List<Pending> readLog() {
+        List<IngestionLog.Entry> entries;
+        try {
+            entries = log.readUncommitted();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Pending> pending = new ArrayList<>(entries.size());
+        for (IngestionLog.Entry entry : entries) {
+            try {
+                pending.add(new Pending(objectMapper.readValue(entry.payload(), IngestionRecord.class), entry.end()));
+            } catch (IOException e) {
+                deadLetter(entry.payload(), entry.end(), e);
+            }
+        }
+        return pending;
+    }
+
+    void replay(List<Pending> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        logger.info("Replaying {} transactions from the ingestion log", entries.size());
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            if (!write(entries.subList(from, Math.min(from + batchSize, entries.size())), true)) {
+                return;
+            }
+        }
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while ((running || !queue.isEmpty()) && !Thread.currentThread().isInterrupted()) {
+            try {
+                Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                inFlightSince = first.record().acceptedAt();
+                inFlight = batch.size();
+                write(batch, false);
+                batch.clear();
+                inFlight = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Flushes the batch, retrying after {@code retry-backoff} until it is
+     * written. A batch the database rejects as data is written row by row
+     * instead. Returns false if the thread was interrupted first.
+     */
+    boolean write(List<Pending> batch, boolean retrying) {
+        boolean rowByRow = false;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (rowByRow) {
+                    flushEach(batch);
+                } else {
+                    flush(batch, retrying);
+                }
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                if (!rowByRow) {
+                    logger.warn("Database rejected a batch of {} ingested transactions, writing them one by one: {}",
+                            batch.size(), e.getMessage());
+                    rowByRow = true;
+                    continue;
+                }
+                backOff(batch, e);
+            } catch (RuntimeException e) {
+                backOff(batch, e);
+            }
+            retrying = true;
+        }
+        return false;
+    }
+
+    private void backOff(List<Pending> batch, RuntimeException e) {
+        failedFlushes.increment();
+        logger.warn("Could not write {} ingested transactions, retrying in {}: {}", batch.size(), retryBackoff,
+                e.getMessage());
+        try {
+            Thread.sleep(retryBackoff.toMillis());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Flushes each row on its own, in log order, and dead-letters the rows
+     * the database still rejects. Other failures propagate so the caller
+     * retries; rows already written are skipped then.
+     */
+    void flushEach(List<Pending> batch) {
+        for (Pending pending : batch) {
+            try {
+                flush(List.of(pending), true);
+            } catch (DataIntegrityViolationException e) {
+                byte[] payload;
+                try {
+                    payload = objectMapper.writeValueAsBytes(pending.record());
+                } catch (IOException serialization) {
+                    throw new UncheckedIOException(serialization);
+                }
+                deadLetter(payload, pending.end(), e);
+            }
+        }
+    }
+
+    private void deadLetter(byte[] payload, long end, Exception cause) {
+        logger.error("Moving an ingested transaction to the dead-letter file: {}", cause.getMessage());
+        try {
+            log.deadLetter(objectMapper.writeValueAsBytes(objectMapper.createObjectNode()
+                    .put("error", cause.getMessage())
+                    .put("payload", new String(payload, StandardCharsets.UTF_8))));
+            log.commit(end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        deadLettered.increment();
+    }
+
+    /**
+     * Inserts the batch in one database transaction and then moves the log
+     * checkpoint past it. When replaying or retrying, rows that already made
+     * it to the database past the last checkpoint are skipped.
+     */
+    void flush(List<Pending> batch, boolean skipExisting) {
+        List<IngestionRecord> records = batch.stream().map(Pending::record).collect(Collectors.toList());
+        if (skipExisting) {
+            Set<Long> existing = new HashSet<>(existingIds(records));
+            records.removeIf(record -> existing.contains(record.id()));
+        }
+        if (!records.isEmpty()) {
+            transactionOperations.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), (statement, record) -> {
+                    statement.setLong(1, record.id());
+                    statement.setString(2, record.userEmail());
+                    statement.setString(3, record.iataFlight());
+                    statement.setByte(4, record.status().getCode());
+                });
+                transactionEventsRepository.recordCreated(records.stream().map(IngestionRecord::id).toList());
+            });
+        }
+        try {
+            log.commit(batch.get(batch.size() - 1).end());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        afterFlush(records);
+    }
+
+    private List<Long> existingIds(List<IngestionRecord> records) {
+        String placeholders = records.stream().map(record -> "?").collect(Collectors.joining(", "));
+        return jdbcTemplate.queryForList("select id from transactions where id in (" + placeholders + ")", Long.class,
+                records.stream().map(IngestionRecord::id).toArray());
+    }
+
+    private void afterFlush(List<IngestionRecord> records) {
+        Map<TransactionStatus, Long> created = new EnumMap<>(TransactionStatus.class);
+        Set<String> users = new HashSet<>();
+        for (IngestionRecord record : records) {
+            created.merge(record.status(), 1L, Long::sum);
+            users.add(record.userEmail());
+            flightCounters.recordCreated(record.iataFlight(), record.status(), 1);
+        }
+        users.forEach(user -> replicaRouting.markWritten(ReplicaRouting.userKey(user)));
+        // Ids are handed out before the flush, so a poll may have cached them as missing
+        transactionsCache.evictMissingTransactions(records.stream().map(IngestionRecord::id).toList());
+        users.forEach(transactionsCache::evictTransactionsByUser);
+        created.forEach(transactionMetrics::recordCreated);
+        flushed.add(records.size());
+        lastFlushAt = Instant.now();
+    }
+}
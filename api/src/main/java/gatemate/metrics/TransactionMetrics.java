@@ -0,0 +1,44 @@
+package gatemate.metrics;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import gatemate.entities.TransactionStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+public class TransactionMetrics {
+
+    static final String STATUS_TRANSITIONS = "gatemate.transactions.status.transitions";
+    static final String NEW = "NEW";
+
+    private final MeterRegistry meterRegistry;
+
+    public TransactionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordCreated(TransactionStatus status, long count) {
+        increment(NEW, status, count);
+    }
+
+    public void recordTransition(Collection<TransactionStatus> sources, TransactionStatus target, long count) {
+        String from = sources.stream().map(Enum::name).sorted().collect(Collectors.joining("|"));
+        increment(from, target, count);
+    }
+
+    private void increment(String from, TransactionStatus target, long count) {
+        if (count <= 0) {
+            return;
+        }
+        Counter.builder(STATUS_TRANSITIONS)
+                .description("Transactions entering a status")
+                .tag("from", from)
+                .tag("to", target.name())
+                .register(meterRegistry)
+                .increment(count);
+    }
+}
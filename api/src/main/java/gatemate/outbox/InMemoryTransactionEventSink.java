@@ -0,0 +1,61 @@
+package gatemate.outbox;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gatemate.entities.TransactionEvent;
+
+/**
+ * Keeps the most recent events in memory and hands them to the listeners of
+ * this node. Meant for tests and single node runs without Redis.
+ */
+public class InMemoryTransactionEventSink implements TransactionEventSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryTransactionEventSink.class);
+
+    private final int maxEvents;
+    private final Deque<TransactionEvent> events = new ArrayDeque<>();
+    private final List<Consumer<List<TransactionEvent>>> listeners = new CopyOnWriteArrayList<>();
+
+    public InMemoryTransactionEventSink(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    @Override
+    public void publish(List<TransactionEvent> published) {
+        synchronized (events) {
+            for (TransactionEvent event : published) {
+                if (events.size() == maxEvents) {
+                    events.removeFirst();
+                }
+                events.addLast(event);
+            }
+        }
+        for (Consumer<List<TransactionEvent>> listener : listeners) {
+            try {
+                listener.accept(published);
+            } catch (RuntimeException e) {
+                // The events were accepted; a failing listener must not make the relay publish them again
+                logger.warn("Transaction event listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<List<TransactionEvent>> listener) {
+        listeners.add(listener);
+    }
+
+    public List<TransactionEvent> getEvents() {
+        synchronized (events) {
+            return new ArrayList<>(events);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package gatemate.outbox;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import redis.clients.jedis.JedisPooled;
+
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "gatemate.outbox.sink", havingValue = "redis")
+    public TransactionEventSink redisStreamTransactionEventSink(JedisPooled jedisPooled,
+            @Value("${gatemate.outbox.redis.stream:gatemate:transaction-events}") String stream,
+            @Value("${gatemate.outbox.redis.max-length:1000000}") long maxLength,
+            @Value("${gatemate.outbox.redis.subscribe-retry:PT5S}") Duration retryInterval) {
+        return new RedisStreamTransactionEventSink(jedisPooled, stream, maxLength, retryInterval);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gatemate.outbox.sink", havingValue = "memory", matchIfMissing = true)
+    public TransactionEventSink inMemoryTransactionEventSink(
+            @Value("${gatemate.outbox.memory.max-events:10000}") int maxEvents) {
+        return new InMemoryTransactionEventSink(maxEvents);
+    }
+}
@@ -0,0 +1,88 @@
+package gatemate.outbox;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import gatemate.entities.TransactionEvent;
+import gatemate.repositories.TransactionEventsRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Moves outbox events to the {@link TransactionEventSink} in id order and
+ * deletes them once the sink has accepted them. Each batch is claimed with
+ * {@code FOR UPDATE SKIP LOCKED} in the transaction that deletes it, so
+ * relays on different nodes publish different events. A crash or rollback
+ * after the sink accepted a batch publishes it again, so delivery is at
+ * least once.
+ */
+@Component
+@ConditionalOnProperty(name = "gatemate.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final TransactionEventsRepository transactionEventsRepository;
+    private final TransactionEventSink sink;
+    private final TransactionOperations transactionOperations;
+
+    @Value("${gatemate.outbox.relay.batch-size:500}")
+    private int batchSize = 500;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public OutboxRelay(TransactionEventsRepository transactionEventsRepository, TransactionEventSink sink,
+            TransactionOperations transactionOperations) {
+        this.transactionEventsRepository = transactionEventsRepository;
+        this.sink = sink;
+        this.transactionOperations = transactionOperations;
+    }
+
+    @Scheduled(fixedDelayString = "${gatemate.outbox.relay.interval:PT0.5S}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            failures.increment();
+            logger.warn("Outbox relay failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    int relayBatch() {
+        List<TransactionEvent> events = transactionOperations.execute(status -> {
+            List<TransactionEvent> claimed = transactionEventsRepository.findLockedByOrderByIdAsc(Limit.of(batchSize));
+            if (!claimed.isEmpty()) {
+                sink.publish(claimed);
+                transactionEventsRepository.deleteAllByIdInBatch(
+                        claimed.stream().map(TransactionEvent::getId).toList());
+            }
+            return claimed;
+        });
+        published.add(events.size());
+        return events.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gatemate.outbox.published", published, LongAdder::sum)
+                .description("Outbox events handed to the event sink")
+                .register(registry);
+        FunctionCounter.builder("gatemate.outbox.failures", failures, LongAdder::sum)
+                .description("Outbox relay runs that failed and were retried")
+                .register(registry);
+    }
+}
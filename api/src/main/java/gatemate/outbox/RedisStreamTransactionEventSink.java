@@ -0,0 +1,186 @@
+package gatemate.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import gatemate.entities.TransactionEvent;
+import gatemate.entities.TransactionEventType;
+import gatemate.entities.TransactionStatus;
+import jakarta.annotation.PreDestroy;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.XAddParams;
+import redis.clients.jedis.params.XReadParams;
+import redis.clients.jedis.resps.StreamEntry;
+
+/**
+ * Appends events to a Redis Stream, one entry per event, in a single
+ * pipeline per batch. The stream is trimmed to roughly {@code maxLength}
+ * entries. Consumers read it with {@code XREAD}/{@code XREADGROUP} and should
+ * de-duplicate on {@code eventId}, since delivery is at least once.
+ * Subscribers on every node tail the same stream with a blocking
+ * {@code XREAD}, so they see the events relayed by any node. After a lost
+ * connection the tail resumes from the last entry it read.
+ */
+public class RedisStreamTransactionEventSink implements TransactionEventSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisStreamTransactionEventSink.class);
+
+    // Below the Jedis socket timeout, so an idle read returns instead of failing
+    private static final int BLOCK_MILLIS = 1000;
+    private static final int READ_COUNT = 500;
+
+    private final JedisPooled jedis;
+    private final String stream;
+    private final long maxLength;
+    private final Duration retryInterval;
+
+    private volatile boolean running;
+    private Thread subscriber;
+
+    public RedisStreamTransactionEventSink(JedisPooled jedis, String stream, long maxLength, Duration retryInterval) {
+        this.jedis = jedis;
+        this.stream = stream;
+        this.maxLength = maxLength;
+        this.retryInterval = retryInterval;
+    }
+
+    @Override
+    public void publish(List<TransactionEvent> events) {
+        XAddParams params = XAddParams.xAddParams().maxLen(maxLength).approximateTrimming();
+        try (Pipeline pipeline = jedis.pipelined()) {
+            for (TransactionEvent event : events) {
+                pipeline.xadd(stream, params, fields(event));
+            }
+            // A failed XADD comes back as a result rather than thrown, and the
+            // relay deletes the batch unless publish fails
+            for (Object result : pipeline.syncAndReturnAll()) {
+                if (result instanceof JedisException e) {
+                    throw e;
+                }
+                if (result instanceof Exception e) {
+                    throw new JedisException("Could not append to " + stream, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<List<TransactionEvent>> listener) {
+        if (subscriber != null) {
+            throw new IllegalStateException("Already subscribed to " + stream);
+        }
+        running = true;
+        subscriber = new Thread(() -> runSubscriber(listener), "transaction-events-subscriber");
+        subscriber.setDaemon(true);
+        subscriber.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (subscriber != null) {
+            subscriber.interrupt();
+            subscriber.join(BLOCK_MILLIS + retryInterval.toMillis());
+        }
+    }
+
+    private void runSubscriber(Consumer<List<TransactionEvent>> listener) {
+        StreamEntryID last = null;
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                if (last == null) {
+                    last = lastEntryId();
+                }
+                List<Map.Entry<String, List<StreamEntry>>> read = jedis.xread(
+                        XReadParams.xReadParams().block(BLOCK_MILLIS).count(READ_COUNT), Map.of(stream, last));
+                if (read == null) {
+                    continue;
+                }
+                for (Map.Entry<String, List<StreamEntry>> entries : read) {
+                    List<TransactionEvent> events = new ArrayList<>(entries.getValue().size());
+                    for (StreamEntry entry : entries.getValue()) {
+                        last = entry.getID();
+                        TransactionEvent event = event(entry.getFields());
+                        if (event != null) {
+                            events.add(event);
+                        }
+                    }
+                    if (!events.isEmpty()) {
+                        listener.accept(events);
+                    }
+                }
+            } catch (JedisException e) {
+                logger.warn("Transaction events subscription lost, retrying in {}: {}", retryInterval,
+                        e.getMessage());
+                sleep();
+            } catch (RuntimeException e) {
+                logger.warn("Transaction event listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private StreamEntryID lastEntryId() {
+        List<StreamEntry> tail = jedis.xrevrange(stream, "+", "-", 1);
+        return tail.isEmpty() ? new StreamEntryID() : tail.get(0).getID();
+    }
+
+    private void sleep() {
+        if (running) {
+            try {
+                Thread.sleep(retryInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    static Map<String, String> fields(TransactionEvent event) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("eventId", String.valueOf(event.getId()));
+        fields.put("eventType", event.getEventType().name());
+        fields.put("transactionId", String.valueOf(event.getTransactionId()));
+        fields.put("userEmail", String.valueOf(event.getUserEmail()));
+        fields.put("iataFlight", String.valueOf(event.getIataFlight()));
+        fields.put("status", String.valueOf(event.getStatus()));
+        fields.put("version", String.valueOf(event.getVersion()));
+        fields.put("createdAt", String.valueOf(event.getCreatedAt()));
+        return fields;
+    }
+
+    static TransactionEvent event(Map<String, String> fields) {
+        try {
+            TransactionEvent event = new TransactionEvent();
+            event.setId(Long.valueOf(fields.get("eventId")));
+            event.setEventType(TransactionEventType.valueOf(fields.get("eventType")));
+            event.setTransactionId(Long.valueOf(fields.get("transactionId")));
+            event.setUserEmail(field(fields, "userEmail"));
+            event.setIataFlight(field(fields, "iataFlight"));
+            String status = field(fields, "status");
+            event.setStatus(status == null ? null : TransactionStatus.valueOf(status));
+            String version = field(fields, "version");
+            event.setVersion(version == null ? null : Long.valueOf(version));
+            String createdAt = field(fields, "createdAt");
+            event.setCreatedAt(createdAt == null ? null : Instant.parse(createdAt));
+            return event;
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring malformed transaction event {}", fields);
+            return null;
+        }
+    }
+
+    private static String field(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return value == null || value.equals("null") ? null : value;
+    }
+}
@@ -0,0 +1,19 @@
+package gatemate.outbox;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import gatemate.entities.TransactionEvent;
+
+/**
+ * Destination of relayed outbox events. {@link #publish} must throw when the
+ * events could not be delivered, so the relay keeps them for the next run.
+ * {@link #subscribe} hands every published batch, whichever node relayed it,
+ * to a listener on this node.
+ */
+public interface TransactionEventSink {
+
+    void publish(List<TransactionEvent> events);
+
+    void subscribe(Consumer<List<TransactionEvent>> listener);
+}
@@ -0,0 +1,156 @@
+package gatemate.ratelimit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admission control in front of the controllers. A request first takes a
+ * token from its client's bucket, keyed by the authenticated principal or
+ * the remote address. {@code clientHeader} is only believed on requests from
+ * one of {@code trustedProxies}, since any other caller could pick a fresh
+ * key on every request. It then takes a token from the bucket of the {@code userEmail} path
+ * variable when the route has one; running out answers {@code 429}. It
+ * then needs a {@link LoadShedder} permit, answering {@code 503} when the
+ * node is overloaded. The permit is returned when the response completes
+ * or, for streams and subscriptions, once async handling starts. Async and
+ * error dispatches belong to a request that was already admitted and are
+ * not charged again.
+ */
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final RateLimiter clientRateLimiter;
+    private final RateLimiter userRateLimiter;
+    private final LoadShedder loadShedder;
+    private final String clientHeader;
+    private final Set<String> trustedProxies;
+    private final LongAdder clientRejected = new LongAdder();
+    private final LongAdder userRejected = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public AdmissionInterceptor(RateLimiter clientRateLimiter, RateLimiter userRateLimiter, LoadShedder loadShedder,
+            String clientHeader, Collection<String> trustedProxies) {
+        this.clientRateLimiter = clientRateLimiter;
+        this.userRateLimiter = userRateLimiter;
+        this.loadShedder = loadShedder;
+        this.clientHeader = clientHeader;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC
+                || request.getDispatcherType() == DispatcherType.ERROR) {
+            return true;
+        }
+        long wait = clientRateLimiter.tryAcquire(clientKey(request));
+        if (wait > 0) {
+            clientRejected.increment();
+            return reject(response, HttpStatus.TOO_MANY_REQUESTS, wait, "Rate limit exceeded for client");
+        }
+        String userEmail = userEmail(request);
+        if (userEmail != null) {
+            wait = userRateLimiter.tryAcquire(userEmail);
+            if (wait > 0) {
+                userRejected.increment();
+                return reject(response, HttpStatus.TOO_MANY_REQUESTS, wait, "Rate limit exceeded for user");
+            }
+        }
+        switch (loadShedder.tryAdmit()) {
+            case OVERLOADED:
+                shed.increment();
+                return reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1000, "Server overloaded");
+            case TIMED_OUT:
+                timedOut.increment();
+                return reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1000, "Server overloaded");
+            default:
+                request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+                return true;
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        release(request);
+    }
+
+    public long getClientRejected() {
+        return clientRejected.sum();
+    }
+
+    public long getUserRejected() {
+        return userRejected.sum();
+    }
+
+    public long getShed() {
+        return shed.sum();
+    }
+
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            loadShedder.release();
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return principal.getName();
+        }
+        String remoteAddress = request.getRemoteAddr();
+        if (trustedProxies.contains(remoteAddress)) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isBlank()) {
+                return client;
+            }
+        }
+        return remoteAddress;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String userEmail(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request
+                .getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables == null ? null : variables.get("userEmail");
+    }
+
+    private static boolean reject(HttpServletResponse response, HttpStatus status, long waitMillis, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((waitMillis + 999) / 1000));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+package gatemate.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the requests in progress and sheds load once a standing queue forms.
+ * A request that gets a permit at once is admitted; otherwise it waits for
+ * up to {@code maxQueueWait}. The shortest wait seen in each
+ * {@code interval} is kept, as in CoDel: when even the luckiest request of
+ * the last interval waited longer than {@code targetQueueLatency}, the queue
+ * is not draining, and requests that cannot get a permit at once are
+ * rejected instead of queued.
+ */
+public class LoadShedder {
+
+    public enum Admission {
+        ADMITTED, OVERLOADED, TIMED_OUT
+    }
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long maxQueueWaitNanos;
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final AtomicLong intervalMin = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong intervalEnd;
+    private volatile long lastIntervalMin;
+
+    public LoadShedder(int maxConcurrency, Duration maxQueueWait, Duration targetQueueLatency, Duration interval) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        this.targetNanos = targetQueueLatency.toNanos();
+        this.intervalNanos = interval.toNanos();
+        this.intervalEnd = new AtomicLong(System.nanoTime() + intervalNanos);
+    }
+
+    public Admission tryAdmit() {
+        long start = System.nanoTime();
+        if (permits.tryAcquire()) {
+            record(0, start);
+            return Admission.ADMITTED;
+        }
+        if (isOverloaded()) {
+            return Admission.OVERLOADED;
+        }
+        try {
+            boolean acquired = permits.tryAcquire(maxQueueWaitNanos, TimeUnit.NANOSECONDS);
+            long now = System.nanoTime();
+            record(now - start, now);
+            return acquired ? Admission.ADMITTED : Admission.TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Admission.TIMED_OUT;
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public boolean isOverloaded() {
+        roll(System.nanoTime());
+        return lastIntervalMin > targetNanos;
+    }
+
+    public int getInFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    public double getQueueLatencySeconds() {
+        return lastIntervalMin / 1e9;
+    }
+
+    private void record(long waitNanos, long now) {
+        roll(now);
+        intervalMin.accumulateAndGet(waitNanos, Math::min);
+    }
+
+    private void roll(long now) {
+        long end = intervalEnd.get();
+        if (now - end >= 0 && intervalEnd.compareAndSet(end, now + intervalNanos)) {
+            long min = intervalMin.getAndSet(Long.MAX_VALUE);
+            lastIntervalMin = min == Long.MAX_VALUE ? 0 : min;
+        }
+    }
+}
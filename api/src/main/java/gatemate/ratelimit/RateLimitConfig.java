@@ -0,0 +1,128 @@
+package gatemate.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import redis.clients.jedis.JedisPooled;
+
+@Configuration
+@ConditionalOnProperty(name = "gatemate.ratelimit.enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitConfig.class);
+
+    @Value("${gatemate.ratelimit.backend:memory}")
+    private String backend = "memory";
+
+    @Value("${gatemate.ratelimit.memory.max-keys:100000}")
+    private int maxKeys = 100000;
+
+    @Value("${gatemate.ratelimit.memory.evict-interval:PT1M}")
+    private Duration evictInterval = Duration.ofMinutes(1);
+
+    @Value("${gatemate.ratelimit.redis.prefix:gatemate:ratelimit:}")
+    private String redisPrefix = "gatemate:ratelimit:";
+
+    @Bean
+    public RateLimiter clientRateLimiter(ObjectProvider<JedisPooled> jedisPooled,
+            @Value("${gatemate.ratelimit.client.permits-per-second:200}") double permitsPerSecond,
+            @Value("${gatemate.ratelimit.client.burst:400}") int burst) {
+        return rateLimiter(jedisPooled, "client:", permitsPerSecond, burst);
+    }
+
+    @Bean
+    public RateLimiter userRateLimiter(ObjectProvider<JedisPooled> jedisPooled,
+            @Value("${gatemate.ratelimit.user.permits-per-second:50}") double permitsPerSecond,
+            @Value("${gatemate.ratelimit.user.burst:200}") int burst) {
+        return rateLimiter(jedisPooled, "user:", permitsPerSecond, burst);
+    }
+
+    @Bean
+    public LoadShedder loadShedder(@Value("${gatemate.ratelimit.shedding.max-concurrency:200}") int maxConcurrency,
+            @Value("${gatemate.ratelimit.shedding.max-queue-wait:PT1S}") Duration maxQueueWait,
+            @Value("${gatemate.ratelimit.shedding.target-queue-latency:PT0.1S}") Duration targetQueueLatency,
+            @Value("${gatemate.ratelimit.shedding.interval:PT1S}") Duration interval) {
+        return new LoadShedder(maxConcurrency, maxQueueWait, targetQueueLatency, interval);
+    }
+
+    @Bean
+    public AdmissionInterceptor admissionInterceptor(@Qualifier("clientRateLimiter") RateLimiter clientRateLimiter,
+            @Qualifier("userRateLimiter") RateLimiter userRateLimiter, LoadShedder loadShedder,
+            @Value("${gatemate.ratelimit.client-header:X-Api-Client}") String clientHeader,
+            @Value("${gatemate.ratelimit.trusted-proxies:}") List<String> trustedProxies) {
+        if (trustedProxies.isEmpty()) {
+            logger.warn("Rate limiting is on without gatemate.ratelimit.trusted-proxies; "
+                    + "clients are told apart by remote address only, so all traffic through a proxy shares one bucket");
+        }
+        return new AdmissionInterceptor(clientRateLimiter, userRateLimiter, loadShedder, clientHeader,
+                trustedProxies);
+    }
+
+    @Bean
+    public WebMvcConfigurer admissionWebMvcConfigurer(AdmissionInterceptor admissionInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(admissionInterceptor)
+                        .addPathPatterns("/**")
+                        .excludePathPatterns("/actuator/**", "/swagger-ui/**", "/v3/api-docs/**", "/error");
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder admissionMetrics(AdmissionInterceptor admissionInterceptor, LoadShedder loadShedder,
+            @Qualifier("clientRateLimiter") RateLimiter clientRateLimiter,
+            @Qualifier("userRateLimiter") RateLimiter userRateLimiter) {
+        return registry -> {
+            FunctionCounter.builder("gatemate.admission.rejected", admissionInterceptor,
+                    AdmissionInterceptor::getClientRejected).tag("reason", "client_rate").register(registry);
+            FunctionCounter.builder("gatemate.admission.rejected", admissionInterceptor,
+                    AdmissionInterceptor::getUserRejected).tag("reason", "user_rate").register(registry);
+            FunctionCounter.builder("gatemate.admission.rejected", admissionInterceptor,
+                    AdmissionInterceptor::getShed).tag("reason", "overloaded").register(registry);
+            FunctionCounter.builder("gatemate.admission.rejected", admissionInterceptor,
+                    AdmissionInterceptor::getTimedOut).tag("reason", "queue_timeout").register(registry);
+            Gauge.builder("gatemate.admission.in_flight", loadShedder, LoadShedder::getInFlight).register(registry);
+            Gauge.builder("gatemate.admission.queued", loadShedder, LoadShedder::getQueueLength).register(registry);
+            Gauge.builder("gatemate.admission.queue.latency", loadShedder, LoadShedder::getQueueLatencySeconds)
+                    .baseUnit("seconds").register(registry);
+            if (clientRateLimiter instanceof TokenBucketRateLimiter clients
+                    && userRateLimiter instanceof TokenBucketRateLimiter users) {
+                Gauge.builder("gatemate.ratelimit.buckets", clients, TokenBucketRateLimiter::size)
+                        .tag("scope", "client").register(registry);
+                Gauge.builder("gatemate.ratelimit.buckets", users, TokenBucketRateLimiter::size)
+                        .tag("scope", "user").register(registry);
+            }
+            if (clientRateLimiter instanceof RedisRateLimiter clients
+                    && userRateLimiter instanceof RedisRateLimiter users) {
+                FunctionCounter.builder("gatemate.ratelimit.redis.errors", clients, RedisRateLimiter::getErrors)
+                        .tag("scope", "client").register(registry);
+                FunctionCounter.builder("gatemate.ratelimit.redis.errors", users, RedisRateLimiter::getErrors)
+                        .tag("scope", "user").register(registry);
+            }
+        };
+    }
+
+    private RateLimiter rateLimiter(ObjectProvider<JedisPooled> jedisPooled, String scope, double permitsPerSecond,
+            int burst) {
+        if ("redis".equals(backend)) {
+            return new RedisRateLimiter(jedisPooled.getObject(), redisPrefix + scope, permitsPerSecond, burst);
+        }
+        return new TokenBucketRateLimiter(permitsPerSecond, burst, maxKeys, evictInterval);
+    }
+}
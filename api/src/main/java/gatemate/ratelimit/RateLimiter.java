@@ -0,0 +1,10 @@
+package gatemate.ratelimit;
+
+public interface RateLimiter {
+    /**
+     * Takes one token from the bucket of {@code key}. Returns 0 when the
+     * request is allowed, otherwise the milliseconds until a token is
+     * available.
+     */
+    long tryAcquire(String key);
+}
@@ -0,0 +1,91 @@
+package gatemate.ratelimit;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+/**
+ * Token buckets shared by every node, using the same GCRA arithmetic as
+ * {@link TokenBucketRateLimiter} in a Lua script so the read and update are
+ * atomic on the Redis side and cost one round trip. Redis' clock is used so
+ * nodes with skewed clocks agree. When Redis is unavailable requests are
+ * allowed and the failure is counted.
+ */
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    static final String SCRIPT = """
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local stored = redis.call('GET', KEYS[1])
+            local full_at = now
+            if stored then
+              full_at = math.max(tonumber(stored), now)
+            end
+            local wait = full_at - now - tonumber(ARGV[2])
+            if wait > 0 then
+              return wait
+            end
+            full_at = full_at + tonumber(ARGV[1])
+            redis.call('SET', KEYS[1], full_at, 'PX', math.floor((full_at - now) / 1000) + 1)
+            return 0
+            """;
+
+    private final JedisPooled jedis;
+    private final String prefix;
+    private final List<String> args;
+    private final String sha;
+    private final LongAdder errors = new LongAdder();
+
+    public RedisRateLimiter(JedisPooled jedis, String prefix, double permitsPerSecond, int burst) {
+        long intervalMicros = (long) (TimeUnit.SECONDS.toMicros(1) / permitsPerSecond);
+        this.jedis = jedis;
+        this.prefix = prefix;
+        this.args = List.of(Long.toString(intervalMicros), Long.toString(intervalMicros * (Math.max(burst, 1) - 1)));
+        this.sha = sha1(SCRIPT);
+    }
+
+    @Override
+    public long tryAcquire(String key) {
+        List<String> keys = List.of(prefix + key);
+        try {
+            Object wait;
+            try {
+                wait = jedis.evalsha(sha, keys, args);
+            } catch (JedisNoScriptException e) {
+                wait = jedis.eval(SCRIPT, keys, args);
+            }
+            long waitMicros = ((Number) wait).longValue();
+            return waitMicros <= 0 ? 0 : Math.max(TimeUnit.MICROSECONDS.toMillis(waitMicros), 1);
+        } catch (JedisException e) {
+            errors.increment();
+            logger.warn("Redis rate limit check failed for key {}: {}", key, e.getMessage());
+            return 0;
+        }
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    private static String sha1(String script) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package gatemate.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * In-memory token buckets in the GCRA form: each key holds only the time at
+ * which its bucket will be full again, so taking a token is a single
+ * compare-and-set on one {@link AtomicLong} and needs no lock or refill
+ * thread. A bucket that is full again is indistinguishable from a missing
+ * one, so buckets idle for {@code evictInterval}, or at least the time to
+ * refill, expire. Once {@code maxKeys} is reached Caffeine evicts in
+ * amortized constant time and prefers keys that are rarely used, so a flood
+ * of new keys cannot push out the buckets of active clients.
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier clock;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, int maxKeys, Duration evictInterval) {
+        this(permitsPerSecond, burst, maxKeys, evictInterval, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(double permitsPerSecond, int burst, int maxKeys, Duration evictInterval,
+            LongSupplier clock) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.toleranceNanos = intervalNanos * (Math.max(burst, 1) - 1);
+        this.clock = clock;
+        // A bucket left alone for the refill time is full again, so dropping it changes nothing
+        long idleNanos = Math.max(evictInterval.toNanos(), toleranceNanos + intervalNanos);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(idleNanos))
+                .ticker(clock::getAsLong)
+                .build();
+    }
+
+    @Override
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long fullAt = bucket.get();
+            long start = Math.max(fullAt, now);
+            long wait = start - now - toleranceNanos;
+            if (wait > 0) {
+                return Math.max(TimeUnit.NANOSECONDS.toMillis(wait), 1);
+            }
+            if (bucket.compareAndSet(fullAt, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,33 @@
+package gatemate.repositories;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import gatemate.entities.ArchivedTransaction;
+
+/**
+ * Completed transactions moved out of the hot table by the archiver. Rows
+ * are immutable once archived and are only read back by id; user and
+ * flight lists cover the hot table.
+ */
+@Repository
+@Transactional(readOnly = true)
+public interface ArchivedTransactionsRepository extends JpaRepository<ArchivedTransaction, Long> {
+
+    @Query("select t.version from ArchivedTransaction t where t.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query("insert into ArchivedTransaction (id, userEmail, iataFlight, status, version, createdAt, updatedAt, archivedAt) "
+            + "select t.id, t.userEmail, t.iataFlight, t.status, t.version, t.createdAt, t.updatedAt, instant "
+            + "from Transactions t where t.id in :ids")
+    int archive(Collection<Long> ids);
+}
@@ -0,0 +1,11 @@
+package gatemate.repositories;
+
+import gatemate.entities.TransactionStatus;
+
+public interface FlightStatusCount {
+    String getIataFlight();
+
+    TransactionStatus getStatus();
+
+    long getTotal();
+}
@@ -0,0 +1,9 @@
+package gatemate.repositories;
+
+import gatemate.entities.TransactionStatus;
+
+public interface StatusCount {
+    TransactionStatus getStatus();
+
+    long getTotal();
+}
@@ -0,0 +1,57 @@
+package gatemate.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.hibernate.LockOptions;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import gatemate.entities.TransactionEvent;
+import gatemate.entities.TransactionStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+/**
+ * Outbox of transaction changes. Events are written by the same database
+ * transaction as the change they describe, which is why the recording
+ * queries refuse to run outside one.
+ */
+@Repository
+public interface TransactionEventsRepository extends JpaRepository<TransactionEvent, Long> {
+
+    String RECORD_EVENT = "insert into TransactionEvent "
+            + "(transactionId, eventType, userEmail, iataFlight, status, version, createdAt) select t.id, gatemate.entities.TransactionEventType.";
+    String FROM_TRANSACTIONS = ", t.userEmail, t.iataFlight, t.status, t.version, instant from Transactions t ";
+    String SKIP_LOCKED = "" + LockOptions.SKIP_LOCKED;
+
+    List<TransactionEvent> findByOrderByIdAsc(Limit limit);
+
+    /**
+     * Claims the oldest events for the caller's transaction with
+     * {@code FOR UPDATE SKIP LOCKED}, so relays on other nodes take the next
+     * events instead of the same ones.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = SKIP_LOCKED))
+    List<TransactionEvent> findLockedByOrderByIdAsc(Limit limit);
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query(RECORD_EVENT + "CREATED" + FROM_TRANSACTIONS + "where t.id in :ids")
+    int recordCreated(Collection<Long> ids);
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query(RECORD_EVENT + "STATUS_CHANGED" + FROM_TRANSACTIONS + "where t.id in :ids and t.status = :status")
+    int recordStatusChanged(Collection<Long> ids, TransactionStatus status);
+}
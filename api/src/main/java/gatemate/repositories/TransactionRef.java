@@ -0,0 +1,4 @@
+package gatemate.repositories;
+
+public record TransactionRef(Long id, String userEmail) {
+}
@@ -0,0 +1,7 @@
+package gatemate.repositories;
+
+import gatemate.entities.TransactionStatus;
+
+public record TransactionView(Long id, String userEmail, String iataFlight, TransactionStatus status,
+        Long version) {
+}
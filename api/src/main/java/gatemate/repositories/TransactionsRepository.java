@@ -1,18 +1,113 @@
 package gatemate.repositories;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import gatemate.entities.TransactionStatus;
 import gatemate.entities.Transactions;
+import jakarta.persistence.QueryHint;
 
 @Repository
+@Transactional(readOnly = true)
 public interface TransactionsRepository extends JpaRepository<Transactions, Long>{
 
     List<Transactions> findByUserEmail(String userEmail);
 
     List<Transactions> findByIataFlight(String iataFlight);
 
+    String TRANSACTION_VIEW = "select new gatemate.repositories.TransactionView(t.id, t.userEmail, t.iataFlight, t.status, t.version) from Transactions t ";
+
+    @Query(TRANSACTION_VIEW + "where t.userEmail = :userEmail order by t.id")
+    List<TransactionView> findViewsByUserEmail(String userEmail);
+
+    @Query(TRANSACTION_VIEW + "where t.userEmail = :userEmail and t.id > :after order by t.id")
+    List<TransactionView> findViewsByUserEmailAfter(String userEmail, Long after, Limit limit);
+
+    @Query(TRANSACTION_VIEW + "where t.userEmail = :userEmail and t.status in :statuses order by t.id")
+    List<TransactionView> findViewsByUserEmailAndStatus(String userEmail, Collection<TransactionStatus> statuses);
+
+    @Query(TRANSACTION_VIEW + "where t.userEmail = :userEmail and t.status in :statuses and t.id > :after order by t.id")
+    List<TransactionView> findViewsByUserEmailAndStatusAfter(String userEmail, Collection<TransactionStatus> statuses,
+            Long after, Limit limit);
+
+    @Query(TRANSACTION_VIEW + "where t.iataFlight = :iataFlight and t.id > :after order by t.id")
+    List<TransactionView> findViewsByFlightAfter(String iataFlight, Long after, Limit limit);
+
+    @Query(TRANSACTION_VIEW + "where t.iataFlight = :iataFlight and t.status in :statuses and t.id > :after order by t.id")
+    List<TransactionView> findViewsByFlightAndStatusAfter(String iataFlight, Collection<TransactionStatus> statuses,
+            Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(TRANSACTION_VIEW + "where t.userEmail = :userEmail order by t.id")
+    Stream<TransactionView> streamViewsByUserEmail(String userEmail);
+
+    @Query(TRANSACTION_VIEW + "where t.id = :id")
+    Optional<TransactionView> findViewById(Long id);
+
+    @Query("select t.version from Transactions t where t.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Query("select new gatemate.repositories.TransactionsVersion(count(t), max(t.id), sum(t.version)) "
+            + "from Transactions t where t.userEmail = :userEmail")
+    TransactionsVersion findVersionByUserEmail(String userEmail);
+
+    @Query("select new gatemate.repositories.TransactionsVersion(count(t), max(t.id), sum(t.version)) "
+            + "from Transactions t where t.userEmail = :userEmail and t.status in :statuses")
+    TransactionsVersion findVersionByUserEmailAndStatus(String userEmail, Collection<TransactionStatus> statuses);
+
+    @Transactional
+    @Modifying
+    @Query("update Transactions t set t.status = :target, t.version = t.version + 1, t.updatedAt = instant "
+            + "where t.id = :id and t.status in :sources")
+    int updateStatus(Long id, Collection<TransactionStatus> sources, TransactionStatus target);
+
+    @Transactional
+    @Modifying
+    @Query("update Transactions t set t.status = :target, t.version = t.version + 1, t.updatedAt = instant "
+            + "where t.id = :id and t.version = :version and t.status in :sources")
+    int updateStatusIfVersion(Long id, Long version, Collection<TransactionStatus> sources, TransactionStatus target);
+
+    @Query("select new gatemate.repositories.TransactionRef(t.id, t.userEmail) from Transactions t "
+            + "where t.iataFlight = :iataFlight and t.status in :statuses and t.id > :after order by t.id")
+    List<TransactionRef> findRefsByFlightAndStatus(String iataFlight, Collection<TransactionStatus> statuses,
+            Long after, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("update Transactions t set t.status = :target, t.version = t.version + 1, t.updatedAt = instant "
+            + "where t.id in :ids and t.status in :sources")
+    int updateStatusByIds(Collection<Long> ids, Collection<TransactionStatus> sources, TransactionStatus target);
+
+    @Query("select t.status as status, count(t) as total from Transactions t "
+            + "where t.iataFlight = :iataFlight group by t.status")
+    List<StatusCount> countByFlightGroupByStatus(String iataFlight);
+
+    // Same order as idx_transactions_status_updated_at, so the limit stops the range scan without a sort
+    @Query(TRANSACTION_VIEW + "where t.status in :statuses and t.updatedAt < :cutoff "
+            + "order by t.status, t.updatedAt, t.id")
+    List<TransactionView> findViewsUpdatedBefore(Collection<TransactionStatus> statuses, Instant cutoff, Limit limit);
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Modifying
+    @Query("delete from Transactions t where t.id in :ids")
+    int deleteByIds(Collection<Long> ids);
+
+    @Query("select t.iataFlight as iataFlight, t.status as status, count(t) as total from Transactions t "
+            + "group by t.iataFlight, t.status")
+    List<FlightStatusCount> countGroupByFlightAndStatus();
+
 } 
\ No newline at end of file
@@ -0,0 +1,20 @@
+package gatemate.repositories;
+
+import java.util.List;
+
+/**
+ * Fingerprint of a user's transaction list: inserts raise {@code maxId},
+ * deletes lower {@code count} and every update bumps {@code versionSum}.
+ */
+public record TransactionsVersion(long count, Long maxId, Long versionSum) {
+
+    public static TransactionsVersion of(List<TransactionView> transactions) {
+        Long maxId = null;
+        long versionSum = 0;
+        for (TransactionView transaction : transactions) {
+            maxId = maxId == null || transaction.id() > maxId ? transaction.id() : maxId;
+            versionSum += transaction.version() == null ? 0 : transaction.version();
+        }
+        return new TransactionsVersion(transactions.size(), maxId, transactions.isEmpty() ? null : versionSum);
+    }
+}
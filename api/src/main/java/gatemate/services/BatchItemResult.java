@@ -0,0 +1,16 @@
+package gatemate.services;
+
+public record BatchItemResult(int index, Long id, Outcome outcome, String error) {
+
+    public enum Outcome {
+        CREATED, REJECTED
+    }
+
+    static BatchItemResult created(int index, Long id) {
+        return new BatchItemResult(index, id, Outcome.CREATED, null);
+    }
+
+    static BatchItemResult rejected(int index, String error) {
+        return new BatchItemResult(index, null, Outcome.REJECTED, error);
+    }
+}
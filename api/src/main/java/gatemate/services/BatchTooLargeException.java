@@ -0,0 +1,7 @@
+package gatemate.services;
+
+public class BatchTooLargeException extends RuntimeException {
+  public BatchTooLargeException(String message) {
+    super(message);
+  }
+}
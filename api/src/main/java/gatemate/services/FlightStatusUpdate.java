@@ -0,0 +1,9 @@
+package gatemate.services;
+
+import java.util.Map;
+
+import gatemate.entities.TransactionStatus;
+
+public record FlightStatusUpdate(String iataFlight, TransactionStatus status, long updated,
+        Map<TransactionStatus, Long> statusCounts) {
+}
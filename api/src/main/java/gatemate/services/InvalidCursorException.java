@@ -0,0 +1,7 @@
+package gatemate.services;
+
+public class InvalidCursorException extends RuntimeException {
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+}
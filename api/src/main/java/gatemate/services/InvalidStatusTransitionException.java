@@ -0,0 +1,7 @@
+package gatemate.services;
+
+public class InvalidStatusTransitionException extends RuntimeException {
+  public InvalidStatusTransitionException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,9 @@
+package gatemate.services;
+
+import java.util.List;
+import java.util.Map;
+
+import gatemate.entities.Transactions;
+
+public record TransactionsLookup(Map<Long, Transactions> found, List<Long> missing) {
+}
@@ -0,0 +1,8 @@
+package gatemate.services;
+
+import java.util.List;
+
+import gatemate.repositories.TransactionView;
+
+public record TransactionsPage(List<TransactionView> items, String nextCursor) {
+}
@@ -1,15 +1,50 @@
 package gatemate.services;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import gatemate.entities.TransactionStatus;
 import gatemate.entities.Transactions;
+import gatemate.repositories.TransactionView;
+import gatemate.repositories.TransactionsVersion;
 
 public interface TransactionsService {
     public void createTransaction(Transactions transaction);
 
-    public List<Transactions> getTransactionsByUser(String userEmail);
+    public List<BatchItemResult> createTransactions(List<Transactions> transactions);
+
+    public List<TransactionView> getTransactionsByUser(String userEmail);
+
+    public List<TransactionView> getTransactionsByUser(String userEmail, Set<TransactionStatus> statuses);
+
+    public TransactionsPage getTransactionsByUser(String userEmail, String cursor, int limit);
+
+    public TransactionsPage getTransactionsByUser(String userEmail, Set<TransactionStatus> statuses, String cursor,
+            int limit);
+
+    public TransactionsPage getTransactionsByFlight(String iataFlight, String cursor, int limit);
+
+    public TransactionsPage getTransactionsByFlight(String iataFlight, Set<TransactionStatus> statuses, String cursor,
+            int limit);
+
+    public void streamTransactionsByUser(String userEmail, Consumer<TransactionView> consumer);
+
+    public TransactionsVersion getTransactionsByUserVersion(String userEmail);
+
+    public TransactionsVersion getTransactionsByUserVersion(String userEmail, Set<TransactionStatus> statuses);
 
     public void updateTransaction(Long id);
 
+    public void updateTransaction(Long id, Long expectedVersion);
+
+    public FlightStatusUpdate updateFlightStatus(String iataFlight, TransactionStatus status);
+
     public Transactions getTransaction(Long id);
+
+    public TransactionsLookup getTransactions(Collection<Long> ids);
+
+    public Optional<Long> getTransactionVersion(Long id);
 }
@@ -1,47 +1,422 @@
 package gatemate.services;
 
+import static gatemate.datasource.ReplicaRouting.transactionKey;
+import static gatemate.datasource.ReplicaRouting.userKey;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import gatemate.cache.TransactionsCache;
+import gatemate.coalescing.ReadCoalescing;
+import gatemate.datasource.ReplicaRouting;
+import gatemate.entities.ArchivedTransaction;
 import gatemate.entities.Transactions;
 import gatemate.entities.TransactionStatus;
+import gatemate.metrics.TransactionMetrics;
+import gatemate.repositories.ArchivedTransactionsRepository;
+import gatemate.repositories.StatusCount;
+import gatemate.repositories.TransactionEventsRepository;
+import gatemate.repositories.TransactionRef;
+import gatemate.repositories.TransactionView;
 import gatemate.repositories.TransactionsRepository;
+import gatemate.repositories.TransactionsVersion;
+import gatemate.statistics.FlightCounters;
 
 @Service
 public class TransactionsServiceImpl implements TransactionsService {
 
+    static final int MAX_PAGE_SIZE = 500;
+
     private final TransactionsRepository transactionsRepository;
+    private final ArchivedTransactionsRepository archivedTransactionsRepository;
+    private final TransactionEventsRepository transactionEventsRepository;
+    private final TransactionsCache transactionsCache;
+    private final TransactionMetrics transactionMetrics;
+    private final TransactionOperations transactionOperations;
+    private final FlightCounters flightCounters;
+    private final ReplicaRouting replicaRouting;
+    private final ReadCoalescing readCoalescing;
+
+    @Value("${gatemate.transactions.batch.chunk-size:50}")
+    private int batchChunkSize = 50;
+
+    @Value("${gatemate.transactions.batch.max-items:1000}")
+    private int batchMaxItems = 1000;
+
+    @Value("${gatemate.transactions.flight-update.chunk-size:500}")
+    private int flightUpdateChunkSize = 500;
 
-    public TransactionsServiceImpl(TransactionsRepository transactionsRepository) {
+    @Value("${gatemate.transactions.lookup.max-ids:500}")
+    private int lookupMaxIds = 500;
+
+    public TransactionsServiceImpl(TransactionsRepository transactionsRepository,
+            ArchivedTransactionsRepository archivedTransactionsRepository,
+            TransactionEventsRepository transactionEventsRepository, TransactionsCache transactionsCache,
+            TransactionMetrics transactionMetrics, TransactionOperations transactionOperations,
+            FlightCounters flightCounters, ReplicaRouting replicaRouting, ReadCoalescing readCoalescing) {
         this.transactionsRepository = transactionsRepository;
+        this.archivedTransactionsRepository = archivedTransactionsRepository;
+        this.transactionEventsRepository = transactionEventsRepository;
+        this.transactionsCache = transactionsCache;
+        this.transactionMetrics = transactionMetrics;
+        this.transactionOperations = transactionOperations;
+        this.flightCounters = flightCounters;
+        this.replicaRouting = replicaRouting;
+        this.readCoalescing = readCoalescing;
     }
 
     @Override
+    @Transactional
     public void createTransaction(Transactions transaction) {
         transactionsRepository.save(transaction);
+        transactionEventsRepository.recordCreated(Collections.singletonList(transaction.getId()));
+        replicaRouting.markWritten(userKey(transaction.getUserEmail()));
+        afterCommit(() -> {
+            readCoalescing.forgetTransactionsByUser(transaction.getUserEmail());
+            transactionsCache.evictMissingTransactions(Collections.singletonList(transaction.getId()));
+            transactionsCache.evictTransactionsByUser(transaction.getUserEmail());
+        });
+        transactionMetrics.recordCreated(transaction.getStatus(), 1);
+        flightCounters.recordCreated(transaction.getIataFlight(), transaction.getStatus(), 1);
+    }
+
+    @Override
+    @Transactional
+    public List<BatchItemResult> createTransactions(List<Transactions> transactions) {
+        if (transactions.size() > batchMaxItems) {
+            throw new BatchTooLargeException("Batch exceeds " + batchMaxItems + " transactions");
+        }
+        List<Transactions> valid = new ArrayList<>(transactions.size());
+        for (Transactions transaction : transactions) {
+            if (isValid(transaction)) {
+                valid.add(transaction);
+            }
+        }
+        for (int from = 0; from < valid.size(); from += batchChunkSize) {
+            List<Transactions> chunk = valid.subList(from, Math.min(from + batchChunkSize, valid.size()));
+            transactionsRepository.saveAllAndFlush(chunk);
+            transactionEventsRepository.recordCreated(chunk.stream().map(Transactions::getId).toList());
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(transactions.size());
+        List<Long> created = new ArrayList<>(valid.size());
+        Set<String> users = new HashSet<>();
+        for (int index = 0; index < transactions.size(); index++) {
+            Transactions transaction = transactions.get(index);
+            if (isValid(transaction)) {
+                results.add(BatchItemResult.created(index, transaction.getId()));
+                created.add(transaction.getId());
+                users.add(transaction.getUserEmail());
+                transactionMetrics.recordCreated(transaction.getStatus(), 1);
+                flightCounters.recordCreated(transaction.getIataFlight(), transaction.getStatus(), 1);
+            } else {
+                results.add(BatchItemResult.rejected(index, "Invalid transaction data"));
+            }
+        }
+        users.forEach(user -> replicaRouting.markWritten(userKey(user)));
+        afterCommit(() -> {
+            users.forEach(readCoalescing::forgetTransactionsByUser);
+            transactionsCache.evictMissingTransactions(created);
+            users.forEach(transactionsCache::evictTransactionsByUser);
+        });
+        return results;
+    }
+
+    /**
+     * Runs cache evictions once the write is visible. Evicting earlier lets a
+     * concurrent read put the row it saw before the commit back into the
+     * caches for the whole TTL.
+     */
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private static boolean isValid(Transactions transaction) {
+        return transaction != null && transaction.getUserEmail() != null && transaction.getIataFlight() != null
+                && transaction.getStatus() != null
+                && transaction.getUserEmail().length() <= Transactions.MAX_TEXT_LENGTH
+                && transaction.getIataFlight().length() <= Transactions.MAX_TEXT_LENGTH;
+    }
+
+    @Override
+    public List<TransactionView> getTransactionsByUser(String userEmail) {
+        Optional<List<TransactionView>> cached = transactionsCache.getTransactionsByUser(userEmail);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        return readCoalescing.transactionsByUser(userEmail,
+                () -> replicaRouting.read(userKey(userEmail),
+                        () -> transactionsRepository.findViewsByUserEmail(userEmail)),
+                transactions -> transactionsCache.putTransactionsByUser(userEmail, transactions));
+    }
+
+    /**
+     * Filters the cached list when there is one. Otherwise reads only the
+     * matching rows through the covering index, and does not cache them.
+     */
+    @Override
+    public List<TransactionView> getTransactionsByUser(String userEmail, Set<TransactionStatus> statuses) {
+        Optional<List<TransactionView>> cached = transactionsCache.getTransactionsByUser(userEmail);
+        if (cached.isPresent()) {
+            return cached.get().stream().filter(transaction -> statuses.contains(transaction.status())).toList();
+        }
+        return replicaRouting.read(userKey(userEmail),
+                () -> transactionsRepository.findViewsByUserEmailAndStatus(userEmail, statuses));
+    }
+
+    @Override
+    public TransactionsPage getTransactionsByUser(String userEmail, String cursor, int limit) {
+        return page(cursor, limit, (after, pageLimit) -> replicaRouting.read(userKey(userEmail),
+                () -> transactionsRepository.findViewsByUserEmailAfter(userEmail, after, pageLimit)));
+    }
+
+    @Override
+    public TransactionsPage getTransactionsByUser(String userEmail, Set<TransactionStatus> statuses, String cursor,
+            int limit) {
+        return page(cursor, limit, (after, pageLimit) -> replicaRouting.read(userKey(userEmail),
+                () -> transactionsRepository.findViewsByUserEmailAndStatusAfter(userEmail, statuses, after, pageLimit)));
+    }
+
+    @Override
+    public TransactionsPage getTransactionsByFlight(String iataFlight, String cursor, int limit) {
+        return page(cursor, limit,
+                (after, pageLimit) -> transactionsRepository.findViewsByFlightAfter(iataFlight, after, pageLimit));
+    }
+
+    @Override
+    public TransactionsPage getTransactionsByFlight(String iataFlight, Set<TransactionStatus> statuses, String cursor,
+            int limit) {
+        return page(cursor, limit, (after, pageLimit) -> transactionsRepository.findViewsByFlightAndStatusAfter(
+                iataFlight, statuses, after, pageLimit));
+    }
+
+    private static TransactionsPage page(String cursor, int limit,
+            BiFunction<Long, Limit, List<TransactionView>> query) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<TransactionView> transactions = query.apply(PageCursor.decode(cursor), Limit.of(pageSize + 1));
+        if (transactions.size() <= pageSize) {
+            return new TransactionsPage(transactions, null);
+        }
+        List<TransactionView> items = transactions.subList(0, pageSize);
+        return new TransactionsPage(items, PageCursor.encode(items.get(pageSize - 1).id()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamTransactionsByUser(String userEmail, Consumer<TransactionView> consumer) {
+        replicaRouting.read(userKey(userEmail), () -> {
+            try (Stream<TransactionView> transactions = transactionsRepository.streamViewsByUserEmail(userEmail)) {
+                transactions.forEach(consumer);
+            }
+            return null;
+        });
     }
 
     @Override
-    public List<Transactions> getTransactionsByUser(String userEmail) {
-        return transactionsRepository.findByUserEmail(userEmail);
+    public TransactionsVersion getTransactionsByUserVersion(String userEmail) {
+        return replicaRouting.read(userKey(userEmail), () -> transactionsRepository.findVersionByUserEmail(userEmail));
     }
 
     @Override
+    public TransactionsVersion getTransactionsByUserVersion(String userEmail, Set<TransactionStatus> statuses) {
+        return replicaRouting.read(userKey(userEmail),
+                () -> transactionsRepository.findVersionByUserEmailAndStatus(userEmail, statuses));
+    }
+
+    @Override
+    @Transactional
     public void updateTransaction(Long id) {
-        Optional<Transactions> transactionOpt = transactionsRepository.findById(id);
-        if (transactionOpt.isPresent()) {
-            Transactions transaction = transactionOpt.get();
-            transaction.setStatus(TransactionStatus.CHECKEDIN);
-            transactionsRepository.save(transaction);
-        } else {
-            throw new TransactionNotFoundException("Transaction not found for id: " + id);
+        updateTransaction(id, null);
+    }
+
+    @Override
+    @Transactional
+    public void updateTransaction(Long id, Long expectedVersion) {
+        TransactionStatus target = TransactionStatus.CHECKEDIN;
+        Set<TransactionStatus> sources = TransactionStatus.sourcesOf(target);
+        int updated = expectedVersion == null
+                ? transactionsRepository.updateStatus(id, sources, target)
+                : transactionsRepository.updateStatusIfVersion(id, expectedVersion, sources, target);
+        if (updated == 0) {
+            if (!transactionsRepository.existsById(id)) {
+                if (archivedTransactionsRepository.existsById(id)) {
+                    throw new InvalidStatusTransitionException("Transaction " + id + " is archived");
+                }
+                throw new TransactionNotFoundException("Transaction not found for id: " + id);
+            }
+            if (expectedVersion != null
+                    && transactionsRepository.findVersionById(id).filter(expectedVersion::equals).isEmpty()) {
+                throw new VersionConflictException("Transaction " + id + " is no longer at version " + expectedVersion);
+            }
+            throw new InvalidStatusTransitionException("Transaction " + id + " cannot move to " + target);
         }
+        transactionEventsRepository.recordStatusChanged(Collections.singletonList(id), target);
+        transactionMetrics.recordTransition(sources, target, 1);
+        replicaRouting.markWritten(transactionKey(id));
+        afterCommit(() -> {
+            readCoalescing.forgetTransaction(id);
+            transactionsCache.evictTransaction(id);
+        });
+        transactionsRepository.findViewById(id).ifPresent(view -> {
+            replicaRouting.markWritten(userKey(view.userEmail()));
+            afterCommit(() -> {
+                readCoalescing.forgetTransactionsByUser(view.userEmail());
+                transactionsCache.evictTransactionsByUser(view.userEmail());
+            });
+            flightCounters.recordTransition(view.iataFlight(), sources, target, 1);
+        });
+    }
+
+    @Override
+    public FlightStatusUpdate updateFlightStatus(String iataFlight, TransactionStatus target) {
+        Set<TransactionStatus> sources = TransactionStatus.sourcesOf(target);
+        if (sources.isEmpty()) {
+            throw new InvalidStatusTransitionException("No transaction can move to " + target);
+        }
+        long updated = 0;
+        Long after = 0L;
+        List<TransactionRef> chunk;
+        do {
+            chunk = transactionsRepository.findRefsByFlightAndStatus(iataFlight, sources, after,
+                    Limit.of(flightUpdateChunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<Long> ids = chunk.stream().map(TransactionRef::id).toList();
+            updated += transactionOperations.execute(status -> {
+                int changed = transactionsRepository.updateStatusByIds(ids, sources, target);
+                transactionEventsRepository.recordStatusChanged(ids, target);
+                return changed;
+            });
+            for (TransactionRef ref : chunk) {
+                replicaRouting.markWritten(transactionKey(ref.id()));
+                replicaRouting.markWritten(userKey(ref.userEmail()));
+            }
+            ids.forEach(readCoalescing::forgetTransaction);
+            transactionsCache.evictTransactions(ids);
+            chunk.stream().map(TransactionRef::userEmail).distinct().forEach(user -> {
+                readCoalescing.forgetTransactionsByUser(user);
+                transactionsCache.evictTransactionsByUser(user);
+            });
+            after = ids.get(ids.size() - 1);
+        } while (chunk.size() == flightUpdateChunkSize);
+        transactionMetrics.recordTransition(sources, target, updated);
+        flightCounters.recordTransition(iataFlight, sources, target, updated);
+
+        Map<TransactionStatus, Long> statusCounts = new EnumMap<>(TransactionStatus.class);
+        for (StatusCount count : transactionsRepository.countByFlightGroupByStatus(iataFlight)) {
+            statusCounts.put(count.getStatus(), count.getTotal());
+        }
+        if (statusCounts.isEmpty()) {
+            throw new TransactionNotFoundException("No transactions found for flight: " + iataFlight);
+        }
+        return new FlightStatusUpdate(iataFlight, target, updated, statusCounts);
     }
 
     @Override
     public Transactions getTransaction(Long id) {
-        return transactionsRepository.findById(id).orElse(null);
+        Optional<Transactions> cached = transactionsCache.getTransaction(id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        if (transactionsCache.isTransactionMissing(id)) {
+            return null;
+        }
+        return readCoalescing.transaction(id,
+                () -> replicaRouting.read(transactionKey(id),
+                        () -> transactionsRepository.findById(id).or(() -> archivedTransactionsRepository.findById(id)
+                                .map(ArchivedTransaction::toTransaction)).orElse(null)),
+                transaction -> {
+                    if (transaction != null) {
+                        transactionsCache.putTransaction(transaction);
+                    } else {
+                        transactionsCache.putMissingTransaction(id);
+                    }
+                });
+    }
+
+    /**
+     * Answers from the cache tiers first and reads the remaining ids with one
+     * query on the hot table and, for what is still missing, one on the
+     * archive. Duplicate ids are looked up once; {@code found} keeps the
+     * order of the request.
+     */
+    @Override
+    public TransactionsLookup getTransactions(Collection<Long> ids) {
+        if (ids.size() > lookupMaxIds) {
+            throw new BatchTooLargeException("Lookup exceeds " + lookupMaxIds + " ids");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, Transactions> found = new HashMap<>(transactionsCache.getTransactions(requested));
+        List<Long> misses = requested.stream()
+                .filter(id -> !found.containsKey(id) && !transactionsCache.isTransactionMissing(id))
+                .toList();
+        if (!misses.isEmpty()) {
+            List<Transactions> loaded = replicaRouting.read(misses.stream().map(ReplicaRouting::transactionKey).toList(),
+                    () -> {
+                        List<Transactions> active = transactionsRepository.findAllById(misses);
+                        Set<Long> activeIds = active.stream().map(Transactions::getId).collect(Collectors.toSet());
+                        List<Long> archivedIds = misses.stream().filter(id -> !activeIds.contains(id)).toList();
+                        if (archivedIds.isEmpty()) {
+                            return active;
+                        }
+                        List<Transactions> all = new ArrayList<>(active);
+                        archivedTransactionsRepository.findAllById(archivedIds)
+                                .forEach(archived -> all.add(archived.toTransaction()));
+                        return all;
+                    });
+            loaded.forEach(transaction -> found.put(transaction.getId(), transaction));
+            transactionsCache.putTransactions(loaded);
+            misses.stream().filter(id -> !found.containsKey(id)).forEach(transactionsCache::putMissingTransaction);
+        }
+
+        Map<Long, Transactions> ordered = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Transactions transaction = found.get(id);
+            if (transaction != null) {
+                ordered.put(id, transaction);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new TransactionsLookup(ordered, missing);
+    }
+
+    @Override
+    public Optional<Long> getTransactionVersion(Long id) {
+        return replicaRouting.read(transactionKey(id), () -> transactionsRepository.findVersionById(id)
+                .or(() -> archivedTransactionsRepository.findVersionById(id)));
     }
 }
@@ -0,0 +1,7 @@
+package gatemate.services;
+
+public class VersionConflictException extends RuntimeException {
+  public VersionConflictException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,219 @@
+package gatemate.statistics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import gatemate.entities.TransactionStatus;
+import gatemate.repositories.FlightStatusCount;
+import gatemate.repositories.TransactionsRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Per-flight transaction counts by status, kept in memory and moved on every
+ * create and status transition once the writing transaction commits. Writes
+ * made by other nodes, rolled-back edge cases and transitions from more than
+ * one possible source status are corrected by the periodic
+ * {@link #reconcile()} against the table.
+ */
+@Component
+public class FlightCounters implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightCounters.class);
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final TransactionsRepository transactionsRepository;
+    private final ConcurrentHashMap<String, AtomicLongArray> flights = new ConcurrentHashMap<>();
+    private final AtomicLongArray totals = new AtomicLongArray(STATUSES.length);
+    private final LongAdder drift = new LongAdder();
+
+    public FlightCounters(TransactionsRepository transactionsRepository) {
+        this.transactionsRepository = transactionsRepository;
+    }
+
+    public void recordCreated(String iataFlight, TransactionStatus status, long count) {
+        if (iataFlight == null || status == null || count <= 0) {
+            return;
+        }
+        afterCommit(() -> add(iataFlight, status, count));
+    }
+
+    public void recordRemoved(String iataFlight, TransactionStatus status, long count) {
+        if (iataFlight == null || status == null || count <= 0) {
+            return;
+        }
+        afterCommit(() -> add(iataFlight, status, -count));
+    }
+
+    public void recordTransition(String iataFlight, Collection<TransactionStatus> sources, TransactionStatus target,
+            long count) {
+        if (iataFlight == null || count <= 0) {
+            return;
+        }
+        afterCommit(() -> {
+            add(iataFlight, target, count);
+            if (sources.size() == 1) {
+                add(iataFlight, sources.iterator().next(), -count);
+            }
+        });
+    }
+
+    public FlightStatistics getFlight(String iataFlight) {
+        AtomicLongArray counts = flights.get(iataFlight);
+        return counts == null ? null : toStatistics(iataFlight, counts);
+    }
+
+    public Map<TransactionStatus, Long> getTotals() {
+        Map<TransactionStatus, Long> result = new EnumMap<>(TransactionStatus.class);
+        for (TransactionStatus status : STATUSES) {
+            result.put(status, totals.get(status.ordinal()));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the {@code limit} flights with the most transactions in
+     * {@code status}, or in total when {@code status} is null.
+     */
+    public List<FlightStatistics> getTopFlights(TransactionStatus status, int limit) {
+        Comparator<FlightStatistics> order = Comparator.comparingLong(
+                statistics -> status == null ? statistics.total() : statistics.counts().get(status));
+        PriorityQueue<FlightStatistics> top = new PriorityQueue<>(limit + 1, order);
+        flights.forEach((iataFlight, counts) -> {
+            top.add(toStatistics(iataFlight, counts));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<FlightStatistics> result = new ArrayList<>(top);
+        result.sort(order.reversed());
+        return result;
+    }
+
+    /**
+     * Moves the counters to the table's counts by applying the difference
+     * between the aggregate query and the counters read just before it.
+     * Increments for writes that commit after the query has read the table
+     * are kept. An increment applied after that read but for a write the query
+     * already saw is counted twice until the next run, which corrects it.
+     */
+    @Scheduled(fixedDelayString = "${gatemate.statistics.reconcile-interval:PT1M}",
+            initialDelayString = "${gatemate.statistics.reconcile-initial-delay:PT0S}")
+    public void reconcile() {
+        Map<String, long[]> before = new HashMap<>();
+        flights.forEach((iataFlight, counts) -> before.put(iataFlight, snapshot(counts)));
+
+        Map<String, long[]> actual = new HashMap<>();
+        for (FlightStatusCount count : transactionsRepository.countGroupByFlightAndStatus()) {
+            if (count.getIataFlight() != null && count.getStatus() != null) {
+                actual.computeIfAbsent(count.getIataFlight(), key -> new long[STATUSES.length])
+                        [count.getStatus().ordinal()] = count.getTotal();
+            }
+        }
+
+        long corrected = 0;
+        for (String iataFlight : union(before.keySet(), actual.keySet())) {
+            long[] previous = before.getOrDefault(iataFlight, new long[STATUSES.length]);
+            long[] expected = actual.getOrDefault(iataFlight, new long[STATUSES.length]);
+            for (TransactionStatus status : STATUSES) {
+                long delta = expected[status.ordinal()] - previous[status.ordinal()];
+                if (delta != 0) {
+                    add(iataFlight, status, delta);
+                    corrected += Math.abs(delta);
+                }
+            }
+        }
+        // Under the key's lock, like add(), so an increment cannot land on a removed entry
+        for (String iataFlight : flights.keySet()) {
+            flights.computeIfPresent(iataFlight, (key, counts) -> isEmpty(counts) ? null : counts);
+        }
+        if (corrected > 0) {
+            drift.add(corrected);
+            logger.debug("Flight counters corrected by {}", corrected);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gatemate.statistics.reconciliation.drift", drift, LongAdder::sum)
+                .description("Counter units corrected by reconciliation against the transactions table")
+                .register(registry);
+    }
+
+    private void add(String iataFlight, TransactionStatus status, long delta) {
+        flights.compute(iataFlight, (key, counts) -> {
+            AtomicLongArray current = counts == null ? new AtomicLongArray(STATUSES.length) : counts;
+            current.addAndGet(status.ordinal(), delta);
+            return current;
+        });
+        totals.addAndGet(status.ordinal(), delta);
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private static FlightStatistics toStatistics(String iataFlight, AtomicLongArray counts) {
+        Map<TransactionStatus, Long> byStatus = new EnumMap<>(TransactionStatus.class);
+        long total = 0;
+        for (TransactionStatus status : STATUSES) {
+            long count = counts.get(status.ordinal());
+            byStatus.put(status, count);
+            total += count;
+        }
+        return new FlightStatistics(iataFlight, byStatus, total);
+    }
+
+    private static long[] snapshot(AtomicLongArray counts) {
+        long[] values = new long[counts.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = counts.get(i);
+        }
+        return values;
+    }
+
+    private static boolean isEmpty(AtomicLongArray counts) {
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> union(Collection<String> first, Collection<String> second) {
+        List<String> all = new ArrayList<>(first);
+        for (String value : second) {
+            if (!first.contains(value)) {
+                all.add(value);
+            }
+        }
+        return all;
+    }
+}
@@ -0,0 +1,8 @@
+package gatemate.statistics;
+
+import java.util.Map;
+
+import gatemate.entities.TransactionStatus;
+
+public record FlightStatistics(String iataFlight, Map<TransactionStatus, Long> counts, long total) {
+}
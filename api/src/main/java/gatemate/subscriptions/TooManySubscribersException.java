@@ -0,0 +1,7 @@
+package gatemate.subscriptions;
+
+public class TooManySubscribersException extends RuntimeException {
+  public TooManySubscribersException(String message) {
+    super(message);
+  }
+}
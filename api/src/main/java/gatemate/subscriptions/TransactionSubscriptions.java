@@ -0,0 +1,217 @@
+package gatemate.subscriptions;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import gatemate.entities.TransactionEvent;
+import gatemate.outbox.TransactionEventSink;
+import gatemate.repositories.TransactionView;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Registry of open Server-Sent Events subscriptions, keyed by user. Idle
+ * subscriptions are parked servlet async requests, so they hold no thread.
+ * Deltas come from the {@link TransactionEventSink}, which delivers the
+ * events relayed by every node. Writes go through a small bounded pool, one
+ * queue per subscriber; a subscriber that falls {@code max-pending} events
+ * behind is dropped, so a slow client cannot hold up the others.
+ */
+@Component
+public class TransactionSubscriptions implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionSubscriptions.class);
+
+    private final TransactionEventSink sink;
+    private final ConcurrentHashMap<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private ThreadPoolExecutor sender;
+
+    @Value("${gatemate.subscriptions.max-subscribers:50000}")
+    private int maxSubscribers = 50000;
+
+    @Value("${gatemate.subscriptions.timeout:PT30M}")
+    private Duration timeout = Duration.ofMinutes(30);
+
+    @Value("${gatemate.subscriptions.send-threads:4}")
+    private int sendThreads = 4;
+
+    @Value("${gatemate.subscriptions.send-queue:10000}")
+    private int sendQueue = 10000;
+
+    @Value("${gatemate.subscriptions.max-pending:100}")
+    private int maxPending = 100;
+
+    public TransactionSubscriptions(TransactionEventSink sink) {
+        this.sink = sink;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threads = new AtomicInteger();
+        sender = new ThreadPoolExecutor(sendThreads, sendThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sendQueue), runnable -> {
+                    Thread thread = new Thread(runnable, "subscription-sender-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        sink.subscribe(this::onTransactionEvents);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+    }
+
+    public SseEmitter subscribe(String userEmail) {
+        if (count.incrementAndGet() > maxSubscribers) {
+            count.decrementAndGet();
+            throw new TooManySubscribersException("Subscriber limit of " + maxSubscribers + " reached");
+        }
+        Subscriber subscriber = new Subscriber(userEmail, new SseEmitter(timeout.toMillis()));
+        subscribers.compute(userEmail, (key, set) -> {
+            Set<Subscriber> current = set == null ? ConcurrentHashMap.newKeySet() : set;
+            current.add(subscriber);
+            return current;
+        });
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        return subscriber.emitter;
+    }
+
+    public int getSubscriberCount() {
+        return count.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public void onTransactionEvents(List<TransactionEvent> events) {
+        for (TransactionEvent event : events) {
+            Set<Subscriber> set = subscribers.get(event.getUserEmail());
+            if (set == null) {
+                continue;
+            }
+            String id = String.valueOf(event.getId());
+            String name = event.getEventType().name().toLowerCase(Locale.ROOT);
+            TransactionView view = new TransactionView(event.getTransactionId(), event.getUserEmail(),
+                    event.getIataFlight(), event.getStatus(), event.getVersion());
+            // A builder keeps state while it is sent, so each subscriber gets its own
+            for (Subscriber subscriber : set) {
+                subscriber.offer(() -> SseEmitter.event().id(id).name(name).data(view, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    /**
+     * Keeps idle connections from being closed by proxies and detects clients
+     * that went away without closing.
+     */
+    @Scheduled(fixedDelayString = "${gatemate.subscriptions.heartbeat:PT30S}")
+    public void heartbeat() {
+        subscribers.forEach((userEmail, set) -> {
+            for (Subscriber subscriber : set) {
+                subscriber.offer(() -> SseEmitter.event().comment(""));
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gatemate.subscriptions.active", count, AtomicInteger::get)
+                .description("Open transaction update subscriptions on this node")
+                .register(registry);
+        FunctionCounter.builder("gatemate.subscriptions.dropped", dropped, LongAdder::sum)
+                .description("Subscriptions closed because the client could not keep up")
+                .register(registry);
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userEmail, (key, set) -> {
+            if (set.remove(subscriber)) {
+                count.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void drop(Subscriber subscriber, String reason) {
+        logger.debug("Dropping subscription for {}: {}", subscriber.userEmail, reason);
+        dropped.increment();
+        remove(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    /**
+     * Events waiting for one client. At most one drain task per subscriber is
+     * queued or running, so its events are written in order.
+     */
+    private final class Subscriber {
+
+        private final String userEmail;
+        private final SseEmitter emitter;
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        private Subscriber(String userEmail, SseEmitter emitter) {
+            this.userEmail = userEmail;
+            this.emitter = emitter;
+        }
+
+        private void offer(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (size.get() >= maxPending) {
+                drop(this, maxPending + " events pending");
+                return;
+            }
+            pending.add(event);
+            if (size.incrementAndGet() == 1) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    drop(this, "send queue full");
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                try {
+                    emitter.send(pending.poll().get());
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Dropping subscription for {}: {}", userEmail, e.getMessage());
+                    remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            } while (size.decrementAndGet() > 0);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS transactions (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_email VARCHAR(255),
+    iata_flight VARCHAR(255),
+    status TINYINT,
+    PRIMARY KEY (id)
+);
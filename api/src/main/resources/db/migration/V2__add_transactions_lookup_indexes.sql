@@ -0,0 +1,2 @@
+CREATE INDEX idx_transactions_user_email_status ON transactions (user_email, status);
+CREATE INDEX idx_transactions_iata_flight_status ON transactions (iata_flight, status);
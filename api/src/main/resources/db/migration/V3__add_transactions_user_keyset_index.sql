@@ -0,0 +1 @@
+CREATE INDEX idx_transactions_user_email_id ON transactions (user_email, id);
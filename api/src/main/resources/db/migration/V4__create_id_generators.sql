@@ -0,0 +1,8 @@
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'transactions', COALESCE(MAX(id), 0) + 1 FROM transactions;
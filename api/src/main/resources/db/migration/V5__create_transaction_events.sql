@@ -0,0 +1,10 @@
+CREATE TABLE transaction_events (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    transaction_id BIGINT NOT NULL,
+    event_type VARCHAR(16) NOT NULL,
+    user_email VARCHAR(255),
+    iata_flight VARCHAR(255),
+    status TINYINT,
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,3 @@
+ALTER TABLE transactions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE transaction_events ADD COLUMN version BIGINT;
@@ -0,0 +1,7 @@
+CREATE TABLE replica_heartbeat (
+    id TINYINT NOT NULL,
+    beat TIMESTAMP(3) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO replica_heartbeat (id, beat) VALUES (1, '2000-01-01 00:00:00');
@@ -0,0 +1,15 @@
+ALTER TABLE transactions ADD COLUMN created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+ALTER TABLE transactions ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+CREATE INDEX idx_transactions_status_updated_at ON transactions (status, updated_at);
+
+CREATE TABLE transactions_archive (
+    id BIGINT NOT NULL,
+    user_email VARCHAR(255),
+    iata_flight VARCHAR(255),
+    status TINYINT,
+    version BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    archived_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
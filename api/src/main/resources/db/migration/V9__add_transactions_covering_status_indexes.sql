@@ -0,0 +1,5 @@
+CREATE INDEX idx_transactions_user_email_status_id ON transactions (user_email, status, id, iata_flight, version);
+CREATE INDEX idx_transactions_iata_flight_status_id ON transactions (iata_flight, status, id, user_email, version);
+CREATE INDEX idx_transactions_iata_flight_id ON transactions (iata_flight, id);
+DROP INDEX idx_transactions_user_email_status ON transactions;
+DROP INDEX idx_transactions_iata_flight_status ON transactions;
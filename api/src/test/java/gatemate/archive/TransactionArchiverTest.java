@@ -0,0 +1,96 @@
+package gatemate.archive;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import gatemate.cache.TransactionsCache;
+import gatemate.entities.ArchivedTransaction;
+import gatemate.entities.TransactionStatus;
+import gatemate.entities.Transactions;
+import gatemate.repositories.ArchivedTransactionsRepository;
+import gatemate.repositories.TransactionsRepository;
+import gatemate.statistics.FlightCounters;
+
+@DataJpaTest
+class TransactionArchiverTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+
+    @Autowired
+    private ArchivedTransactionsRepository archivedTransactionsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final TransactionsCache transactionsCache = mock(TransactionsCache.class);
+    private final FlightCounters flightCounters = mock(FlightCounters.class);
+    private TransactionArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = new TransactionArchiver(transactionsRepository, archivedTransactionsRepository, transactionsCache,
+                flightCounters, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(archiver, "chunkSize", 2);
+    }
+
+    @Test
+    @DisplayName("Completed transactions older than the cutoff move to the archive in chunks")
+    void whenArchive_thenMoveCompletedTransactions() {
+        Transactions payed = persist("FirstUser", TransactionStatus.PAYED);
+        Transactions checkedIn = persist("FirstUser", TransactionStatus.CHECKEDIN);
+        Transactions canceled = persist("SecondUser", TransactionStatus.CANCELED);
+        Transactions canceledToo = persist("SecondUser", TransactionStatus.CANCELED);
+        entityManager.clear();
+
+        assertThat(archiver.archiveUpdatedBefore(Instant.now().plus(Duration.ofMinutes(1)))).isEqualTo(3);
+        entityManager.clear();
+
+        assertThat(transactionsRepository.findAll()).extracting(Transactions::getId).containsExactly(payed.getId());
+        assertThat(archivedTransactionsRepository.findAll()).extracting(ArchivedTransaction::getId)
+                .containsExactlyInAnyOrder(checkedIn.getId(), canceled.getId(), canceledToo.getId());
+        ArchivedTransaction archived = archivedTransactionsRepository.findById(checkedIn.getId()).orElseThrow();
+        assertThat(archived.getUserEmail()).isEqualTo("FirstUser");
+        assertThat(archived.getStatus()).isEqualTo(TransactionStatus.CHECKEDIN);
+        assertThat(archived.getCreatedAt()).isNotNull();
+        assertThat(archived.getArchivedAt()).isNotNull();
+        verify(transactionsCache, times(1)).evictTransactions(List.of(checkedIn.getId(), canceled.getId()));
+        verify(transactionsCache, atLeastOnce()).evictTransactionsByUser("SecondUser");
+        verify(flightCounters, times(2)).recordRemoved("AA123", TransactionStatus.CANCELED, 1);
+    }
+
+    @Test
+    @DisplayName("Transactions updated after the cutoff stay in the hot table")
+    void whenArchiveRecentTransactions_thenKeepThem() {
+        persist("FirstUser", TransactionStatus.CHECKEDIN);
+        entityManager.clear();
+
+        assertThat(archiver.archiveUpdatedBefore(Instant.now().minus(Duration.ofDays(1)))).isZero();
+        assertThat(archivedTransactionsRepository.count()).isZero();
+    }
+
+    private Transactions persist(String userEmail, TransactionStatus status) {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail(userEmail);
+        transaction.setIataFlight("AA123");
+        transaction.setStatus(status);
+        return entityManager.persistAndFlush(transaction);
+    }
+}
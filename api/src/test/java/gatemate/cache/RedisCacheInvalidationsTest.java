@@ -0,0 +1,54 @@
+package gatemate.cache;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+class RedisCacheInvalidationsTest {
+
+    private final JedisPooled jedis = mock(JedisPooled.class);
+    private final RedisCacheInvalidations invalidations = new RedisCacheInvalidations(jedis,
+            "gatemate:cache:invalidations", Duration.ofSeconds(1));
+
+    @Test
+    @DisplayName("Invalidations from other nodes are parsed into ids")
+    void whenOtherNodePublishes_thenReturnIds() {
+        assertThat(invalidations.parse("other-node:1,2,3")).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("A node ignores its own invalidations")
+    void whenOwnMessage_thenIgnore() {
+        invalidations.publish(List.of(1L, 2L));
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(jedis).publish(eq("gatemate:cache:invalidations"), message.capture());
+        assertThat(message.getValue()).endsWith(":1,2");
+        assertThat(invalidations.parse(message.getValue())).isNull();
+    }
+
+    @Test
+    @DisplayName("Malformed invalidations are ignored")
+    void whenMalformedMessage_thenIgnore() {
+        assertThat(invalidations.parse("no-separator")).isNull();
+        assertThat(invalidations.parse("other-node:1,x")).isNull();
+    }
+
+    @Test
+    @DisplayName("A failed publish does not fail the write")
+    void whenRedisUnavailable_thenSwallowError() {
+        when(jedis.publish(anyString(), anyString())).thenThrow(new JedisConnectionException("down"));
+
+        assertThatCode(() -> invalidations.publish(List.of(1L))).doesNotThrowAnyException();
+    }
+}
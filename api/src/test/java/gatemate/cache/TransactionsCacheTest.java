@@ -0,0 +1,221 @@
+package gatemate.cache;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gatemate.entities.TransactionStatus;
+import gatemate.entities.Transactions;
+import gatemate.repositories.TransactionView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TransactionsCacheTest {
+
+    private InMemoryCacheBackend backend;
+    private TransactionsCache transactionsCache;
+    private Transactions transaction;
+    private final List<Collection<Long>> published = new ArrayList<>();
+    private Consumer<List<Long>> listener;
+
+    @BeforeEach
+    void setUp() {
+        backend = new InMemoryCacheBackend(100);
+        transactionsCache = new TransactionsCache(backend, nearCache(false, Duration.ofMinutes(1)),
+                new ObjectMapper(), Duration.ofMinutes(5), Duration.ofMinutes(1));
+
+        transaction = new Transactions();
+        transaction.setId(1L);
+        transaction.setUserEmail("FirstUser");
+        transaction.setIataFlight("AA123");
+        transaction.setStatus(TransactionStatus.PAYED);
+    }
+
+    @Test
+    @DisplayName("Cached transaction is returned and counted as a hit")
+    void whenTransactionCached_thenReturnHit() {
+        transactionsCache.putTransaction(transaction);
+
+        assertThat(transactionsCache.getTransaction(1L))
+                .hasValueSatisfying(cached -> {
+                    assertThat(cached.getUserEmail()).isEqualTo("FirstUser");
+                    assertThat(cached.getStatus()).isEqualTo(TransactionStatus.PAYED);
+                });
+        assertThat(transactionsCache.getHits()).isEqualTo(1);
+        assertThat(transactionsCache.getMisses()).isZero();
+    }
+
+    @Test
+    @DisplayName("Missing transaction is counted as a miss")
+    void whenTransactionNotCached_thenReturnMiss() {
+        assertThat(transactionsCache.getTransaction(1L)).isEmpty();
+        assertThat(transactionsCache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Evicted transaction is no longer cached")
+    void whenTransactionEvicted_thenReturnMiss() {
+        transactionsCache.putTransaction(transaction);
+        transactionsCache.evictTransaction(1L);
+
+        assertThat(transactionsCache.getTransaction(1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Cached user transactions are returned until evicted")
+    void whenUserTransactionsCached_thenReturnUntilEvicted() {
+        transactionsCache.putTransactionsByUser("FirstUser",
+                Arrays.asList(new TransactionView(1L, "FirstUser", "AA123", TransactionStatus.PAYED, 0L)));
+
+        assertThat(transactionsCache.getTransactionsByUser("FirstUser")).hasValueSatisfying(
+                cached -> assertThat(cached).extracting(TransactionView::id).containsExactly(1L));
+
+        transactionsCache.evictTransactionsByUser("FirstUser");
+
+        assertThat(transactionsCache.getTransactionsByUser("FirstUser")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Expired entries are not returned")
+    void whenEntryExpired_thenReturnMiss() {
+        transactionsCache = new TransactionsCache(backend, nearCache(false, Duration.ZERO), new ObjectMapper(),
+                Duration.ZERO, Duration.ZERO);
+        transactionsCache.putTransaction(transaction);
+
+        assertThat(transactionsCache.getTransaction(1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("In-memory backend stays within its size bound")
+    void whenBackendFull_thenEvictEntries() {
+        for (long id = 0; id < 250; id++) {
+            backend.set("key:" + id, "value", Duration.ofMinutes(1));
+        }
+
+        assertThat(backend.size()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Hits and misses are exposed as metrics")
+    void whenBoundToRegistry_thenExposeHitsAndMisses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        transactionsCache.bindTo(registry);
+        transactionsCache.putTransaction(transaction);
+        transactionsCache.getTransaction(1L);
+        transactionsCache.getTransaction(2L);
+        transactionsCache.getTransaction(3L);
+
+        assertThat(registry.get("gatemate.cache.requests").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("gatemate.cache.requests").tag("result", "miss").functionCounter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Near cache serves a transaction without reaching the backend")
+    void whenNearCached_thenSkipBackend() {
+        TransactionsNearCache nearCache = nearCache(true, Duration.ofMinutes(1));
+        transactionsCache = new TransactionsCache(backend, nearCache, new ObjectMapper(), Duration.ofMinutes(5),
+                Duration.ofMinutes(1));
+        transactionsCache.putTransaction(transaction);
+        backend.delete(TransactionsCache.transactionKey(1L));
+
+        assertThat(transactionsCache.getTransaction(1L)).hasValue(transaction);
+        assertThat(transactionsCache.getMisses()).isZero();
+        assertThat(nearCache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Missing transaction is cached until it is created")
+    void whenMissingCached_thenReturnMissingUntilEvicted() {
+        TransactionsNearCache nearCache = nearCache(true, Duration.ofMinutes(1));
+        transactionsCache = new TransactionsCache(backend, nearCache, new ObjectMapper(), Duration.ofMinutes(5),
+                Duration.ofMinutes(1));
+        transactionsCache.putMissingTransaction(1L);
+
+        assertThat(transactionsCache.getTransaction(1L)).isEmpty();
+        assertThat(transactionsCache.isTransactionMissing(1L)).isTrue();
+        assertThat(transactionsCache.getMisses()).isZero();
+        assertThat(nearCache.getMissingHits()).isEqualTo(1);
+
+        transactionsCache.evictMissingTransactions(List.of(1L));
+
+        assertThat(transactionsCache.isTransactionMissing(1L)).isFalse();
+        assertThat(published).containsExactly(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Evicting a transaction invalidates it on every node")
+    void whenTransactionEvicted_thenPublishInvalidation() {
+        TransactionsNearCache nearCache = nearCache(true, Duration.ofMinutes(1));
+        transactionsCache = new TransactionsCache(backend, nearCache, new ObjectMapper(), Duration.ofMinutes(5),
+                Duration.ofMinutes(1));
+        transactionsCache.putTransaction(transaction);
+
+        transactionsCache.evictTransactions(List.of(1L, 2L));
+
+        assertThat(transactionsCache.getTransaction(1L)).isEmpty();
+        assertThat(published).containsExactly(List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Another node's invalidation drops the near cache entry")
+    void whenRemoteInvalidation_thenDropEntry() {
+        TransactionsNearCache nearCache = nearCache(true, Duration.ofMinutes(1));
+        nearCache.start();
+        transactionsCache = new TransactionsCache(backend, nearCache, new ObjectMapper(), Duration.ofMinutes(5),
+                Duration.ofMinutes(1));
+        transactionsCache.putTransaction(transaction);
+        backend.delete(TransactionsCache.transactionKey(1L));
+
+        listener.accept(List.of(1L));
+
+        assertThat(transactionsCache.getTransaction(1L)).isEmpty();
+        assertThat(nearCache.getRemoteInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Several transactions are read from both tiers at once")
+    void whenGetTransactions_thenReadNearThenBackend() {
+        TransactionsNearCache nearCache = nearCache(true, Duration.ofMinutes(1));
+        transactionsCache = new TransactionsCache(backend, nearCache, new ObjectMapper(), Duration.ofMinutes(5),
+                Duration.ofMinutes(1));
+        Transactions other = new Transactions();
+        other.setId(2L);
+        other.setUserEmail("SecondUser");
+        transactionsCache.putTransactions(List.of(transaction, other));
+        nearCache.invalidateLocally(List.of(2L));
+        transactionsCache.putMissingTransaction(3L);
+
+        assertThat(transactionsCache.getTransactions(List.of(1L, 2L, 3L, 4L))).containsOnlyKeys(1L, 2L);
+        assertThat(nearCache.getHits()).isEqualTo(2);
+        assertThat(transactionsCache.getHits()).isEqualTo(1);
+        assertThat(transactionsCache.getMisses()).isEqualTo(1);
+        assertThat(transactionsCache.isTransactionMissing(3L)).isTrue();
+    }
+
+    private TransactionsNearCache nearCache(boolean enabled, Duration ttl) {
+        CacheInvalidations invalidations = new CacheInvalidations() {
+            @Override
+            public void publish(Collection<Long> transactionIds) {
+                published.add(List.copyOf(transactionIds));
+            }
+
+            @Override
+            public void subscribe(Consumer<List<Long>> listener, Runnable reset) {
+                TransactionsCacheTest.this.listener = listener;
+            }
+        };
+        return new TransactionsNearCache(invalidations, enabled, 100, ttl, Duration.ofSeconds(1));
+    }
+}
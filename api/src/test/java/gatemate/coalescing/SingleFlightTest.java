@@ -0,0 +1,147 @@
+package gatemate.coalescing;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Concurrent callers for the same key share one load")
+    void whenConcurrentCalls_thenLoadOnce() throws Exception {
+        List<Future<String>> results = callConcurrently(() -> "loaded");
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.getLoads()).isEqualTo(1);
+        assertThat(singleFlight.getCoalesced()).isEqualTo(CALLERS - 1);
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Waiting callers get the loader's exception")
+    void whenLoadFails_thenEveryCallerFails() throws Exception {
+        List<Future<String>> results = callConcurrently(() -> {
+            throw new IllegalStateException("database down");
+        });
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("database down");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("A completed load is not reused")
+    void whenLoadCompleted_thenLoadAgain() {
+        assertThat(singleFlight.execute(1L, () -> "first")).isEqualTo("first");
+        assertThat(singleFlight.execute(1L, () -> "second")).isEqualTo("second");
+        assertThat(singleFlight.getLoads()).isEqualTo(2);
+        assertThat(singleFlight.getCoalesced()).isZero();
+    }
+
+    @Test
+    @DisplayName("A caller after forget starts its own load")
+    void whenForgotten_thenDoNotJoinRunningLoad() throws Exception {
+        Future<String> first = executor.submit(() -> singleFlight.execute(1L, () -> {
+            loading.countDown();
+            await(release);
+            return "before write";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        singleFlight.forget(1L);
+        assertThat(singleFlight.execute(1L, () -> "after write")).isEqualTo("after write");
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("before write");
+        assertThat(singleFlight.getLoads()).isEqualTo(2);
+        assertThat(singleFlight.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("A load that was forgotten while running does not store its value")
+    void whenForgottenDuringLoad_thenSkipStore() throws Exception {
+        List<String> stored = new CopyOnWriteArrayList<>();
+        Future<String> first = executor.submit(() -> singleFlight.execute(1L, () -> {
+            loading.countDown();
+            await(release);
+            return "before write";
+        }, stored::add));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        singleFlight.forget(1L);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("before write");
+        assertThat(singleFlight.execute(1L, () -> "after write", stored::add)).isEqualTo("after write");
+        assertThat(stored).containsExactly("after write");
+        assertThat(singleFlight.getStale()).isEqualTo(1);
+    }
+
+    /**
+     * Starts one caller, holds its load until every other caller has
+     * joined it, then lets it finish.
+     */
+    private List<Future<String>> callConcurrently(Supplier<String> loader) throws Exception {
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return loader.get();
+        })));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int caller = 1; caller < CALLERS; caller++) {
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                return loader.get();
+            })));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getCoalesced() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package gatemate.controllers;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import gatemate.entities.Transactions;
+import gatemate.idempotency.IdempotencyStore;
+import gatemate.ingestion.IngestionBackpressureException;
+import gatemate.ingestion.IngestionStatus;
+import gatemate.ingestion.WriteBehindIngestion;
+import gatemate.services.TransactionsService;
+import gatemate.subscriptions.TransactionSubscriptions;
+import io.restassured.http.ContentType;
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+
+@WebMvcTest(controllers = { TransactionsController.class, IngestionController.class },
+        properties = "gatemate.ingestion.mode=write-behind")
+class IngestionControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TransactionsService transactionsService;
+
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
+    @MockBean
+    private TransactionSubscriptions transactionSubscriptions;
+
+    @MockBean
+    private WriteBehindIngestion writeBehindIngestion;
+
+    @BeforeEach
+    public void setUp() {
+        RestAssuredMockMvc.mockMvc(mockMvc);
+    }
+
+    @Test
+    @DisplayName("Test to create a transaction in write-behind mode")
+    void whenCreateTransactionWriteBehind_thenReturnAccepted() {
+        when(writeBehindIngestion.submit(ArgumentMatchers.any(Transactions.class))).thenReturn(42L);
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("userEmail", "FirstUser", "iataFlight", "AA123", "status", "PAYED"))
+                .when()
+                .post("/create_transaction")
+                .then()
+                .statusCode(202)
+                .header("Location", is("/42"))
+                .body(is("Transaction accepted"));
+
+        verify(transactionsService, never()).createTransaction(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("Test to create a transaction when the ingestion queue is full")
+    void whenIngestionQueueFull_thenReturnServiceUnavailable() {
+        when(writeBehindIngestion.submit(ArgumentMatchers.any(Transactions.class)))
+                .thenThrow(new IngestionBackpressureException("Ingestion queue is full"));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("userEmail", "FirstUser", "iataFlight", "AA123", "status", "PAYED"))
+                .when()
+                .post("/create_transaction")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", is("1"))
+                .body(is("Ingestion queue is full"));
+    }
+
+    @Test
+    @DisplayName("Test to get the ingestion status")
+    void whenGetStatus_thenReturnIngestionLag() {
+        when(writeBehindIngestion.getStatus())
+                .thenReturn(new IngestionStatus(3, 10, 7, 0, 0, 120, 512, Instant.parse("2024-01-01T00:00:00Z")));
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/ingestion/status")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("pending", is(3))
+                .body("flushed", is(7))
+                .body("lagMillis", is(120));
+    }
+}
@@ -0,0 +1,57 @@
+package gatemate.controllers;
+
+import static org.hamcrest.Matchers.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@SpringBootTest(properties = {
+        "gatemate.ratelimit.enabled=true",
+        "gatemate.ratelimit.user.permits-per-second=0.01",
+        "gatemate.ratelimit.user.burst=2"
+})
+class RateLimitIT {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        RestAssuredMockMvc.mockMvc(mockMvc);
+    }
+
+    @Test
+    @DisplayName("Test to reject a user over its rate limit")
+    void whenUserExceedsRate_thenReturnTooManyRequests() {
+        for (int i = 0; i < 2; i++) {
+            RestAssuredMockMvc.given()
+                    .when()
+                    .get("/transactions_by_user/LimitedUser")
+                    .then()
+                    .statusCode(404);
+        }
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/transactions_by_user/LimitedUser")
+                .then()
+                .statusCode(429)
+                .header("Retry-After", not(emptyOrNullString()))
+                .body(is("Rate limit exceeded for user"));
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/transactions_by_user/OtherUser")
+                .then()
+                .statusCode(404);
+    }
+}
@@ -0,0 +1,86 @@
+package gatemate.controllers;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import gatemate.datasource.ReplicaLagMonitor;
+import gatemate.repositories.TransactionsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.restassured.http.ContentType;
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+
+/**
+ * The replica URL points at the primary's in-memory database, so the
+ * replica is always caught up and routing can be checked end to end.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1",
+        "gatemate.datasource.replicas.enabled=true",
+        "gatemate.datasource.replicas.urls=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1"
+})
+class ReplicaRoutingIT {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        replicaLagMonitor.check();
+        RestAssuredMockMvc.mockMvc(mockMvc);
+    }
+
+    @AfterEach
+    void clearDatabase() {
+        transactionsRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Test that a user's reads right after a write go to the primary and others to the replica")
+    void whenReadAfterWrite_thenRouteByStickiness() {
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("userEmail", "StickyUser", "iataFlight", "AA123", "status", "PAYED"))
+                .when()
+                .post("/create_transaction")
+                .then()
+                .statusCode(201);
+
+        double primaryReads = reads("primary");
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/transactions_by_user/StickyUser")
+                .then()
+                .statusCode(200)
+                .body("$.size()", is(1));
+        assertThat(reads("primary")).isGreaterThan(primaryReads);
+
+        double replicaReads = reads("replica");
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/transactions_by_user/OtherUser")
+                .then()
+                .statusCode(404);
+        assertThat(reads("replica")).isGreaterThan(replicaReads);
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("gatemate.datasource.reads").tag("target", target).functionCounter().count();
+    }
+}
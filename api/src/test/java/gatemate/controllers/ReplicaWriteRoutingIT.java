@@ -0,0 +1,90 @@
+package gatemate.controllers;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import gatemate.datasource.ReplicaLagMonitor;
+import gatemate.datasource.ReplicaRouting;
+import gatemate.entities.TransactionStatus;
+import gatemate.entities.Transactions;
+import gatemate.repositories.TransactionsRepository;
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+
+/**
+ * The replica is a separate in-memory database holding a copy of the rows,
+ * with a heartbeat stamped in the future so it always counts as caught up.
+ * A write that lands on it never reaches the primary.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaWriteRoutingIT.PRIMARY_URL,
+        "gatemate.datasource.replicas.enabled=true",
+        "gatemate.datasource.replicas.urls=" + ReplicaWriteRoutingIT.REPLICA_URL
+})
+class ReplicaWriteRoutingIT {
+    static final String PRIMARY_URL = "jdbc:h2:mem:replica-writes-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-writes-replica;DB_CLOSE_DELAY=-1";
+
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @BeforeAll
+    static void createReplica() {
+        Flyway.configure().dataSource(replica.getDataSource()).load().migrate();
+        replica.update("update replica_heartbeat set beat = timestamp '2999-01-01 00:00:00' where id = 1");
+    }
+
+    @BeforeEach
+    void setUp() {
+        replicaLagMonitor.check();
+        RestAssuredMockMvc.mockMvc(mockMvc);
+    }
+
+    @AfterEach
+    void clearDatabase() {
+        transactionsRepository.deleteAll();
+        replica.update("delete from transactions");
+    }
+
+    @Test
+    @DisplayName("Test that a flight status update after a replica read writes to the primary")
+    void whenUpdateFlightStatusAfterReplicaRead_thenWriteToPrimary() {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("ReplicaWriteUser");
+        transaction.setIataFlight("ReplicaWriteFlight");
+        transaction.setStatus(TransactionStatus.PAYED);
+        Long id = transactionsRepository.save(transaction).getId();
+        replica.update("insert into transactions (id, user_email, iata_flight, status) values (?, ?, ?, ?)",
+                id, "ReplicaWriteUser", "ReplicaWriteFlight", TransactionStatus.PAYED.getCode());
+
+        RestAssuredMockMvc.given()
+                .param("status", "CHECKEDIN")
+                .when()
+                .put("/flights/ReplicaWriteFlight/status")
+                .then()
+                .statusCode(200);
+
+        assertThat(ReplicaRouting.onPrimary(() -> transactionsRepository.findById(id)))
+                .hasValueSatisfying(saved -> assertThat(saved.getStatus()).isEqualTo(TransactionStatus.CHECKEDIN));
+        assertThat(replica.queryForObject("select status from transactions where id = ?", Integer.class, id))
+                .isEqualTo((int) TransactionStatus.PAYED.getCode());
+    }
+}
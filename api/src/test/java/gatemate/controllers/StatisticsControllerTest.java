@@ -0,0 +1,126 @@
+package gatemate.controllers;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import gatemate.entities.TransactionStatus;
+import gatemate.statistics.FlightCounters;
+import gatemate.statistics.FlightStatistics;
+import io.restassured.http.ContentType;
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+
+@WebMvcTest(StatisticsController.class)
+class StatisticsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private FlightCounters flightCounters;
+
+    @BeforeEach
+    public void setUp() {
+        RestAssuredMockMvc.mockMvc(mockMvc);
+    }
+
+    @Test
+    @DisplayName("Test to get the counts of a flight")
+    void whenGetFlightStatistics_thenReturnCounts() {
+        when(flightCounters.getFlight("AA123")).thenReturn(statistics("AA123", 2, 1));
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/statistics/flights/AA123")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("iataFlight", is("AA123"))
+                .body("counts.PAYED", is(2))
+                .body("counts.CHECKEDIN", is(1))
+                .body("total", is(3));
+    }
+
+    @Test
+    @DisplayName("Test to get the counts of an unknown flight")
+    void whenGetUnknownFlightStatistics_thenReturnNotFound() {
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/statistics/flights/XX000")
+                .then()
+                .statusCode(404)
+                .body(is("No transactions found for flight: XX000"));
+    }
+
+    @Test
+    @DisplayName("Test to list the top flights of a status")
+    void whenGetTopFlights_thenReturnOrderedFlights() {
+        when(flightCounters.getTopFlights(TransactionStatus.PAYED, 2))
+                .thenReturn(List.of(statistics("AA456", 9, 0), statistics("AA123", 2, 1)));
+
+        RestAssuredMockMvc.given()
+                .param("status", "PAYED")
+                .param("limit", 2)
+                .when()
+                .get("/statistics/flights")
+                .then()
+                .statusCode(200)
+                .body("iataFlight", contains("AA456", "AA123"));
+    }
+
+    @Test
+    @DisplayName("Test to list the top flights with an unknown status")
+    void whenGetTopFlightsWithInvalidStatus_thenReturnBadRequest() {
+        RestAssuredMockMvc.given()
+                .param("status", "BOARDED")
+                .when()
+                .get("/statistics/flights")
+                .then()
+                .statusCode(400)
+                .body(is("Invalid status: BOARDED"));
+
+        verifyNoInteractions(flightCounters);
+    }
+
+    @Test
+    @DisplayName("Test to clamp the number of top flights")
+    void whenGetTooManyTopFlights_thenClampLimit() {
+        when(flightCounters.getTopFlights(null, StatisticsController.MAX_TOP_FLIGHTS)).thenReturn(List.of());
+
+        RestAssuredMockMvc.given()
+                .param("limit", 100000)
+                .when()
+                .get("/statistics/flights")
+                .then()
+                .statusCode(200);
+
+        verify(flightCounters, times(1)).getTopFlights(null, StatisticsController.MAX_TOP_FLIGHTS);
+    }
+
+    @Test
+    @DisplayName("Test to get the totals by status")
+    void whenGetStatusTotals_thenReturnTotals() {
+        when(flightCounters.getTotals()).thenReturn(Map.of(TransactionStatus.PAYED, 5L));
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/statistics/statuses")
+                .then()
+                .statusCode(200)
+                .body("PAYED", is(5));
+    }
+
+    private static FlightStatistics statistics(String iataFlight, long payed, long checkedIn) {
+        return new FlightStatistics(iataFlight,
+                Map.of(TransactionStatus.PAYED, payed, TransactionStatus.CHECKEDIN, checkedIn), payed + checkedIn);
+    }
+}
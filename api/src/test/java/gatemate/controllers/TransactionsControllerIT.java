@@ -1,6 +1,12 @@
 package gatemate.controllers;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,11 +18,25 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 
+import gatemate.entities.TransactionEventType;
 import gatemate.entities.TransactionStatus;
 import gatemate.entities.Transactions;
+import gatemate.outbox.InMemoryTransactionEventSink;
+import gatemate.outbox.OutboxRelay;
+import gatemate.outbox.TransactionEventSink;
+import gatemate.repositories.TransactionView;
 import gatemate.repositories.TransactionsRepository;
+import gatemate.services.TransactionsLookup;
 import gatemate.services.TransactionsService;
+import gatemate.statistics.FlightCounters;
 import io.restassured.http.ContentType;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 
@@ -28,6 +48,12 @@ class TransactionsControllerIT {
     private MockMvc mockMvc;
     @Autowired
     private TransactionsRepository transactionsRepository;
+    @Autowired
+    private OutboxRelay outboxRelay;
+    @Autowired
+    private TransactionEventSink transactionEventSink;
+    @Autowired
+    private FlightCounters flightCounters;
 
     @Mock
     private TransactionsService transactionsService;
@@ -86,6 +112,47 @@ class TransactionsControllerIT {
                 .body(is("No transactions found for user: ThirdUser"));
     }
 
+    @Test
+    @DisplayName("Test to page through transactions by user")
+    void whenFindPageByUser_thenFollowCursorToLastPage() {
+        String nextCursor = RestAssuredMockMvc.given()
+                .queryParam("limit", 1)
+                .when()
+                .get("/transactions_by_user/FirstUser/page")
+                .then()
+                .statusCode(200)
+                .body("items.size()", is(1))
+                .body("nextCursor", notNullValue())
+                .extract().path("nextCursor");
+
+        RestAssuredMockMvc.given()
+                .queryParam("limit", 1)
+                .queryParam("cursor", nextCursor)
+                .when()
+                .get("/transactions_by_user/FirstUser/page")
+                .then()
+                .statusCode(200)
+                .body("items.size()", is(1))
+                .body("items[0].iataFlight", is("SecondFlight"))
+                .body("nextCursor", nullValue());
+    }
+
+    @Test
+    @DisplayName("Test to stream transactions by user as NDJSON")
+    void whenStreamByUser_thenReturnOneLinePerTransaction() throws Exception {
+        MvcResult result = mockMvc.perform(get("/transactions_by_user/FirstUser/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(allOf(
+                        containsString("\"iataFlight\":\"FirstFlight\""),
+                        containsString("\"iataFlight\":\"SecondFlight\""),
+                        endsWith("}\n"))));
+    }
+
     @Test
     @DisplayName("Test to create transaction")
     void whenCreateTransaction_thenReturnCreated() {
@@ -104,6 +171,59 @@ class TransactionsControllerIT {
                 .body(is("Transaction created"));
     }
 
+    @Test
+    @DisplayName("Test to create a batch of transactions")
+    void whenCreateBatch_thenPersistValidTransactions() {
+        RestAssuredMockMvc.given()
+                .contentType("application/x-ndjson")
+                .body("{\"userEmail\":\"BatchUser\",\"iataFlight\":\"AA123\",\"status\":\"PAYED\"}\n"
+                        + "{\"userEmail\":\"BatchUser\"}\n"
+                        + "{\"userEmail\":\"BatchUser\",\"iataFlight\":\"AA456\",\"status\":\"PAYED\"}\n")
+                .when()
+                .post("/transactions/batch")
+                .then()
+                .statusCode(207)
+                .body("$.size()", is(3))
+                .body("[0].outcome", is("CREATED"))
+                .body("[1].outcome", is("REJECTED"))
+                .body("[2].outcome", is("CREATED"));
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/transactions_by_user/BatchUser")
+                .then()
+                .statusCode(200)
+                .body("$.size()", is(2));
+    }
+
+    @Test
+    @DisplayName("Test to retry transaction creation with an idempotency key")
+    void whenRetryCreateTransactionWithIdempotencyKey_thenCreateOnce() {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("RetryUser");
+        transaction.setIataFlight("ThirdFlight");
+        transaction.setStatus(TransactionStatus.PAYED);
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            RestAssuredMockMvc.given()
+                    .contentType(ContentType.JSON)
+                    .header("Idempotency-Key", "retry-key")
+                    .body(transaction)
+                    .when()
+                    .post("/create_transaction")
+                    .then()
+                    .statusCode(201)
+                    .body(is("Transaction created"));
+        }
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/transactions_by_user/RetryUser")
+                .then()
+                .statusCode(200)
+                .body("$.size()", is(1));
+    }
+
     @Test
     @DisplayName("Test to create transaction with invalid data")
     void whenCreateTransactionWithInvalidData_thenReturnBadRequest() {
@@ -126,7 +246,7 @@ class TransactionsControllerIT {
         Transactions transaction = new Transactions();
         transaction.setUserEmail("FirstUser");
         transaction.setIataFlight("FirstFlight");
-        transaction.setStatus(TransactionStatus.CANCELED);
+        transaction.setStatus(TransactionStatus.PAYED);
 
         Transactions savedTransaction = transactionsRepository.save(transaction);
 
@@ -140,6 +260,187 @@ class TransactionsControllerIT {
                 .then()
                 .statusCode(200)
                 .body(is("Transaction updated"));
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/" + savedTransaction.getId())
+                .then()
+                .statusCode(200)
+                .body("status", is("CHECKEDIN"));
+    }
+
+    @Test
+    @DisplayName("Test to update a canceled transaction")
+    void whenUpdateCanceledTransaction_thenReturnConflict() {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("FirstUser");
+        transaction.setIataFlight("FirstFlight");
+        transaction.setStatus(TransactionStatus.CANCELED);
+
+        Transactions savedTransaction = transactionsRepository.save(transaction);
+
+        transaction.setStatus(TransactionStatus.CHECKEDIN);
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(transaction)
+                .when()
+                .put("/update_transaction/" + savedTransaction.getId())
+                .then()
+                .statusCode(409)
+                .body(is("Invalid status transition"));
+    }
+
+    @Test
+    @DisplayName("Test that a status change is relayed as an outbox event")
+    void whenUpdateTransaction_thenPublishStatusChangedEvent() {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("EventUser");
+        transaction.setIataFlight("EventFlight");
+        transaction.setStatus(TransactionStatus.PAYED);
+        Transactions savedTransaction = transactionsRepository.save(transaction);
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(transaction)
+                .when()
+                .put("/update_transaction/" + savedTransaction.getId())
+                .then()
+                .statusCode(200);
+
+        outboxRelay.relay();
+
+        assertThat(((InMemoryTransactionEventSink) transactionEventSink).getEvents())
+                .anySatisfy(event -> {
+                    assertThat(event.getTransactionId()).isEqualTo(savedTransaction.getId());
+                    assertThat(event.getEventType()).isEqualTo(TransactionEventType.STATUS_CHANGED);
+                    assertThat(event.getStatus()).isEqualTo(TransactionStatus.CHECKEDIN);
+                    assertThat(event.getUserEmail()).isEqualTo("EventUser");
+                });
+    }
+
+    @Test
+    @DisplayName("Test that subscribers receive their own transaction updates")
+    void whenSubscribedUserChecksIn_thenPushStatusChangedEvent() throws Exception {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("PushUser");
+        transaction.setIataFlight("PushFlight");
+        transaction.setStatus(TransactionStatus.PAYED);
+        Transactions savedTransaction = transactionsRepository.save(transaction);
+
+        MvcResult subscription = mockMvc.perform(get("/transactions_by_user/PushUser/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(transaction)
+                .when()
+                .put("/update_transaction/" + savedTransaction.getId())
+                .then()
+                .statusCode(200);
+        outboxRelay.relay();
+
+        // Events are written by the subscription sender threads, so wait for the whole event
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!subscription.getResponse().getContentAsString().contains("CHECKEDIN")
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(subscription.getResponse().getContentAsString())
+                .contains("event:status_changed")
+                .contains("\"id\":" + savedTransaction.getId())
+                .contains("\"status\":\"CHECKEDIN\"");
+    }
+
+    @Test
+    @DisplayName("Test that every subscriber of a user receives the same update once")
+    void whenUserHasTwoSubscriptions_thenEachReceivesTheEventOnce() throws Exception {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("TwicePushUser");
+        transaction.setIataFlight("TwicePushFlight");
+        transaction.setStatus(TransactionStatus.PAYED);
+        Transactions savedTransaction = transactionsRepository.save(transaction);
+
+        MvcResult first = mockMvc.perform(get("/transactions_by_user/TwicePushUser/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult second = mockMvc.perform(get("/transactions_by_user/TwicePushUser/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(transaction)
+                .when()
+                .put("/update_transaction/" + savedTransaction.getId())
+                .then()
+                .statusCode(200);
+        outboxRelay.relay();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!(first.getResponse().getContentAsString().contains("CHECKEDIN")
+                && second.getResponse().getContentAsString().contains("CHECKEDIN"))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        for (MvcResult subscription : List.of(first, second)) {
+            String body = subscription.getResponse().getContentAsString();
+            assertThat(body.split("event:status_changed", -1)).hasSize(2);
+            assertThat(body.split("\"status\":\"CHECKEDIN\"", -1)).hasSize(2);
+            assertThat(body).contains("\"id\":" + savedTransaction.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that an ETag is revalidated until the transaction changes")
+    void whenRevalidateTransaction_thenNotModifiedUntilUpdated() {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("ETagUser");
+        transaction.setIataFlight("ETagFlight");
+        transaction.setStatus(TransactionStatus.PAYED);
+        Transactions savedTransaction = transactionsRepository.save(transaction);
+
+        String etag = RestAssuredMockMvc.given()
+                .when()
+                .get("/" + savedTransaction.getId())
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+
+        RestAssuredMockMvc.given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/" + savedTransaction.getId())
+                .then()
+                .statusCode(304);
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", etag)
+                .body(transaction)
+                .when()
+                .put("/update_transaction/" + savedTransaction.getId())
+                .then()
+                .statusCode(200);
+
+        RestAssuredMockMvc.given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/" + savedTransaction.getId())
+                .then()
+                .statusCode(200)
+                .header("ETag", not(etag))
+                .body("status", is("CHECKEDIN"));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", etag)
+                .body(transaction)
+                .when()
+                .put("/update_transaction/" + savedTransaction.getId())
+                .then()
+                .statusCode(412);
     }
 
     @Test
@@ -177,6 +478,19 @@ class TransactionsControllerIT {
                 .body(is("Invalid transaction data"));
     }
 
+    @Test
+    @DisplayName("Test to cancel every transaction of a flight")
+    void whenCancelFlight_thenUpdatePayedTransactions() {
+        RestAssuredMockMvc.given()
+                .queryParam("status", "CANCELED")
+                .when()
+                .put("/flights/FirstFlight/status")
+                .then()
+                .statusCode(200)
+                .body("updated", is(1))
+                .body("statusCounts.CANCELED", is(2));
+    }
+
     @Test
     @DisplayName("Test to get transaction by ID")
     void whenGetTransactionById_thenReturnTransaction() {
@@ -221,4 +535,85 @@ class TransactionsControllerIT {
                 .statusCode(400)
                 .body(is("Invalid transaction ID"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test to follow flight statistics through a create and a check-in")
+    void whenCreateAndCheckIn_thenFlightStatisticsFollow() {
+        flightCounters.reconcile();
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("ThirdUser");
+        transaction.setIataFlight("FirstFlight");
+        transaction.setStatus(TransactionStatus.PAYED);
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(transaction)
+                .when()
+                .post("/create_transaction")
+                .then()
+                .statusCode(201);
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/statistics/flights/FirstFlight")
+                .then()
+                .statusCode(200)
+                .body("counts.PAYED", is(2))
+                .body("counts.CANCELED", is(1))
+                .body("total", is(3));
+
+        RestAssuredMockMvc.given()
+                .queryParam("status", "CHECKEDIN")
+                .when()
+                .put("/flights/FirstFlight/status")
+                .then()
+                .statusCode(200);
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/statistics/flights/FirstFlight")
+                .then()
+                .statusCode(200)
+                .body("counts.PAYED", is(0))
+                .body("counts.CHECKEDIN", is(2));
+    }
+
+    @Test
+    @DisplayName("Test to find all transactions by user as Smile")
+    void whenFindByUserAcceptingSmile_thenReturnSmile() throws Exception {
+        MvcResult result = mockMvc.perform(get("/transactions_by_user/FirstUser")
+                .header(HttpHeaders.ACCEPT, "application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)))
+                .andReturn();
+
+        List<TransactionView> transactions = new SmileMapper().readValue(result.getResponse().getContentAsByteArray(),
+                new TypeReference<List<TransactionView>>() {
+                });
+        assertThat(transactions).hasSize(2)
+                .allSatisfy(transaction -> assertThat(transaction.userEmail()).isEqualTo("FirstUser"));
+        byte[] json = new ObjectMapper().writeValueAsBytes(transactions);
+        assertThat(result.getResponse().getContentAsByteArray()).hasSizeLessThan(json.length);
+    }
+
+    @Test
+    @DisplayName("Test to look up transactions with a CBOR body and response")
+    void whenLookupWithCbor_thenReturnCbor() throws Exception {
+        Long id = transactionsRepository.findAll().get(0).getId();
+        CBORMapper cbor = CBORMapper.builder().findAndAddModules().build();
+
+        MvcResult result = mockMvc.perform(post("/transactions/lookup")
+                .contentType("application/cbor")
+                .accept("application/cbor")
+                .content(cbor.writeValueAsBytes(List.of(id, -1L))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn();
+
+        TransactionsLookup lookup = cbor.readValue(result.getResponse().getContentAsByteArray(),
+                TransactionsLookup.class);
+        assertThat(lookup.found()).containsOnlyKeys(id);
+        assertThat(lookup.missing()).containsExactly(-1L);
+    }
+}
@@ -5,22 +5,48 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import gatemate.entities.TransactionStatus;
 import gatemate.entities.Transactions;
+import gatemate.idempotency.IdempotencyRecord;
+import gatemate.idempotency.IdempotencyStore;
+import gatemate.idempotency.IdempotencyStoreFullException;
+import gatemate.idempotency.IdempotencyStoreUnavailableException;
+import gatemate.repositories.TransactionView;
+import gatemate.services.BatchItemResult;
+import gatemate.services.BatchTooLargeException;
+import gatemate.services.FlightStatusUpdate;
+import gatemate.services.InvalidCursorException;
+import gatemate.services.InvalidStatusTransitionException;
 import gatemate.services.TransactionNotFoundException;
+import gatemate.services.TransactionsLookup;
+import gatemate.services.TransactionsPage;
+import gatemate.repositories.TransactionsVersion;
 import gatemate.services.TransactionsService;
+import gatemate.services.VersionConflictException;
+import gatemate.subscriptions.TooManySubscribersException;
+import gatemate.subscriptions.TransactionSubscriptions;
 import io.restassured.http.ContentType;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 
@@ -32,6 +58,12 @@ class TransactionsControllerTest {
     @MockBean
     private TransactionsService transactionsService;
 
+    @MockBean
+    private IdempotencyStore idempotencyStore;
+
+    @MockBean
+    private TransactionSubscriptions transactionSubscriptions;
+
     @BeforeEach
     public void setUp() {
         RestAssuredMockMvc.mockMvc(mockMvc);
@@ -40,10 +72,8 @@ class TransactionsControllerTest {
     @Test
     @DisplayName("Test to find all transactions by user")
     void whenFindByUser_thenReturnTransactionList() {
-        Transactions transaction1 = new Transactions();
-        transaction1.setUserEmail("FirstUser");
-        Transactions transaction2 = new Transactions();
-        transaction2.setUserEmail("FirstUser");
+        TransactionView transaction1 = new TransactionView(1L, "FirstUser", "AA123", TransactionStatus.PAYED, 0L);
+        TransactionView transaction2 = new TransactionView(2L, "FirstUser", "AA456", TransactionStatus.CHECKEDIN, 0L);
 
         when(transactionsService.getTransactionsByUser("FirstUser"))
                 .thenReturn(Arrays.asList(transaction1, transaction2));
@@ -75,6 +105,297 @@ class TransactionsControllerTest {
         verify(transactionsService, times(1)).getTransactionsByUser("FirstUser");
     }
 
+    @Test
+    @DisplayName("Test to stream all transactions by user as NDJSON")
+    @SuppressWarnings("unchecked")
+    void whenStreamByUser_thenWriteOneJsonLinePerTransaction() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<TransactionView> consumer = invocation.getArgument(1);
+            consumer.accept(new TransactionView(1L, "FirstUser", "AA123", TransactionStatus.PAYED, 0L));
+            consumer.accept(new TransactionView(2L, "FirstUser", "AA456", TransactionStatus.CHECKEDIN, 0L));
+            return null;
+        }).when(transactionsService).streamTransactionsByUser(Mockito.eq("FirstUser"), Mockito.any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/transactions_by_user/FirstUser/stream"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":1"));
+        assertTrue(lines[1].contains("\"status\":\"CHECKEDIN\""));
+    }
+
+    @Test
+    @DisplayName("Test to subscribe to transaction updates by user")
+    void whenSubscribeByUser_thenOpenEventStream() throws Exception {
+        when(transactionSubscriptions.subscribe("FirstUser")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/transactions_by_user/FirstUser/events"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(transactionSubscriptions, times(1)).subscribe("FirstUser");
+    }
+
+    @Test
+    @DisplayName("Test to subscribe to transaction updates when the node is full")
+    void whenSubscribeOverLimit_thenReturnServiceUnavailable() {
+        when(transactionSubscriptions.subscribe("FirstUser"))
+                .thenThrow(new TooManySubscribersException("Subscriber limit of 1 reached"));
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/transactions_by_user/FirstUser/events")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", is("30"));
+    }
+
+    @Test
+    @DisplayName("Test to create a transaction with a new idempotency key")
+    void whenCreateTransactionWithNewIdempotencyKey_thenCreateAndStoreResponse() {
+        when(idempotencyStore.claim("key-1", "FirstUser|AA123|PAYED")).thenReturn(Optional.empty());
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", "key-1")
+                .body(Map.of("userEmail", "FirstUser", "iataFlight", "AA123", "status", "PAYED"))
+                .when()
+                .post("/create_transaction")
+                .then()
+                .statusCode(201);
+
+        verify(transactionsService, times(1)).createTransaction(any());
+        verify(idempotencyStore, times(1)).complete("key-1",
+                new IdempotencyRecord("FirstUser|AA123|PAYED", 201, "Transaction created"));
+    }
+
+    @Test
+    @DisplayName("Test to create a transaction when the idempotency store is full")
+    void whenIdempotencyStoreFull_thenReturnServiceUnavailable() {
+        when(idempotencyStore.claim("key-1", "FirstUser|AA123|PAYED"))
+                .thenThrow(new IdempotencyStoreFullException("Idempotency store holds 100000 keys"));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", "key-1")
+                .body(Map.of("userEmail", "FirstUser", "iataFlight", "AA123", "status", "PAYED"))
+                .when()
+                .post("/create_transaction")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", is("1"));
+
+        verify(transactionsService, never()).createTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Test to create a transaction when the idempotency store is unavailable")
+    void whenIdempotencyStoreUnavailable_thenReturnServiceUnavailable() {
+        when(idempotencyStore.claim("key-1", "FirstUser|AA123|PAYED"))
+                .thenThrow(new IdempotencyStoreUnavailableException("Could not claim idempotency key",
+                        new IllegalStateException("Connection refused")));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", "key-1")
+                .body(Map.of("userEmail", "FirstUser", "iataFlight", "AA123", "status", "PAYED"))
+                .when()
+                .post("/create_transaction")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", is("1"));
+
+        verify(transactionsService, never()).createTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Test to replay a transaction creation with the same idempotency key")
+    void whenCreateTransactionWithUsedIdempotencyKey_thenReplayWithoutCreating() {
+        when(idempotencyStore.claim("key-1", "FirstUser|AA123|PAYED")).thenReturn(
+                Optional.of(new IdempotencyRecord("FirstUser|AA123|PAYED", 201, "Transaction created")));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", "key-1")
+                .body(Map.of("userEmail", "FirstUser", "iataFlight", "AA123", "status", "PAYED"))
+                .when()
+                .post("/create_transaction")
+                .then()
+                .statusCode(201)
+                .header("Idempotent-Replayed", "true")
+                .body(is("Transaction created"));
+
+        verify(transactionsService, never()).createTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Test to create a transaction while the same idempotency key is in progress")
+    void whenCreateTransactionWithPendingIdempotencyKey_thenReturnConflict() {
+        when(idempotencyStore.claim("key-1", "FirstUser|AA123|PAYED"))
+                .thenReturn(Optional.of(new IdempotencyRecord("FirstUser|AA123|PAYED", 0, null)));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", "key-1")
+                .body(Map.of("userEmail", "FirstUser", "iataFlight", "AA123", "status", "PAYED"))
+                .when()
+                .post("/create_transaction")
+                .then()
+                .statusCode(409);
+
+        verify(transactionsService, never()).createTransaction(any());
+    }
+
+    @Test
+    @DisplayName("Test to reuse an idempotency key with different data")
+    void whenCreateTransactionWithReusedIdempotencyKey_thenReturnUnprocessable() {
+        when(idempotencyStore.claim("key-1", "FirstUser|AA456|PAYED")).thenReturn(
+                Optional.of(new IdempotencyRecord("FirstUser|AA123|PAYED", 201, "Transaction created")));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header("Idempotency-Key", "key-1")
+                .body(Map.of("userEmail", "FirstUser", "iataFlight", "AA456", "status", "PAYED"))
+                .when()
+                .post("/create_transaction")
+                .then()
+                .statusCode(422);
+    }
+
+    @Test
+    @DisplayName("Test to find a page of transactions by user")
+    void whenFindPageByUser_thenReturnPage() {
+        TransactionView transaction = new TransactionView(1L, "FirstUser", "AA123", TransactionStatus.PAYED, 0L);
+
+        when(transactionsService.getTransactionsByUser("FirstUser", null, 1))
+                .thenReturn(new TransactionsPage(Arrays.asList(transaction), "next"));
+
+        RestAssuredMockMvc.given()
+                .queryParam("limit", 1)
+                .when()
+                .get("/transactions_by_user/FirstUser/page")
+                .then()
+                .statusCode(200)
+                .contentType(ContentType.JSON)
+                .and()
+                .body("items.size()", is(1))
+                .body("items[0].userEmail", is("FirstUser"))
+                .body("nextCursor", is("next"));
+    }
+
+    @Test
+    @DisplayName("Test to find a page of transactions by user with an invalid cursor")
+    void whenFindPageByUserWithInvalidCursor_thenReturnBadRequest() {
+        when(transactionsService.getTransactionsByUser("FirstUser", "bad", 50))
+                .thenThrow(new InvalidCursorException("Invalid cursor: bad"));
+
+        RestAssuredMockMvc.given()
+                .queryParam("cursor", "bad")
+                .when()
+                .get("/transactions_by_user/FirstUser/page")
+                .then()
+                .statusCode(400)
+                .body(is("Invalid cursor"));
+    }
+
+    @Test
+    @DisplayName("Test to find a page of transactions by user with an invalid page size")
+    void whenFindPageByUserWithInvalidLimit_thenReturnBadRequest() {
+        RestAssuredMockMvc.given()
+                .queryParam("limit", 0)
+                .when()
+                .get("/transactions_by_user/FirstUser/page")
+                .then()
+                .statusCode(400)
+                .body(is("Invalid page size"));
+    }
+
+    @Test
+    @DisplayName("Test to find transactions by user filtered by status")
+    void whenFindByUserAndStatus_thenReturnMatchingTransactions() {
+        TransactionView transaction = new TransactionView(1L, "FirstUser", "AA123", TransactionStatus.PAYED, 0L);
+
+        when(transactionsService.getTransactionsByUser("FirstUser", EnumSet.of(TransactionStatus.PAYED)))
+                .thenReturn(Arrays.asList(transaction));
+
+        RestAssuredMockMvc.given()
+                .queryParam("status", "PAYED")
+                .when()
+                .get("/transactions_by_user/FirstUser")
+                .then()
+                .statusCode(200)
+                .body("size()", is(1))
+                .body("[0].status", is("PAYED"));
+        verify(transactionsService, never()).getTransactionsByUser("FirstUser");
+    }
+
+    @Test
+    @DisplayName("Test to find a page of transactions by user filtered by several statuses")
+    void whenFindPageByUserAndStatuses_thenReturnPage() {
+        TransactionView transaction = new TransactionView(2L, "FirstUser", "AA123", TransactionStatus.CANCELED, 0L);
+
+        when(transactionsService.getTransactionsByUser("FirstUser",
+                EnumSet.of(TransactionStatus.CHECKEDIN, TransactionStatus.CANCELED), null, 50))
+                .thenReturn(new TransactionsPage(Arrays.asList(transaction), null));
+
+        RestAssuredMockMvc.given()
+                .queryParam("status", "CHECKEDIN,CANCELED")
+                .when()
+                .get("/transactions_by_user/FirstUser/page")
+                .then()
+                .statusCode(200)
+                .body("items[0].status", is("CANCELED"));
+    }
+
+    @Test
+    @DisplayName("Test to find transactions by user with an unknown status")
+    void whenFindByUserWithUnknownStatus_thenReturnBadRequest() {
+        RestAssuredMockMvc.given()
+                .queryParam("status", "BOARDED")
+                .when()
+                .get("/transactions_by_user/FirstUser")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    @DisplayName("Test to find a page of transactions by flight and status")
+    void whenFindPageByFlightAndStatus_thenReturnPage() {
+        TransactionView transaction = new TransactionView(1L, "FirstUser", "AA123", TransactionStatus.PAYED, 0L);
+
+        when(transactionsService.getTransactionsByFlight("AA123", EnumSet.of(TransactionStatus.PAYED), null, 50))
+                .thenReturn(new TransactionsPage(Arrays.asList(transaction), null));
+
+        RestAssuredMockMvc.given()
+                .queryParam("status", "PAYED")
+                .when()
+                .get("/flights/AA123/transactions")
+                .then()
+                .statusCode(200)
+                .body("items[0].iataFlight", is("AA123"));
+    }
+
+    @Test
+    @DisplayName("Test to find a page of transactions by flight without a status filter")
+    void whenFindPageByFlight_thenQueryWithoutStatus() {
+        when(transactionsService.getTransactionsByFlight("AA123", null, 50))
+                .thenReturn(new TransactionsPage(List.of(), null));
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/flights/AA123/transactions")
+                .then()
+                .statusCode(200)
+                .body("items.size()", is(0));
+    }
+
     @Test
     @DisplayName("Test to create a transaction")
     void whenCreateTransaction_thenReturnTransactionCreated() {
@@ -138,6 +459,96 @@ class TransactionsControllerTest {
                 .statusCode(400); // Expecting 400 Bad Request due to missing data
     }
 
+    @Test
+    @DisplayName("Test to create a batch of transactions")
+    void whenCreateBatch_thenReturnCreated() {
+        when(transactionsService.createTransactions(anyList()))
+                .thenReturn(List.of(new BatchItemResult(0, 1L, BatchItemResult.Outcome.CREATED, null)));
+
+        Map<String, Object> transactionBody = new HashMap<>();
+        transactionBody.put("userEmail", "FirstUser");
+        transactionBody.put("iataFlight", "AA123");
+        transactionBody.put("status", "PAYED");
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(List.of(transactionBody))
+                .when()
+                .post("/transactions/batch")
+                .then()
+                .statusCode(201)
+                .body("[0].id", is(1))
+                .body("[0].outcome", is("CREATED"));
+    }
+
+    @Test
+    @DisplayName("Test to create a batch of transactions from NDJSON with a malformed line")
+    @SuppressWarnings("unchecked")
+    void whenCreateBatchFromNdjson_thenReportEachLine() {
+        when(transactionsService.createTransactions(anyList()))
+                .thenReturn(List.of(new BatchItemResult(0, 1L, BatchItemResult.Outcome.CREATED, null),
+                        new BatchItemResult(1, null, BatchItemResult.Outcome.REJECTED, "Invalid transaction data")));
+
+        RestAssuredMockMvc.given()
+                .contentType("application/x-ndjson")
+                .body("{\"userEmail\":\"FirstUser\",\"iataFlight\":\"AA123\",\"status\":\"PAYED\"}\n{not json\n")
+                .when()
+                .post("/transactions/batch")
+                .then()
+                .statusCode(207)
+                .body("[1].outcome", is("REJECTED"));
+
+        ArgumentCaptor<List<Transactions>> argumentCaptor = ArgumentCaptor.forClass(List.class);
+        verify(transactionsService, times(1)).createTransactions(argumentCaptor.capture());
+        assertEquals(2, argumentCaptor.getValue().size());
+        assertEquals("AA123", argumentCaptor.getValue().get(0).getIataFlight());
+        assertNull(argumentCaptor.getValue().get(1));
+    }
+
+    @Test
+    @DisplayName("Test to reject an oversized NDJSON batch before it reaches the service")
+    void whenCreateOversizedBatchFromNdjson_thenReturnPayloadTooLarge() {
+        String line = "{\"userEmail\":\"FirstUser\",\"iataFlight\":\"AA123\",\"status\":\"PAYED\"}\n";
+
+        RestAssuredMockMvc.given()
+                .contentType("application/x-ndjson")
+                .body(line.repeat(1001))
+                .when()
+                .post("/transactions/batch")
+                .then()
+                .statusCode(413)
+                .body(is("Batch exceeds 1000 transactions"));
+
+        verify(transactionsService, never()).createTransactions(anyList());
+    }
+
+    @Test
+    @DisplayName("Test to create an empty batch of transactions")
+    void whenCreateEmptyBatch_thenReturnBadRequest() {
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body("[]")
+                .when()
+                .post("/transactions/batch")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    @DisplayName("Test to create an oversized batch of transactions")
+    void whenCreateOversizedBatch_thenReturnPayloadTooLarge() {
+        when(transactionsService.createTransactions(anyList()))
+                .thenThrow(new BatchTooLargeException("Batch exceeds 1000 transactions"));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body("[{}]")
+                .when()
+                .post("/transactions/batch")
+                .then()
+                .statusCode(413);
+    }
+
     @Test
     @DisplayName("Test to update a transaction")
     void whenUpdateTransaction_thenReturnTransactionUpdated() {
@@ -189,6 +600,27 @@ class TransactionsControllerTest {
         verify(transactionsService, times(1)).updateTransaction(999L);
     }
 
+    @Test
+    @DisplayName("Test to update a transaction with a status that cannot be checked in")
+    void whenUpdateTransactionWithInvalidTransition_thenReturnConflict() {
+        doThrow(new InvalidStatusTransitionException("Transaction 1 cannot move to CHECKEDIN"))
+                .when(transactionsService).updateTransaction(1L);
+
+        Map<String, Object> transactionBody = new HashMap<>();
+        transactionBody.put("userEmail", "FirstUser");
+        transactionBody.put("iataFlight", "AA123");
+        transactionBody.put("status", "CHECKEDIN");
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(transactionBody)
+                .when()
+                .put("/update_transaction/1")
+                .then()
+                .statusCode(409)
+                .body(is("Invalid status transition"));
+    }
+
     @Test
     @DisplayName("Test to update a transaction with missing data")
     void whenUpdateTransactionWithMissingData_thenReturnBadRequest() {
@@ -205,6 +637,52 @@ class TransactionsControllerTest {
                 .statusCode(400); // Expecting 400 Bad Request due to missing data
     }
 
+    @Test
+    @DisplayName("Test to check in every transaction of a flight")
+    void whenUpdateFlightStatus_thenReturnCounts() {
+        Map<TransactionStatus, Long> statusCounts = new EnumMap<>(TransactionStatus.class);
+        statusCounts.put(TransactionStatus.CHECKEDIN, 3L);
+        when(transactionsService.updateFlightStatus("AA123", TransactionStatus.CHECKEDIN))
+                .thenReturn(new FlightStatusUpdate("AA123", TransactionStatus.CHECKEDIN, 2, statusCounts));
+
+        RestAssuredMockMvc.given()
+                .queryParam("status", "CHECKEDIN")
+                .when()
+                .put("/flights/AA123/status")
+                .then()
+                .statusCode(200)
+                .body("updated", is(2))
+                .body("statusCounts.CHECKEDIN", is(3));
+    }
+
+    @Test
+    @DisplayName("Test to move a flight to an invalid status")
+    void whenUpdateFlightStatusToPayed_thenReturnBadRequest() {
+        when(transactionsService.updateFlightStatus("AA123", TransactionStatus.PAYED))
+                .thenThrow(new InvalidStatusTransitionException("No transaction can move to PAYED"));
+
+        RestAssuredMockMvc.given()
+                .queryParam("status", "PAYED")
+                .when()
+                .put("/flights/AA123/status")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    @DisplayName("Test to update the status of a flight without transactions")
+    void whenUpdateUnknownFlightStatus_thenReturnNotFound() {
+        when(transactionsService.updateFlightStatus("XX000", TransactionStatus.CANCELED))
+                .thenThrow(new TransactionNotFoundException("No transactions found for flight: XX000"));
+
+        RestAssuredMockMvc.given()
+                .queryParam("status", "CANCELED")
+                .when()
+                .put("/flights/XX000/status")
+                .then()
+                .statusCode(404);
+    }
+
     @Test
     @DisplayName("Test to get a transaction by ID")
     void whenGetTransactionById_thenReturnTransaction() {
@@ -231,6 +709,188 @@ class TransactionsControllerTest {
         verify(transactionsService, times(1)).getTransaction(1L);
     }
 
+    @Test
+    @DisplayName("Test that a transaction is returned with its ETag")
+    void whenGetTransactionById_thenReturnETag() {
+        Transactions transaction = new Transactions();
+        transaction.setId(1L);
+        transaction.setVersion(3L);
+
+        when(transactionsService.getTransaction(1L)).thenReturn(transaction);
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/1")
+                .then()
+                .statusCode(200)
+                .header("ETag", is("W/\"1-3\""));
+    }
+
+    @Test
+    @DisplayName("Test to get an unchanged transaction with If-None-Match")
+    void whenGetUnchangedTransaction_thenReturnNotModified() {
+        when(transactionsService.getTransactionVersion(1L)).thenReturn(Optional.of(3L));
+
+        RestAssuredMockMvc.given()
+                .header("If-None-Match", "W/\"1-3\"")
+                .when()
+                .get("/1")
+                .then()
+                .statusCode(304)
+                .header("ETag", is("W/\"1-3\""));
+
+        verify(transactionsService, never()).getTransaction(1L);
+    }
+
+    @Test
+    @DisplayName("Test to get a changed transaction with If-None-Match")
+    void whenGetChangedTransaction_thenReturnTransaction() {
+        Transactions transaction = new Transactions();
+        transaction.setId(1L);
+        transaction.setVersion(4L);
+
+        when(transactionsService.getTransactionVersion(1L)).thenReturn(Optional.of(4L));
+        when(transactionsService.getTransaction(1L)).thenReturn(transaction);
+
+        RestAssuredMockMvc.given()
+                .header("If-None-Match", "W/\"1-3\"")
+                .when()
+                .get("/1")
+                .then()
+                .statusCode(200)
+                .header("ETag", is("W/\"1-4\""));
+    }
+
+    @Test
+    @DisplayName("Test to get an unchanged transaction list with If-None-Match")
+    void whenGetUnchangedTransactionsByUser_thenReturnNotModified() {
+        when(transactionsService.getTransactionsByUserVersion("FirstUser"))
+                .thenReturn(new TransactionsVersion(2, 2L, 1L));
+
+        RestAssuredMockMvc.given()
+                .header("If-None-Match", "W/\"2-2-1\"")
+                .when()
+                .get("/transactions_by_user/FirstUser")
+                .then()
+                .statusCode(304);
+
+        verify(transactionsService, never()).getTransactionsByUser("FirstUser");
+    }
+
+    @Test
+    @DisplayName("Test that a transaction list is returned with its ETag")
+    void whenGetTransactionsByUser_thenReturnListETag() {
+        when(transactionsService.getTransactionsByUser("FirstUser")).thenReturn(Arrays.asList(
+                new TransactionView(1L, "FirstUser", "AA123", TransactionStatus.PAYED, 0L),
+                new TransactionView(2L, "FirstUser", "AA456", TransactionStatus.CHECKEDIN, 1L)));
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/transactions_by_user/FirstUser")
+                .then()
+                .statusCode(200)
+                .header("ETag", is("W/\"2-2-1\""));
+    }
+
+    @Test
+    @DisplayName("Test to update a transaction with a current If-Match version")
+    void whenUpdateTransactionWithIfMatch_thenUpdateAtVersion() {
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "W/\"1-3\"")
+                .body(Map.of("userEmail", "FirstUser", "iataFlight", "AA123", "status", "CHECKEDIN"))
+                .when()
+                .put("/update_transaction/1")
+                .then()
+                .statusCode(200);
+
+        verify(transactionsService, times(1)).updateTransaction(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Test to update a transaction with a stale If-Match version")
+    void whenUpdateTransactionWithStaleIfMatch_thenReturnPreconditionFailed() {
+        doThrow(new VersionConflictException("Transaction 1 is no longer at version 3"))
+                .when(transactionsService).updateTransaction(1L, 3L);
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "\"1-3\"")
+                .body(Map.of("userEmail", "FirstUser", "iataFlight", "AA123", "status", "CHECKEDIN"))
+                .when()
+                .put("/update_transaction/1")
+                .then()
+                .statusCode(412)
+                .body(is("Transaction was modified"));
+    }
+
+    @Test
+    @DisplayName("Test to update a transaction with an If-Match for another transaction")
+    void whenUpdateTransactionWithForeignIfMatch_thenReturnPreconditionFailed() {
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "W/\"2-3\"")
+                .body(Map.of("userEmail", "FirstUser", "iataFlight", "AA123", "status", "CHECKEDIN"))
+                .when()
+                .put("/update_transaction/1")
+                .then()
+                .statusCode(412);
+
+        verify(transactionsService, never()).updateTransaction(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("Test to look up several transactions in one call")
+    void whenLookupTransactions_thenReturnFoundAndMissing() {
+        Transactions transaction = new Transactions();
+        transaction.setId(1L);
+        transaction.setUserEmail("FirstUser");
+        transaction.setIataFlight("AA123");
+        transaction.setStatus(TransactionStatus.PAYED);
+
+        when(transactionsService.getTransactions(List.of(1L, 2L)))
+                .thenReturn(new TransactionsLookup(Map.of(1L, transaction), List.of(2L)));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body("[1, 2]")
+                .when()
+                .post("/transactions/lookup")
+                .then()
+                .statusCode(200)
+                .body("found.1.userEmail", is("FirstUser"))
+                .body("missing", contains(2));
+    }
+
+    @Test
+    @DisplayName("Test to look up transactions with a null ID")
+    void whenLookupNullId_thenReturnBadRequest() {
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body("[1, null]")
+                .when()
+                .post("/transactions/lookup")
+                .then()
+                .statusCode(400)
+                .body(is("Invalid transaction IDs"));
+    }
+
+    @Test
+    @DisplayName("Test to look up too many transactions")
+    void whenLookupTooManyIds_thenReturnPayloadTooLarge() {
+        when(transactionsService.getTransactions(anyList()))
+                .thenThrow(new BatchTooLargeException("Lookup exceeds 500 ids"));
+
+        RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body("[1, 2, 3]")
+                .when()
+                .post("/transactions/lookup")
+                .then()
+                .statusCode(413)
+                .body(is("Lookup exceeds 500 ids"));
+    }
+
     @Test
     @DisplayName("Test to get a transaction by ID with invalid ID")
     void whenGetTransactionByInvalidId_thenReturnBadRequest() {
@@ -0,0 +1,70 @@
+package gatemate.controllers;
+
+import static org.hamcrest.Matchers.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import gatemate.ingestion.WriteBehindIngestion;
+import io.restassured.http.ContentType;
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@SpringBootTest(properties = { "gatemate.ingestion.mode=write-behind",
+        "gatemate.ingestion.log-dir=target/ingestion-it", "gatemate.ingestion.fsync=false" })
+class WriteBehindIngestionIT {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WriteBehindIngestion writeBehindIngestion;
+
+    @BeforeEach
+    void setUp() {
+        RestAssuredMockMvc.mockMvc(mockMvc);
+    }
+
+    @Test
+    @DisplayName("Test that an accepted transaction is written in the background")
+    void whenCreateTransaction_thenAcceptAndFlushToDatabase() throws InterruptedException {
+        String location = RestAssuredMockMvc.given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("userEmail", "IngestedUser", "iataFlight", "AA123", "status", "PAYED"))
+                .when()
+                .post("/create_transaction")
+                .then()
+                .statusCode(202)
+                .body(is("Transaction accepted"))
+                .extract().header("Location");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (writeBehindIngestion.getStatus().pending() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get("/ingestion/status")
+                .then()
+                .statusCode(200)
+                .body("pending", is(0))
+                .body("flushed", greaterThanOrEqualTo(1))
+                .body("logBytes", is(0));
+
+        RestAssuredMockMvc.given()
+                .when()
+                .get(location)
+                .then()
+                .statusCode(200)
+                .body("userEmail", is("IngestedUser"));
+    }
+}
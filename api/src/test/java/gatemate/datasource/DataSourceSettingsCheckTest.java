@@ -0,0 +1,104 @@
+package gatemate.datasource;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.zaxxer.hikari.HikariConfig;
+
+class DataSourceSettingsCheckTest {
+
+    private MockEnvironment environment;
+    private DataSourceSettingsCheck settingsCheck;
+    private HikariConfig pool;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment();
+        settingsCheck = new DataSourceSettingsCheck(mock(DataSource.class), environment);
+        pool = new HikariConfig();
+        pool.setJdbcUrl("jdbc:h2:mem:gatemate");
+        pool.setMaximumPoolSize(10);
+        pool.setMinimumIdle(10);
+    }
+
+    @Test
+    @DisplayName("A fixed-size pool within the request threads passes")
+    void whenDefaults_thenNoWarnings() {
+        assertThat(settingsCheck.check(pool)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A pool larger than the request threads is reported")
+    void whenPoolExceedsRequestThreads_thenWarn() {
+        environment.setProperty("server.tomcat.threads.max", "8");
+
+        assertThat(settingsCheck.check(pool)).singleElement().asString()
+                .contains("maximum-pool-size 10 exceeds server.tomcat.threads.max 8");
+    }
+
+    @Test
+    @DisplayName("Connection limit permits above the pool size are reported")
+    void whenPermitsExceedPool_thenWarn() {
+        environment.setProperty("spring.threads.virtual.enabled", "true");
+        environment.setProperty("gatemate.datasource.connection-limit.enabled", "true");
+        environment.setProperty("gatemate.datasource.connection-limit.permits", "20");
+
+        assertThat(settingsCheck.check(pool)).singleElement().asString()
+                .contains("permits 20 exceeds maximum-pool-size 10");
+    }
+
+    @Test
+    @DisplayName("Virtual threads without a connection limit are reported")
+    void whenVirtualThreadsWithoutLimit_thenWarn() {
+        environment.setProperty("spring.threads.virtual.enabled", "true");
+
+        assertThat(settingsCheck.check(pool)).singleElement().asString()
+                .contains("without gatemate.datasource.connection-limit");
+    }
+
+    @Test
+    @DisplayName("A pool that shrinks when idle is reported")
+    void whenMinimumIdleBelowPoolSize_thenWarn() {
+        pool.setMinimumIdle(2);
+
+        assertThat(settingsCheck.check(pool)).singleElement().asString().contains("minimum-idle 2");
+    }
+
+    @Test
+    @DisplayName("Missing MySQL driver properties are reported")
+    void whenMySqlWithoutDriverProperties_thenWarn() {
+        pool.setJdbcUrl("jdbc:mysql://localhost:3306/gatemate?rewriteBatchedStatements=true");
+        pool.addDataSourceProperty("cachePrepStmts", "true");
+
+        assertThat(settingsCheck.check(pool)).hasSize(2)
+                .anySatisfy(warning -> assertThat(warning).startsWith("useServerPrepStmts"))
+                .anySatisfy(warning -> assertThat(warning).startsWith("useCursorFetch"));
+    }
+
+    @Test
+    @DisplayName("The mysql profile passes the check")
+    void whenMySqlProfile_thenNoWarnings() throws IOException {
+        Properties profile = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application-mysql.properties"));
+        profile.stringPropertyNames().forEach(name -> environment.setProperty(name, profile.getProperty(name)));
+        String prefix = "spring.datasource.hikari.data-source-properties.";
+        pool.setJdbcUrl("jdbc:mysql://localhost:3306/gatemate");
+        pool.setMaximumPoolSize(Integer.parseInt(profile.getProperty("spring.datasource.hikari.maximum-pool-size")));
+        pool.setMinimumIdle(Integer.parseInt(profile.getProperty("spring.datasource.hikari.minimum-idle")));
+        profile.stringPropertyNames().stream().filter(name -> name.startsWith(prefix))
+                .forEach(name -> pool.addDataSourceProperty(name.substring(prefix.length()), profile.getProperty(name)));
+
+        assertThat(settingsCheck.check(pool)).isEmpty();
+    }
+}
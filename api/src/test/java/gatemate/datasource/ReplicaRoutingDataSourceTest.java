@@ -0,0 +1,139 @@
+package gatemate.datasource;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private ReplicaRoutingDataSource routingDataSource;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica));
+        lagMonitor = new ReplicaLagMonitor(primary, List.of(replica), routingDataSource, Duration.ofSeconds(2));
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    @DisplayName("Replicas stay out of rotation until their lag has been measured")
+    void whenLagUnknown_thenReadFromPrimary() {
+        assertThat(readOnlyNode()).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Read-only transactions go to a caught-up replica and writes to the primary")
+    void whenReplicaCaughtUp_thenRouteReadsToReplica() {
+        beat(replicaJdbc, Duration.ofSeconds(1));
+        lagMonitor.check();
+
+        assertThat(readOnlyNode()).isEqualTo("replica");
+        assertThat(readWriteNode()).isEqualTo("primary");
+        assertThat(node()).isEqualTo("primary");
+        assertThat(primaryJdbc.queryForObject(ReplicaLagMonitor.READ_SQL, Timestamp.class))
+                .isAfter(Timestamp.from(Instant.now().minusSeconds(1)));
+        assertThat(lagMonitor.getLagSeconds(0)).isCloseTo(1.0, within(0.5));
+        assertThat(routingDataSource.getReplicaReads()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A replica that falls behind is skipped until it catches up")
+    void whenReplicaLags_thenFallBackToPrimary() {
+        beat(replicaJdbc, Duration.ofSeconds(5));
+        lagMonitor.check();
+
+        assertThat(routingDataSource.isAvailable(0)).isFalse();
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        replicaJdbc.update(ReplicaLagMonitor.BEAT_SQL);
+        lagMonitor.check();
+
+        assertThat(readOnlyNode()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Reads of a key written moments ago go to the primary")
+    void whenKeyRecentlyWritten_thenReadFromPrimary() {
+        replicaJdbc.update(ReplicaLagMonitor.BEAT_SQL);
+        lagMonitor.check();
+        ReplicaRouting replicaRouting = new ReplicaRouting();
+        ReflectionTestUtils.setField(replicaRouting, "enabled", true);
+
+        replicaRouting.markWritten(ReplicaRouting.userKey("FirstUser"));
+
+        assertThat(replicaRouting.read(ReplicaRouting.userKey("FirstUser"), this::readOnlyNode))
+                .isEqualTo("primary");
+        assertThat(replicaRouting.read(ReplicaRouting.userKey("SecondUser"), this::readOnlyNode))
+                .isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Without replica routing, reads are not redirected")
+    void whenRoutingDisabled_thenPassThrough() {
+        ReplicaRouting replicaRouting = new ReplicaRouting();
+
+        replicaRouting.markWritten(ReplicaRouting.userKey("FirstUser"));
+
+        assertThat(replicaRouting.read(ReplicaRouting.userKey("FirstUser"), ReplicaRouting::isPrimaryRequired))
+                .isFalse();
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> node());
+    }
+
+    private String readWriteNode() {
+        return readWrite.execute(status -> node());
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static void beat(JdbcTemplate jdbc, Duration ago) {
+        jdbc.update("update replica_heartbeat set beat = ? where id = 1", Timestamp.from(Instant.now().minus(ago)));
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table node (name varchar(16))");
+        jdbc.update("insert into node (name) values (?)", name);
+        jdbc.execute("create table replica_heartbeat (id tinyint primary key, beat timestamp(3) not null)");
+        jdbc.update("insert into replica_heartbeat (id, beat) values (1, '2000-01-01 00:00:00')");
+        return dataSource;
+    }
+}
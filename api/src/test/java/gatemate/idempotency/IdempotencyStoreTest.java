@@ -0,0 +1,99 @@
+package gatemate.idempotency;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gatemate.cache.InMemoryCacheBackend;
+import gatemate.cache.RedisCacheBackend;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.params.SetParams;
+
+class IdempotencyStoreTest {
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(new InMemoryCacheBackend(), 2, new ObjectMapper(),
+                Duration.ofMinutes(1), Duration.ofSeconds(30));
+    }
+
+    @Test
+    @DisplayName("First claim of a key is granted")
+    void whenClaimNewKey_thenReturnEmpty() {
+        assertThat(idempotencyStore.claim("key-1", "fingerprint")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Claiming an in-flight key returns the pending record")
+    void whenClaimPendingKey_thenReturnPendingRecord() {
+        idempotencyStore.claim("key-1", "fingerprint");
+
+        assertThat(idempotencyStore.claim("key-1", "fingerprint"))
+                .hasValueSatisfying(record -> assertThat(record.isPending()).isTrue());
+    }
+
+    @Test
+    @DisplayName("Claiming a completed key returns the stored response")
+    void whenClaimCompletedKey_thenReturnStoredResponse() {
+        idempotencyStore.claim("key-1", "fingerprint");
+        idempotencyStore.complete("key-1", new IdempotencyRecord("fingerprint", 201, "Transaction created"));
+
+        assertThat(idempotencyStore.claim("key-1", "fingerprint"))
+                .contains(new IdempotencyRecord("fingerprint", 201, "Transaction created"));
+    }
+
+    @Test
+    @DisplayName("Released keys can be claimed again")
+    void whenKeyReleased_thenClaimAgain() {
+        idempotencyStore.claim("key-1", "fingerprint");
+        idempotencyStore.release("key-1");
+
+        assertThat(idempotencyStore.claim("key-1", "fingerprint")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A full store refuses new keys instead of evicting live ones")
+    void whenStoreFull_thenRefuseNewKeysAndKeepExisting() {
+        idempotencyStore.claim("key-1", "fingerprint");
+        idempotencyStore.claim("key-2", "fingerprint");
+
+        assertThatThrownBy(() -> idempotencyStore.claim("key-3", "fingerprint"))
+                .isInstanceOf(IdempotencyStoreFullException.class);
+        assertThat(idempotencyStore.claim("key-1", "fingerprint"))
+                .hasValueSatisfying(record -> assertThat(record.isPending()).isTrue());
+    }
+
+    @Test
+    @DisplayName("A full store takes new keys again once a key is released")
+    void whenKeyReleasedFromFullStore_thenClaimNewKey() {
+        idempotencyStore.claim("key-1", "fingerprint");
+        idempotencyStore.claim("key-2", "fingerprint");
+        idempotencyStore.release("key-1");
+
+        assertThat(idempotencyStore.claim("key-3", "fingerprint")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A claim fails instead of being granted when Redis cannot be reached")
+    void whenRedisUnavailable_thenRefuseClaim() {
+        JedisPooled jedis = mock(JedisPooled.class);
+        when(jedis.set(anyString(), anyString(), any(SetParams.class)))
+                .thenThrow(new JedisConnectionException("Connection refused"));
+        IdempotencyStore redisStore = new IdempotencyStore(new RedisCacheBackend(jedis), 2, new ObjectMapper(),
+                Duration.ofMinutes(1), Duration.ofSeconds(30));
+
+        assertThatThrownBy(() -> redisStore.claim("key-1", "fingerprint"))
+                .isInstanceOf(IdempotencyStoreUnavailableException.class);
+    }
+}
@@ -0,0 +1,121 @@
+package gatemate.ingestion;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IngestionLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Appended records are read back after reopening")
+    void whenReopenLog_thenReturnUncommittedRecords() throws IOException {
+        try (IngestionLog log = new IngestionLog(directory, true)) {
+            log.append(bytes("first"));
+            log.append(bytes("second"));
+            log.sync();
+        }
+
+        try (IngestionLog log = new IngestionLog(directory, true)) {
+            assertThat(log.readUncommitted())
+                    .extracting(entry -> new String(entry.payload(), StandardCharsets.UTF_8))
+                    .containsExactly("first", "second");
+        }
+    }
+
+    @Test
+    @DisplayName("Committed records are not replayed")
+    void whenCommitOffset_thenSkipCommittedRecords() throws IOException {
+        try (IngestionLog log = new IngestionLog(directory, false)) {
+            long first = log.append(bytes("first"));
+            log.append(bytes("second"));
+            log.commit(first);
+        }
+
+        try (IngestionLog log = new IngestionLog(directory, false)) {
+            assertThat(log.readUncommitted())
+                    .extracting(entry -> new String(entry.payload(), StandardCharsets.UTF_8))
+                    .containsExactly("second");
+        }
+    }
+
+    @Test
+    @DisplayName("Committing the whole log empties it")
+    void whenCommitEverything_thenTruncateLog() throws IOException {
+        try (IngestionLog log = new IngestionLog(directory, false)) {
+            log.append(bytes("first"));
+            long last = log.append(bytes("second"));
+            log.commit(last);
+
+            assertThat(log.size()).isZero();
+            assertThat(log.readUncommitted()).isEmpty();
+
+            log.append(bytes("third"));
+            assertThat(log.readUncommitted()).hasSize(1);
+        }
+    }
+
+    @Test
+    @DisplayName("A torn record at the end of the log is dropped")
+    void whenLastRecordIsTorn_thenDropIt() throws IOException {
+        long end;
+        try (IngestionLog log = new IngestionLog(directory, false)) {
+            end = log.append(bytes("first"));
+        }
+        Files.write(directory.resolve("transactions.log"), new byte[] { 0, 0, 0, 42, 1, 2 },
+                StandardOpenOption.APPEND);
+
+        try (IngestionLog log = new IngestionLog(directory, false)) {
+            assertThat(log.readUncommitted()).hasSize(1);
+            assertThat(log.size()).isEqualTo(end);
+        }
+    }
+
+    @Test
+    @DisplayName("Records appended by concurrent callers are all on disk once each sync returns")
+    void whenSyncConcurrently_thenKeepEveryRecord() throws Exception {
+        try (IngestionLog log = new IngestionLog(directory, true)) {
+            List<Callable<Long>> appends = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String value = "record-" + i;
+                appends.add(() -> {
+                    long end = log.append(bytes(value));
+                    log.sync();
+                    return end;
+                });
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                for (Future<Long> end : executor.invokeAll(appends)) {
+                    assertThat(end.get()).isPositive();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        try (IngestionLog log = new IngestionLog(directory, true)) {
+            assertThat(log.readUncommitted()).hasSize(20);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
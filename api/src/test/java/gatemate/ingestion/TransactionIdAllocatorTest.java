@@ -0,0 +1,68 @@
+package gatemate.ingestion;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import gatemate.entities.Transactions;
+
+@DataJpaTest
+class TransactionIdAllocatorTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Allocated ids are consecutive within a block and do not collide with JPA ids")
+    void whenAllocateIds_thenJpaUsesADifferentBlock() {
+        TransactionIdAllocator allocator = new TransactionIdAllocator(jdbcTemplate, transactionManager, 3);
+
+        long first = allocator.nextId();
+        assertThat(allocator.nextId()).isEqualTo(first + 1);
+        assertThat(allocator.nextId()).isEqualTo(first + 2);
+
+        Transactions transaction = new Transactions();
+        entityManager.persistAndFlush(transaction);
+
+        assertThat(transaction.getId()).isNotIn(first, first + 1, first + 2);
+        assertThat(allocator.nextId()).isNotEqualTo(transaction.getId());
+    }
+
+    @Test
+    @DisplayName("The next block is reserved in the background before the current one runs out")
+    void whenHalfOfBlockUsed_thenReserveNextBlock() throws InterruptedException {
+        try (TransactionIdAllocator allocator = new TransactionIdAllocator(jdbcTemplate, transactionManager, 4)) {
+            long first = allocator.nextId();
+            long reservedUpTo = nextValue();
+            allocator.nextId();
+            allocator.nextId();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (nextValue() == reservedUpTo && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(nextValue()).isGreaterThan(reservedUpTo);
+            assertThat(allocator.nextId()).isEqualTo(first + 3);
+            assertThat(allocator.nextId()).isGreaterThanOrEqualTo(reservedUpTo);
+        }
+    }
+
+    private long nextValue() {
+        return jdbcTemplate.queryForObject("select next_val from id_generators where sequence_name = 'transactions'",
+                Long.class);
+    }
+}
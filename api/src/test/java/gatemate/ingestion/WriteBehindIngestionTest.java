@@ -0,0 +1,191 @@
+package gatemate.ingestion;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import gatemate.cache.TransactionsCache;
+import gatemate.datasource.ReplicaRouting;
+import gatemate.entities.TransactionStatus;
+import gatemate.entities.Transactions;
+import gatemate.metrics.TransactionMetrics;
+import gatemate.repositories.TransactionEventsRepository;
+import gatemate.statistics.FlightCounters;
+
+class WriteBehindIngestionTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TransactionIdAllocator idAllocator = mock(TransactionIdAllocator.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionEventsRepository transactionEventsRepository = mock(TransactionEventsRepository.class);
+    private final TransactionsCache transactionsCache = mock(TransactionsCache.class);
+    private final TransactionMetrics transactionMetrics = mock(TransactionMetrics.class);
+    private final FlightCounters flightCounters = mock(FlightCounters.class);
+
+    private IngestionLog log;
+    private WriteBehindIngestion ingestion;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        log = new IngestionLog(directory, false);
+        ingestion = new WriteBehindIngestion(log, idAllocator, jdbcTemplate, TransactionOperations.withoutTransaction(),
+                transactionEventsRepository, transactionsCache, transactionMetrics, flightCounters, new ReplicaRouting(),
+                objectMapper, 2, 10);
+        when(idAllocator.nextId()).thenReturn(1L, 2L, 3L);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        log.close();
+    }
+
+    @Test
+    @DisplayName("Submitted transactions get an id and are logged before being written")
+    void whenSubmit_thenAssignIdAndAppendToLog() throws IOException {
+        assertThat(ingestion.submit(transaction("FirstUser"))).isEqualTo(1L);
+
+        assertThat(log.readUncommitted()).hasSize(1);
+        assertThat(ingestion.getStatus().pending()).isEqualTo(1);
+        assertThat(ingestion.getStatus().accepted()).isEqualTo(1);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Submitting past the pending limit is rejected")
+    void whenQueueFull_thenThrowBackpressure() {
+        ingestion.submit(transaction("FirstUser"));
+        ingestion.submit(transaction("FirstUser"));
+
+        assertThatThrownBy(() -> ingestion.submit(transaction("FirstUser")))
+                .isInstanceOf(IngestionBackpressureException.class);
+    }
+
+    @Test
+    @DisplayName("Flushing a batch inserts it, moves the checkpoint and evicts the user cache")
+    @SuppressWarnings("unchecked")
+    void whenFlush_thenInsertBatchAndCommitLog() throws IOException {
+        List<WriteBehindIngestion.Pending> batch = Arrays.asList(
+                pending(1L, "FirstUser", log.append(objectMapper.writeValueAsBytes(record(1L, "FirstUser")))),
+                pending(2L, "SecondUser", log.append(objectMapper.writeValueAsBytes(record(2L, "SecondUser")))));
+
+        ingestion.flush(batch, false);
+
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(WriteBehindIngestion.INSERT_SQL), any(Collection.class),
+                eq(2), any());
+        verify(transactionEventsRepository, times(1)).recordCreated(List.of(1L, 2L));
+        assertThat(log.readUncommitted()).isEmpty();
+        verify(transactionsCache, times(1)).evictTransactionsByUser("FirstUser");
+        verify(transactionsCache, times(1)).evictTransactionsByUser("SecondUser");
+        verify(transactionMetrics, times(1)).recordCreated(TransactionStatus.PAYED, 2L);
+        verify(flightCounters, times(2)).recordCreated("AA123", TransactionStatus.PAYED, 1);
+        assertThat(ingestion.getStatus().flushed()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Replay skips rows that reached the database before the crash")
+    @SuppressWarnings("unchecked")
+    void whenReplay_thenInsertOnlyMissingRows() throws IOException {
+        log.append(objectMapper.writeValueAsBytes(record(1L, "FirstUser")));
+        log.append(objectMapper.writeValueAsBytes(record(2L, "FirstUser")));
+        when(jdbcTemplate.queryForList(startsWith("select id from transactions"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(1L));
+
+        ingestion.replay(ingestion.readLog());
+
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(WriteBehindIngestion.INSERT_SQL), any(Collection.class),
+                eq(1), any());
+        verify(transactionEventsRepository, times(1)).recordCreated(List.of(2L));
+        assertThat(log.readUncommitted()).isEmpty();
+        assertThat(ingestion.getStatus().flushed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Transactions that do not fit the table are refused before they are logged")
+    void whenSubmitTooLong_thenRejectWithoutLogging() throws IOException {
+        assertThatThrownBy(() -> ingestion.submit(transaction("x".repeat(Transactions.MAX_TEXT_LENGTH + 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(log.readUncommitted()).isEmpty();
+        verifyNoInteractions(idAllocator);
+    }
+
+    @Test
+    @DisplayName("A batch the database rejects is written row by row and the bad row is dead-lettered")
+    @SuppressWarnings("unchecked")
+    void whenBatchRejected_thenWriteRowsAndDeadLetterTheRest() throws IOException {
+        List<WriteBehindIngestion.Pending> batch = Arrays.asList(
+                pending(1L, "FirstUser", log.append(objectMapper.writeValueAsBytes(record(1L, "FirstUser")))),
+                pending(2L, "SecondUser", log.append(objectMapper.writeValueAsBytes(record(2L, "SecondUser")))));
+        when(jdbcTemplate.batchUpdate(eq(WriteBehindIngestion.INSERT_SQL), any(Collection.class), anyInt(), any()))
+                .thenThrow(new DataIntegrityViolationException("value too long"))
+                .thenReturn(new int[][] { { 1 } })
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+
+        assertThat(ingestion.write(batch, false)).isTrue();
+
+        verify(transactionEventsRepository, times(1)).recordCreated(List.of(1L));
+        assertThat(log.readUncommitted()).isEmpty();
+        assertThat(ingestion.getStatus().flushed()).isEqualTo(1);
+        assertThat(ingestion.getStatus().deadLettered()).isEqualTo(1);
+        assertThat(Files.readAllLines(directory.resolve("transactions.dead-letter.jsonl"))).singleElement()
+                .asString().contains("value too long").contains("SecondUser");
+    }
+
+    @Test
+    @DisplayName("Startup does not wait for the replay when the database is down")
+    @SuppressWarnings("unchecked")
+    void whenDatabaseDownOnStartup_thenStartAndKeepLog() throws Exception {
+        log.append(objectMapper.writeValueAsBytes(record(1L, "FirstUser")));
+        when(jdbcTemplate.batchUpdate(eq(WriteBehindIngestion.INSERT_SQL), any(Collection.class), anyInt(), any()))
+                .thenThrow(new CannotGetJdbcConnectionException("database down"));
+        ReflectionTestUtils.setField(ingestion, "shutdownTimeout", Duration.ofMillis(100));
+
+        assertThatCode(ingestion::start).doesNotThrowAnyException();
+        ingestion.stop();
+
+        assertThat(ingestion.getStatus().deadLettered()).isZero();
+        try (IngestionLog reopened = new IngestionLog(directory, false)) {
+            assertThat(reopened.readUncommitted()).hasSize(1);
+        }
+    }
+
+    private static Transactions transaction(String userEmail) {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail(userEmail);
+        transaction.setIataFlight("AA123");
+        transaction.setStatus(TransactionStatus.PAYED);
+        return transaction;
+    }
+
+    private static IngestionRecord record(long id, String userEmail) {
+        return new IngestionRecord(id, userEmail, "AA123", TransactionStatus.PAYED, System.currentTimeMillis());
+    }
+
+    private static WriteBehindIngestion.Pending pending(long id, String userEmail, long end) {
+        return new WriteBehindIngestion.Pending(record(id, userEmail), end);
+    }
+}
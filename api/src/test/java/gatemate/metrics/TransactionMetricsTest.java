@@ -0,0 +1,51 @@
+package gatemate.metrics;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import gatemate.entities.TransactionStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TransactionMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionMetrics transactionMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transactionMetrics = new TransactionMetrics(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Created transactions are counted as transitions from NEW")
+    void whenRecordCreated_thenCountFromNew() {
+        transactionMetrics.recordCreated(TransactionStatus.PAYED, 1);
+        transactionMetrics.recordCreated(TransactionStatus.PAYED, 2);
+
+        assertThat(meterRegistry.get(TransactionMetrics.STATUS_TRANSITIONS)
+                .tag("from", "NEW").tag("to", "PAYED").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Status transitions are counted per source and target")
+    void whenRecordTransition_thenCountPerStatusPair() {
+        transactionMetrics.recordTransition(EnumSet.of(TransactionStatus.PAYED), TransactionStatus.CANCELED, 4);
+
+        assertThat(meterRegistry.get(TransactionMetrics.STATUS_TRANSITIONS)
+                .tag("from", "PAYED").tag("to", "CANCELED").counter().count()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Empty transitions are not recorded")
+    void whenRecordNoTransition_thenRegisterNothing() {
+        transactionMetrics.recordTransition(EnumSet.of(TransactionStatus.PAYED), TransactionStatus.CANCELED, 0);
+
+        assertThat(meterRegistry.find(TransactionMetrics.STATUS_TRANSITIONS).counters()).isEmpty();
+    }
+}
@@ -0,0 +1,82 @@
+package gatemate.outbox;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionOperations;
+
+import gatemate.entities.TransactionEvent;
+import gatemate.entities.TransactionEventType;
+import gatemate.repositories.TransactionEventsRepository;
+
+class OutboxRelayTest {
+
+    private final TransactionEventsRepository transactionEventsRepository = mock(TransactionEventsRepository.class);
+
+    @Test
+    @DisplayName("Relayed events are published and then deleted from the outbox")
+    void whenRelay_thenPublishAndDeleteEvents() {
+        InMemoryTransactionEventSink sink = new InMemoryTransactionEventSink(10);
+        OutboxRelay relay = new OutboxRelay(transactionEventsRepository, sink,
+                TransactionOperations.withoutTransaction());
+        when(transactionEventsRepository.findLockedByOrderByIdAsc(any(Limit.class)))
+                .thenReturn(List.of(event(1L), event(2L)))
+                .thenReturn(List.of());
+
+        relay.relay();
+
+        assertThat(sink.getEvents()).extracting(TransactionEvent::getId).containsExactly(1L, 2L);
+        verify(transactionEventsRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Events stay in the outbox when the sink fails")
+    void whenSinkFails_thenKeepEvents() {
+        TransactionEventSink sink = mock(TransactionEventSink.class);
+        OutboxRelay relay = new OutboxRelay(transactionEventsRepository, sink,
+                TransactionOperations.withoutTransaction());
+        when(transactionEventsRepository.findLockedByOrderByIdAsc(any(Limit.class))).thenReturn(List.of(event(1L)));
+        doThrow(new IllegalStateException("sink down")).when(sink).publish(anyList());
+
+        relay.relay();
+
+        verify(transactionEventsRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    @DisplayName("The in-memory sink keeps only the most recent events")
+    void whenInMemorySinkFull_thenDropOldestEvents() {
+        InMemoryTransactionEventSink sink = new InMemoryTransactionEventSink(2);
+
+        sink.publish(List.of(event(1L), event(2L), event(3L)));
+
+        assertThat(sink.getEvents()).extracting(TransactionEvent::getId).containsExactly(2L, 3L);
+    }
+
+    @Test
+    @DisplayName("The in-memory sink hands published events to its subscribers")
+    void whenInMemorySinkPublishes_thenNotifySubscribers() {
+        InMemoryTransactionEventSink sink = new InMemoryTransactionEventSink(10);
+        List<TransactionEvent> received = new ArrayList<>();
+        sink.subscribe(received::addAll);
+
+        sink.publish(List.of(event(1L), event(2L)));
+
+        assertThat(received).extracting(TransactionEvent::getId).containsExactly(1L, 2L);
+    }
+
+    private static TransactionEvent event(Long id) {
+        TransactionEvent event = new TransactionEvent();
+        event.setId(id);
+        event.setTransactionId(id);
+        event.setEventType(TransactionEventType.CREATED);
+        return event;
+    }
+}
@@ -0,0 +1,81 @@
+package gatemate.outbox;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionOperations;
+
+import gatemate.entities.TransactionEvent;
+import gatemate.entities.TransactionEventType;
+import gatemate.entities.TransactionStatus;
+import gatemate.repositories.TransactionEventsRepository;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+class RedisStreamTransactionEventSinkTest {
+
+    @Test
+    @DisplayName("Stream entries read by other nodes carry the whole event")
+    void whenReadEntry_thenRestoreEvent() {
+        TransactionEvent event = new TransactionEvent();
+        event.setId(7L);
+        event.setTransactionId(3L);
+        event.setEventType(TransactionEventType.STATUS_CHANGED);
+        event.setUserEmail("FirstUser");
+        event.setIataFlight("AA123");
+        event.setStatus(TransactionStatus.CHECKEDIN);
+        event.setVersion(2L);
+        event.setCreatedAt(Instant.parse("2024-05-01T10:15:30Z"));
+
+        TransactionEvent read = RedisStreamTransactionEventSink.event(RedisStreamTransactionEventSink.fields(event));
+
+        assertThat(read).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Malformed stream entries are ignored")
+    void whenMalformedEntry_thenIgnore() {
+        assertThat(RedisStreamTransactionEventSink.event(Map.of("eventId", "x"))).isNull();
+    }
+
+    @Test
+    @DisplayName("A rejected append keeps the batch in the outbox")
+    void whenAppendRejected_thenKeepEvents() {
+        JedisPooled jedis = mock(JedisPooled.class);
+        Pipeline pipeline = mock(Pipeline.class);
+        when(jedis.pipelined()).thenReturn(pipeline);
+        when(pipeline.syncAndReturnAll())
+                .thenReturn(List.of("1-0", new JedisDataException("OOM command not allowed")));
+        RedisStreamTransactionEventSink sink = new RedisStreamTransactionEventSink(jedis, "events", 1000,
+                Duration.ofSeconds(1));
+        TransactionEventsRepository transactionEventsRepository = mock(TransactionEventsRepository.class);
+        when(transactionEventsRepository.findLockedByOrderByIdAsc(any(Limit.class)))
+                .thenReturn(List.of(event(1L), event(2L)));
+        OutboxRelay relay = new OutboxRelay(transactionEventsRepository, sink,
+                TransactionOperations.withoutTransaction());
+
+        assertThatThrownBy(() -> sink.publish(List.of(event(1L), event(2L))))
+                .isInstanceOf(JedisDataException.class);
+        relay.relay();
+
+        verify(transactionEventsRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    private static TransactionEvent event(Long id) {
+        TransactionEvent event = new TransactionEvent();
+        event.setId(id);
+        event.setTransactionId(id);
+        event.setEventType(TransactionEventType.CREATED);
+        return event;
+    }
+}
@@ -0,0 +1,143 @@
+package gatemate.ratelimit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import gatemate.ratelimit.LoadShedder.Admission;
+import jakarta.servlet.DispatcherType;
+
+class AdmissionInterceptorTest {
+
+    private final RateLimiter clientRateLimiter = mock(RateLimiter.class);
+    private final RateLimiter userRateLimiter = mock(RateLimiter.class);
+    private final LoadShedder loadShedder = mock(LoadShedder.class);
+    private final AdmissionInterceptor interceptor = new AdmissionInterceptor(clientRateLimiter, userRateLimiter,
+            loadShedder, "X-Api-Client", List.of("10.0.0.1"));
+
+    @Test
+    @DisplayName("Admitted requests hold a permit until they complete")
+    void whenAdmitted_thenReleaseOnCompletion() throws Exception {
+        MockHttpServletRequest request = userRequest("FirstUser");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("X-Api-Client", "checkin-kiosk");
+        when(loadShedder.tryAdmit()).thenReturn(Admission.ADMITTED);
+
+        assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), null)).isTrue();
+        verify(clientRateLimiter).tryAcquire("checkin-kiosk");
+        verify(userRateLimiter).tryAcquire("FirstUser");
+
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        verify(loadShedder, times(1)).release();
+    }
+
+    @Test
+    @DisplayName("Clients without the header are keyed by remote address")
+    void whenNoClientHeader_thenUseRemoteAddress() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/1");
+        request.setRemoteAddr("10.0.0.7");
+        when(loadShedder.tryAdmit()).thenReturn(Admission.ADMITTED);
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        verify(clientRateLimiter).tryAcquire("10.0.0.7");
+        verifyNoInteractions(userRateLimiter);
+    }
+
+    @Test
+    @DisplayName("The client header is ignored unless the request comes from a trusted proxy")
+    void whenClientHeaderFromUntrustedAddress_thenUseRemoteAddress() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/1");
+        request.setRemoteAddr("10.0.0.7");
+        request.addHeader("X-Api-Client", "someone-else");
+        when(loadShedder.tryAdmit()).thenReturn(Admission.ADMITTED);
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        verify(clientRateLimiter).tryAcquire("10.0.0.7");
+    }
+
+    @Test
+    @DisplayName("Authenticated clients are keyed by their principal")
+    void whenAuthenticated_thenUsePrincipal() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/1");
+        request.setRemoteAddr("10.0.0.7");
+        request.setUserPrincipal(() -> "checkin-kiosk");
+        when(loadShedder.tryAdmit()).thenReturn(Admission.ADMITTED);
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        verify(clientRateLimiter).tryAcquire("checkin-kiosk");
+    }
+
+    @Test
+    @DisplayName("Error dispatches of an admitted request are not charged again")
+    void whenErrorDispatch_thenSkipAdmission() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/error");
+        request.setDispatcherType(DispatcherType.ERROR);
+
+        assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), null)).isTrue();
+
+        verifyNoInteractions(clientRateLimiter, userRateLimiter, loadShedder);
+    }
+
+    @Test
+    @DisplayName("A user over its rate gets 429 with Retry-After")
+    void whenUserRateExceeded_thenTooManyRequests() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(userRateLimiter.tryAcquire("FirstUser")).thenReturn(1500L);
+
+        assertThat(interceptor.preHandle(userRequest("FirstUser"), response, null)).isFalse();
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(response.getContentAsString()).isEqualTo("Rate limit exceeded for user");
+        assertThat(interceptor.getUserRejected()).isEqualTo(1);
+        verifyNoInteractions(loadShedder);
+    }
+
+    @Test
+    @DisplayName("An overloaded node sheds the request with 503")
+    void whenOverloaded_thenServiceUnavailable() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(loadShedder.tryAdmit()).thenReturn(Admission.OVERLOADED);
+
+        assertThat(interceptor.preHandle(userRequest("FirstUser"), response, null)).isFalse();
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(interceptor.getShed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Async requests return their permit when handling goes async and are not charged again")
+    void whenAsync_thenReleaseOnceAndSkipRedispatch() throws Exception {
+        MockHttpServletRequest request = userRequest("FirstUser");
+        when(loadShedder.tryAdmit()).thenReturn(Admission.ADMITTED);
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        interceptor.afterConcurrentHandlingStarted(request, new MockHttpServletResponse(), null);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), null)).isTrue();
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        verify(loadShedder, times(1)).tryAdmit();
+        verify(loadShedder, times(1)).release();
+        verify(userRateLimiter, times(1)).tryAcquire("FirstUser");
+    }
+
+    private static MockHttpServletRequest userRequest(String userEmail) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/transactions_by_user/" + userEmail);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("userEmail", userEmail));
+        return request;
+    }
+}
@@ -0,0 +1,47 @@
+package gatemate.ratelimit;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import gatemate.ratelimit.LoadShedder.Admission;
+
+class LoadShedderTest {
+
+    @Test
+    @DisplayName("Requests are admitted while permits are free")
+    void whenPermitsFree_thenAdmit() {
+        LoadShedder shedder = new LoadShedder(2, Duration.ofMillis(10), Duration.ofMillis(5), Duration.ofMillis(50));
+
+        assertThat(shedder.tryAdmit()).isEqualTo(Admission.ADMITTED);
+        assertThat(shedder.tryAdmit()).isEqualTo(Admission.ADMITTED);
+        assertThat(shedder.getInFlight()).isEqualTo(2);
+
+        shedder.release();
+        assertThat(shedder.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A standing queue makes waiting requests fail fast until it drains")
+    void whenQueueStands_thenShedUntilDrained() throws InterruptedException {
+        LoadShedder shedder = new LoadShedder(1, Duration.ofMillis(20), Duration.ofMillis(5), Duration.ofMillis(50));
+        assertThat(shedder.tryAdmit()).isEqualTo(Admission.ADMITTED);
+        Thread.sleep(60);
+
+        assertThat(shedder.tryAdmit()).isEqualTo(Admission.TIMED_OUT);
+        Thread.sleep(60);
+
+        assertThat(shedder.isOverloaded()).isTrue();
+        long start = System.nanoTime();
+        assertThat(shedder.tryAdmit()).isEqualTo(Admission.OVERLOADED);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(20));
+
+        shedder.release();
+        assertThat(shedder.tryAdmit()).isEqualTo(Admission.ADMITTED);
+        Thread.sleep(60);
+        assertThat(shedder.isOverloaded()).isFalse();
+    }
+}
@@ -0,0 +1,57 @@
+package gatemate.ratelimit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+class RedisRateLimiterTest {
+
+    private final JedisPooled jedis = mock(JedisPooled.class);
+    private final RedisRateLimiter limiter = new RedisRateLimiter(jedis, "gatemate:ratelimit:user:", 10, 3);
+
+    @Test
+    @DisplayName("The script runs by its digest against the prefixed key")
+    void whenAllowed_thenReturnZero() {
+        when(jedis.evalsha(anyString(), anyList(), anyList())).thenReturn(0L);
+
+        assertThat(limiter.tryAcquire("FirstUser")).isZero();
+        verify(jedis).evalsha(anyString(), eq(List.of("gatemate:ratelimit:user:FirstUser")),
+                eq(List.of("100000", "200000")));
+    }
+
+    @Test
+    @DisplayName("The wait returned by the script is converted to milliseconds")
+    void whenRejected_thenReturnWaitInMillis() {
+        when(jedis.evalsha(anyString(), anyList(), anyList())).thenReturn(250_000L);
+
+        assertThat(limiter.tryAcquire("FirstUser")).isEqualTo(250);
+    }
+
+    @Test
+    @DisplayName("The script is sent in full when Redis does not have it cached")
+    void whenScriptMissing_thenEvalScript() {
+        when(jedis.evalsha(anyString(), anyList(), anyList())).thenThrow(new JedisNoScriptException("NOSCRIPT"));
+        when(jedis.eval(eq(RedisRateLimiter.SCRIPT), anyList(), anyList())).thenReturn(0L);
+
+        assertThat(limiter.tryAcquire("FirstUser")).isZero();
+        verify(jedis).eval(eq(RedisRateLimiter.SCRIPT), anyList(), anyList());
+    }
+
+    @Test
+    @DisplayName("Requests are allowed when Redis is unavailable")
+    void whenRedisDown_thenAllowAndCountError() {
+        when(jedis.evalsha(anyString(), anyList(), anyList())).thenThrow(new JedisConnectionException("down"));
+
+        assertThat(limiter.tryAcquire("FirstUser")).isZero();
+        assertThat(limiter.getErrors()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,76 @@
+package gatemate.ratelimit;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    @DisplayName("A full bucket allows a burst and then rejects with the time to the next token")
+    void whenBurstExhausted_thenRejectUntilRefill() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 3, 100, Duration.ofMinutes(1), clock::get);
+
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isEqualTo(100);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Each key has its own bucket")
+    void whenDifferentKeys_thenIndependentBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 100, Duration.ofMinutes(1), clock::get);
+
+        assertThat(limiter.tryAcquire("FirstUser")).isZero();
+        assertThat(limiter.tryAcquire("FirstUser")).isPositive();
+        assertThat(limiter.tryAcquire("SecondUser")).isZero();
+    }
+
+    @Test
+    @DisplayName("Buckets that stay idle are dropped")
+    void whenBucketsIdle_thenEvictThem() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 1, 100, Duration.ofSeconds(1), clock::get);
+        limiter.tryAcquire("FirstUser");
+        limiter.tryAcquire("SecondUser");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        limiter.tryAcquire("ThirdUser");
+
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Buckets are kept until they could have refilled, even with a short evict interval")
+    void whenEvictIntervalShorterThanRefill_thenKeepBucket() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 100, Duration.ofMillis(1), clock::get);
+        assertThat(limiter.tryAcquire("FirstUser")).isZero();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertThat(limiter.tryAcquire("FirstUser")).isPositive();
+    }
+
+    @Test
+    @DisplayName("The number of buckets is capped")
+    void whenMaxKeysReached_thenEvict() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 2, Duration.ofMinutes(1), clock::get);
+
+        limiter.tryAcquire("FirstUser");
+        limiter.tryAcquire("SecondUser");
+        limiter.tryAcquire("ThirdUser");
+
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+}
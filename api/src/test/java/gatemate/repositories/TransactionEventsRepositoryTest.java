@@ -0,0 +1,99 @@
+package gatemate.repositories;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import gatemate.entities.TransactionEvent;
+import gatemate.entities.TransactionEventType;
+import gatemate.entities.TransactionStatus;
+import gatemate.entities.Transactions;
+
+@DataJpaTest
+class TransactionEventsRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionEventsRepository transactionEventsRepository;
+
+    @Test
+    @DisplayName("Record creation events from the transaction rows")
+    void whenRecordCreated_thenCopyTransactionData() {
+        Transactions transaction = transaction("FirstUser", TransactionStatus.PAYED);
+        entityManager.persistAndFlush(transaction);
+
+        assertThat(transactionEventsRepository.recordCreated(List.of(transaction.getId()))).isEqualTo(1);
+
+        assertThat(transactionEventsRepository.findByOrderByIdAsc(Limit.of(10)))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getTransactionId()).isEqualTo(transaction.getId());
+                    assertThat(event.getEventType()).isEqualTo(TransactionEventType.CREATED);
+                    assertThat(event.getUserEmail()).isEqualTo("FirstUser");
+                    assertThat(event.getIataFlight()).isEqualTo("AA123");
+                    assertThat(event.getStatus()).isEqualTo(TransactionStatus.PAYED);
+                    assertThat(event.getCreatedAt()).isNotNull();
+                });
+    }
+
+    @Test
+    @DisplayName("Record status change events only for rows in the new status")
+    void whenRecordStatusChanged_thenSkipRowsInOtherStatus() {
+        Transactions checkedIn = transaction("FirstUser", TransactionStatus.CHECKEDIN);
+        Transactions canceled = transaction("SecondUser", TransactionStatus.CANCELED);
+        entityManager.persistAndFlush(checkedIn);
+        entityManager.persistAndFlush(canceled);
+
+        transactionEventsRepository.recordStatusChanged(List.of(checkedIn.getId(), canceled.getId()),
+                TransactionStatus.CHECKEDIN);
+
+        assertThat(transactionEventsRepository.findByOrderByIdAsc(Limit.of(10)))
+                .extracting(TransactionEvent::getTransactionId)
+                .containsExactly(checkedIn.getId());
+    }
+
+    @Test
+    @DisplayName("Claim the oldest events with a skip-locked read")
+    void whenFindLocked_thenReturnOldestEvents() {
+        Transactions first = transaction("FirstUser", TransactionStatus.PAYED);
+        Transactions second = transaction("SecondUser", TransactionStatus.PAYED);
+        entityManager.persistAndFlush(first);
+        entityManager.persistAndFlush(second);
+        transactionEventsRepository.recordCreated(List.of(first.getId(), second.getId()));
+
+        assertThat(transactionEventsRepository.findLockedByOrderByIdAsc(Limit.of(1)))
+                .extracting(TransactionEvent::getTransactionId)
+                .containsExactly(first.getId());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Events cannot be recorded outside the writing transaction")
+    void whenRecordOutsideTransaction_thenThrowException() {
+        Throwable thrown = catchThrowable(() -> transactionEventsRepository.recordCreated(List.of(1L)));
+
+        assertThat(thrown).isInstanceOfAny(IllegalTransactionStateException.class,
+                InvalidDataAccessApiUsageException.class);
+    }
+
+    private static Transactions transaction(String userEmail, TransactionStatus status) {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail(userEmail);
+        transaction.setIataFlight("AA123");
+        transaction.setStatus(status);
+        return transaction;
+    }
+}
@@ -2,12 +2,19 @@ package gatemate.repositories;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Stream;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import gatemate.entities.TransactionStatus;
 import gatemate.entities.Transactions;
 
 @DataJpaTest
@@ -19,6 +26,9 @@ class TransactionsRepositoryTest {
     @Autowired
     private TransactionsRepository transactionsRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     @DisplayName("Find transaction by id")
     void whenFindTransactionByExistingId_thenReturnTransaction() {
@@ -116,6 +126,171 @@ class TransactionsRepositoryTest {
         assertThat(transactionsRepository.findByIataFlight("InvalidFlight")).isEmpty();
     }
 
+    @Test
+    @DisplayName("Find transactions by user after a keyset position")
+    void givenSetOfTransactions_whenFindByUserAfterId_thenReturnNextPage() {
+        Transactions transaction1 = new Transactions();
+        transaction1.setUserEmail("FirstUser");
+        Transactions transaction2 = new Transactions();
+        transaction2.setUserEmail("FirstUser");
+        Transactions transaction3 = new Transactions();
+        transaction3.setUserEmail("FirstUser");
+        Transactions transaction4 = new Transactions();
+        transaction4.setUserEmail("SecondUser");
+
+        entityManager.persistAndFlush(transaction1);
+        entityManager.persistAndFlush(transaction2);
+        entityManager.persistAndFlush(transaction3);
+        entityManager.persistAndFlush(transaction4);
+
+        assertThat(transactionsRepository.findViewsByUserEmailAfter("FirstUser", transaction1.getId(), Limit.of(1)))
+                .extracting(TransactionView::id)
+                .containsExactly(transaction2.getId());
+    }
+
+    @Test
+    @DisplayName("Find transaction views by user")
+    void givenSetOfTransactions_whenFindViewsByUser_thenReturnProjectedRows() {
+        Transactions transaction1 = new Transactions();
+        transaction1.setUserEmail("FirstUser");
+        transaction1.setIataFlight("AA123");
+        transaction1.setStatus(TransactionStatus.PAYED);
+        Transactions transaction2 = new Transactions();
+        transaction2.setUserEmail("SecondUser");
+
+        entityManager.persistAndFlush(transaction1);
+        entityManager.persistAndFlush(transaction2);
+
+        assertThat(transactionsRepository.findViewsByUserEmail("FirstUser"))
+                .containsExactly(new TransactionView(transaction1.getId(), "FirstUser", "AA123", TransactionStatus.PAYED, 0L));
+    }
+
+    @Test
+    @DisplayName("Status is stored as its one-byte code")
+    void whenSaveTransaction_thenStoreStatusCode() {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("FirstUser");
+        transaction.setStatus(TransactionStatus.CANCELED);
+        entityManager.persistAndFlush(transaction);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM transactions WHERE id = ?", Integer.class,
+                transaction.getId())).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Find transaction views by user and status")
+    void givenSetOfTransactions_whenFindViewsByUserAndStatus_thenReturnMatchingRows() {
+        Transactions payed = persist("FirstUser", "AA123", TransactionStatus.PAYED);
+        Transactions canceled = persist("FirstUser", "AA456", TransactionStatus.CANCELED);
+        persist("FirstUser", "AA789", TransactionStatus.CHECKEDIN);
+        persist("SecondUser", "AA123", TransactionStatus.PAYED);
+
+        assertThat(transactionsRepository.findViewsByUserEmailAndStatus("FirstUser",
+                EnumSet.of(TransactionStatus.PAYED, TransactionStatus.CANCELED)))
+                .extracting(TransactionView::id)
+                .containsExactly(payed.getId(), canceled.getId());
+        assertThat(transactionsRepository.findViewsByUserEmailAndStatusAfter("FirstUser",
+                EnumSet.of(TransactionStatus.PAYED, TransactionStatus.CANCELED), payed.getId(), Limit.of(10)))
+                .extracting(TransactionView::id)
+                .containsExactly(canceled.getId());
+        assertThat(transactionsRepository.findVersionByUserEmailAndStatus("FirstUser",
+                EnumSet.of(TransactionStatus.PAYED)).count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Find transaction views by flight and status")
+    void givenSetOfTransactions_whenFindViewsByFlightAndStatus_thenReturnMatchingRows() {
+        Transactions first = persist("FirstUser", "AA123", TransactionStatus.PAYED);
+        persist("SecondUser", "AA123", TransactionStatus.CHECKEDIN);
+        Transactions second = persist("ThirdUser", "AA123", TransactionStatus.PAYED);
+        persist("FirstUser", "AA456", TransactionStatus.PAYED);
+
+        assertThat(transactionsRepository.findViewsByFlightAndStatusAfter("AA123", EnumSet.of(TransactionStatus.PAYED),
+                0L, Limit.of(10)))
+                .extracting(TransactionView::id)
+                .containsExactly(first.getId(), second.getId());
+    }
+
+    @Test
+    @DisplayName("Find transaction views by flight in every status")
+    void givenSetOfTransactions_whenFindViewsByFlight_thenReturnRowsAfterCursor() {
+        Transactions first = persist("FirstUser", "AA123", TransactionStatus.PAYED);
+        Transactions second = persist("SecondUser", "AA123", TransactionStatus.CHECKEDIN);
+        Transactions third = persist("ThirdUser", "AA123", TransactionStatus.CANCELED);
+        persist("FirstUser", "AA456", TransactionStatus.PAYED);
+
+        assertThat(transactionsRepository.findViewsByFlightAfter("AA123", first.getId(), Limit.of(10)))
+                .extracting(TransactionView::id)
+                .containsExactly(second.getId(), third.getId());
+    }
+
+    @Test
+    @DisplayName("Stream transaction views by user")
+    void givenSetOfTransactions_whenStreamViewsByUser_thenReturnRowsInIdOrder() {
+        Transactions transaction1 = new Transactions();
+        transaction1.setUserEmail("FirstUser");
+        Transactions transaction2 = new Transactions();
+        transaction2.setUserEmail("FirstUser");
+        Transactions transaction3 = new Transactions();
+        transaction3.setUserEmail("SecondUser");
+
+        entityManager.persistAndFlush(transaction1);
+        entityManager.persistAndFlush(transaction2);
+        entityManager.persistAndFlush(transaction3);
+
+        try (Stream<TransactionView> views = transactionsRepository.streamViewsByUserEmail("FirstUser")) {
+            assertThat(views.map(TransactionView::id))
+                    .containsExactly(transaction1.getId(), transaction2.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Status updates bump the version")
+    void whenUpdateStatus_thenIncrementVersion() {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("FirstUser");
+        transaction.setStatus(TransactionStatus.PAYED);
+        entityManager.persistAndFlush(transaction);
+        Long version = transaction.getVersion();
+
+        transactionsRepository.updateStatus(transaction.getId(), EnumSet.of(TransactionStatus.PAYED),
+                TransactionStatus.CHECKEDIN);
+
+        assertThat(transactionsRepository.findVersionById(transaction.getId())).contains(version + 1);
+    }
+
+    @Test
+    @DisplayName("Conditional status update skips a stale version")
+    void whenUpdateStatusIfStaleVersion_thenUpdateNothing() {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("FirstUser");
+        transaction.setStatus(TransactionStatus.PAYED);
+        entityManager.persistAndFlush(transaction);
+
+        assertThat(transactionsRepository.updateStatusIfVersion(transaction.getId(), transaction.getVersion() + 1,
+                EnumSet.of(TransactionStatus.PAYED), TransactionStatus.CHECKEDIN)).isZero();
+        assertThat(transactionsRepository.updateStatusIfVersion(transaction.getId(), transaction.getVersion(),
+                EnumSet.of(TransactionStatus.PAYED), TransactionStatus.CHECKEDIN)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("List version summarises the user's transactions")
+    void givenSetOfTransactions_whenFindVersionByUser_thenReturnFingerprint() {
+        Transactions transaction1 = new Transactions();
+        transaction1.setUserEmail("FirstUser");
+        Transactions transaction2 = new Transactions();
+        transaction2.setUserEmail("FirstUser");
+        entityManager.persistAndFlush(transaction1);
+        entityManager.persistAndFlush(transaction2);
+
+        TransactionsVersion version = transactionsRepository.findVersionByUserEmail("FirstUser");
+
+        assertThat(version.count()).isEqualTo(2);
+        assertThat(version.maxId()).isEqualTo(transaction2.getId());
+        assertThat(version.versionSum()).isZero();
+        assertThat(transactionsRepository.findVersionByUserEmail("InvalidUser").count()).isZero();
+    }
+
     @Test
     @DisplayName("Save transaction")
     void whenSaveTransaction_thenTransactionIsSaved() {
@@ -145,6 +320,102 @@ class TransactionsRepositoryTest {
         assertThat(updatedTransaction.getUserEmail()).isEqualTo("UpdatedUser");
     }
 
+    @Test
+    @DisplayName("Update transaction status from an allowed status")
+    void whenUpdateStatusFromAllowedStatus_thenStatusIsUpdated() {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("FirstUser");
+        transaction.setStatus(TransactionStatus.PAYED);
+        entityManager.persistAndFlush(transaction);
+        entityManager.clear();
+
+        int updated = transactionsRepository.updateStatus(transaction.getId(), EnumSet.of(TransactionStatus.PAYED),
+                TransactionStatus.CHECKEDIN);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(transactionsRepository.findById(transaction.getId()))
+                .hasValueSatisfying(t -> assertThat(t.getStatus()).isEqualTo(TransactionStatus.CHECKEDIN));
+    }
+
+    @Test
+    @DisplayName("Update transaction status from a disallowed status")
+    void whenUpdateStatusFromDisallowedStatus_thenNothingIsUpdated() {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("FirstUser");
+        transaction.setStatus(TransactionStatus.CANCELED);
+        entityManager.persistAndFlush(transaction);
+
+        int updated = transactionsRepository.updateStatus(transaction.getId(), EnumSet.of(TransactionStatus.PAYED),
+                TransactionStatus.CHECKEDIN);
+
+        assertThat(updated).isZero();
+    }
+
+    @Test
+    @DisplayName("Update the status of a flight by id chunk")
+    void givenFlightTransactions_whenUpdateStatusByIds_thenOnlyAllowedAreUpdated() {
+        Transactions payed = new Transactions();
+        payed.setUserEmail("FirstUser");
+        payed.setIataFlight("AA123");
+        payed.setStatus(TransactionStatus.PAYED);
+        Transactions canceled = new Transactions();
+        canceled.setUserEmail("SecondUser");
+        canceled.setIataFlight("AA123");
+        canceled.setStatus(TransactionStatus.CANCELED);
+        Transactions otherFlight = new Transactions();
+        otherFlight.setUserEmail("FirstUser");
+        otherFlight.setIataFlight("AA456");
+        otherFlight.setStatus(TransactionStatus.PAYED);
+
+        entityManager.persistAndFlush(payed);
+        entityManager.persistAndFlush(canceled);
+        entityManager.persistAndFlush(otherFlight);
+        entityManager.clear();
+
+        assertThat(transactionsRepository.findRefsByFlightAndStatus("AA123", EnumSet.of(TransactionStatus.PAYED), 0L,
+                Limit.of(10)))
+                .containsExactly(new TransactionRef(payed.getId(), "FirstUser"));
+
+        int updated = transactionsRepository.updateStatusByIds(List.of(payed.getId(), canceled.getId()),
+                EnumSet.of(TransactionStatus.PAYED), TransactionStatus.CHECKEDIN);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(transactionsRepository.countByFlightGroupByStatus("AA123"))
+                .extracting(StatusCount::getStatus, StatusCount::getTotal)
+                .containsExactlyInAnyOrder(tuple(TransactionStatus.CHECKEDIN, 1L), tuple(TransactionStatus.CANCELED, 1L));
+    }
+
+    @Test
+    @DisplayName("Count transactions by flight and status")
+    void givenTransactions_whenCountGroupByFlightAndStatus_thenReturnEveryPair() {
+        for (String iataFlight : List.of("AA123", "AA123", "AA456")) {
+            Transactions transaction = new Transactions();
+            transaction.setUserEmail("FirstUser");
+            transaction.setIataFlight(iataFlight);
+            transaction.setStatus(TransactionStatus.PAYED);
+            entityManager.persistAndFlush(transaction);
+        }
+
+        assertThat(transactionsRepository.countGroupByFlightAndStatus())
+                .extracting(FlightStatusCount::getIataFlight, FlightStatusCount::getStatus, FlightStatusCount::getTotal)
+                .containsExactlyInAnyOrder(tuple("AA123", TransactionStatus.PAYED, 2L),
+                        tuple("AA456", TransactionStatus.PAYED, 1L));
+    }
+
+    @Test
+    @DisplayName("Find the view of a transaction by id")
+    void givenTransaction_whenFindViewById_thenReturnView() {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail("FirstUser");
+        transaction.setIataFlight("AA123");
+        transaction.setStatus(TransactionStatus.PAYED);
+        entityManager.persistAndFlush(transaction);
+
+        assertThat(transactionsRepository.findViewById(transaction.getId())).contains(
+                new TransactionView(transaction.getId(), "FirstUser", "AA123", TransactionStatus.PAYED, 0L));
+        assertThat(transactionsRepository.findViewById(-1L)).isEmpty();
+    }
+
     @Test
     @DisplayName("Delete transaction")
     void whenDeleteTransaction_thenTransactionIsDeleted() {
@@ -155,4 +426,54 @@ class TransactionsRepositoryTest {
         Transactions deletedTransaction = transactionsRepository.findById(transaction.getId()).orElse(null);
         assertThat(deletedTransaction).isNull();
     }
+
+    @Test
+    @DisplayName("Find transactions by user uses the user email index")
+    void whenExplainFindByUser_thenUseUserEmailIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id, user_email, iata_flight, status FROM transactions WHERE user_email = 'FirstUser'",
+                String.class);
+
+        assertThat(plan).containsIgnoringCase("idx_transactions_user_email_status");
+    }
+
+    @Test
+    @DisplayName("Find transactions by flight uses the flight index")
+    void whenExplainFindByFlight_thenUseFlightIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id, user_email, iata_flight, status FROM transactions WHERE iata_flight = 'AA123'",
+                String.class);
+
+        assertThat(plan).containsIgnoringCase("idx_transactions_iata_flight_status");
+    }
+
+    @Test
+    @DisplayName("Find transactions by user and status is answered from the covering index")
+    void whenExplainFindByUserAndStatus_thenUseCoveringIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id, user_email, iata_flight, status, version FROM transactions "
+                        + "WHERE user_email = 'FirstUser' AND status = 0 ORDER BY id",
+                String.class);
+
+        assertThat(plan).containsIgnoringCase("idx_transactions_user_email_status_id");
+    }
+
+    @Test
+    @DisplayName("Find transactions by flight and status is answered from the covering index")
+    void whenExplainFindByFlightAndStatus_thenUseCoveringIndex() {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id, user_email, iata_flight, status, version FROM transactions "
+                        + "WHERE iata_flight = 'AA123' AND status = 0 ORDER BY id",
+                String.class);
+
+        assertThat(plan).containsIgnoringCase("idx_transactions_iata_flight_status_id");
+    }
+
+    private Transactions persist(String userEmail, String iataFlight, TransactionStatus status) {
+        Transactions transaction = new Transactions();
+        transaction.setUserEmail(userEmail);
+        transaction.setIataFlight(iataFlight);
+        transaction.setStatus(status);
+        return entityManager.persistAndFlush(transaction);
+    }
 }
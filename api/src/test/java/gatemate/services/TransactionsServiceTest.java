@@ -3,8 +3,17 @@ package gatemate.services;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,11 +21,27 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import gatemate.cache.TransactionsCache;
+import gatemate.coalescing.ReadCoalescing;
+import gatemate.datasource.ReplicaRouting;
 import gatemate.entities.TransactionStatus;
+import gatemate.entities.ArchivedTransaction;
 import gatemate.entities.Transactions;
+import gatemate.metrics.TransactionMetrics;
+import gatemate.repositories.ArchivedTransactionsRepository;
+import gatemate.repositories.StatusCount;
+import gatemate.repositories.TransactionEventsRepository;
+import gatemate.repositories.TransactionRef;
+import gatemate.repositories.TransactionView;
 import gatemate.repositories.TransactionsRepository;
+import gatemate.statistics.FlightCounters;
 
 @ExtendWith(MockitoExtension.class)
 class TransactionsServiceTest {
@@ -24,12 +49,38 @@ class TransactionsServiceTest {
     @Mock
     private TransactionsRepository transactionsRepository;
 
+    @Mock
+    private ArchivedTransactionsRepository archivedTransactionsRepository;
+
+    @Mock
+    private TransactionEventsRepository transactionEventsRepository;
+
+    @Mock
+    private TransactionsCache transactionsCache;
+
+    @Mock
+    private TransactionMetrics transactionMetrics;
+
+    @Mock
+    private FlightCounters flightCounters;
+
+    @Spy
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+    @Spy
+    private ReplicaRouting replicaRouting = new ReplicaRouting();
+
+    @Spy
+    private ReadCoalescing readCoalescing = new ReadCoalescing();
+
     @InjectMocks
     private TransactionsServiceImpl transactionsServiceImpl;
 
     private Transactions transaction1;
     private Transactions transaction2;
     private Transactions transaction3;
+    private TransactionView view1;
+    private TransactionView view2;
 
     @BeforeEach
     public void setUp() {
@@ -51,8 +102,11 @@ class TransactionsServiceTest {
         transaction3.setIataFlight("AA456");
         transaction3.setStatus(TransactionStatus.PAYED);
 
-        lenient().when(transactionsRepository.findByUserEmail("FirstUser"))
-                .thenReturn(Arrays.asList(transaction1, transaction2));
+        view1 = new TransactionView(1L, "FirstUser", "AA123", TransactionStatus.PAYED, 0L);
+        view2 = new TransactionView(2L, "FirstUser", "AA456", TransactionStatus.CHECKEDIN, 0L);
+
+        lenient().when(transactionsRepository.findViewsByUserEmail("FirstUser"))
+                .thenReturn(Arrays.asList(view1, view2));
         lenient().when(transactionsRepository.findByIataFlight("AA456"))
                 .thenReturn(Arrays.asList(transaction2, transaction3));
         lenient().when(transactionsRepository.findById(1L)).thenReturn(Optional.of(transaction1));
@@ -65,8 +119,8 @@ class TransactionsServiceTest {
     void whenFindByUser_thenReturnTransactionList() {
         assertThat(transactionsServiceImpl.getTransactionsByUser("FirstUser"))
                 .hasSize(2)
-                .extracting(Transactions::getUserEmail)
-                .contains(transaction1.getUserEmail(), transaction2.getUserEmail());
+                .extracting(TransactionView::userEmail)
+                .contains(view1.userEmail(), view2.userEmail());
     }
 
     @Test
@@ -82,26 +136,66 @@ class TransactionsServiceTest {
         transaction.setUserEmail("FirstUser");
         transaction.setIataFlight("AA123");
         transaction.setStatus(TransactionStatus.PAYED);
+        when(transactionsRepository.save(transaction)).thenAnswer(invocation -> {
+            transaction.setId(7L);
+            return transaction;
+        });
 
         transactionsServiceImpl.createTransaction(transaction);
 
         verify(transactionsRepository, times(1)).save(transaction);
+        verify(transactionEventsRepository, times(1)).recordCreated(List.of(7L));
+        verify(transactionsCache, times(1)).evictMissingTransactions(List.of(7L));
+        verify(transactionsCache, times(1)).evictTransactionsByUser("FirstUser");
+        verify(flightCounters, times(1)).recordCreated("AA123", TransactionStatus.PAYED, 1);
     }
 
     @Test
     @DisplayName("Update a transaction")
     void whenUpdateTransaction_thenStatusShouldBeCheckedIn() {
+        when(transactionsRepository.updateStatus(1L, EnumSet.of(TransactionStatus.PAYED), TransactionStatus.CHECKEDIN))
+                .thenReturn(1);
+        when(transactionsRepository.findViewById(1L)).thenReturn(Optional.of(view1));
+
         transactionsServiceImpl.updateTransaction(1L);
 
-        verify(transactionsRepository, times(1)).findById(1L); // Added verification for findById
-        verify(transactionsRepository, times(1)).save(transaction1);
-        assertThat(transaction1.getStatus()).isEqualTo(TransactionStatus.CHECKEDIN);
+        verify(transactionsRepository, never()).findById(1L);
+        verify(transactionsRepository, never()).save(any());
+        verify(transactionEventsRepository, times(1)).recordStatusChanged(List.of(1L), TransactionStatus.CHECKEDIN);
+        verify(transactionsCache, times(1)).evictTransaction(1L);
+        verify(transactionsCache, times(1)).evictTransactionsByUser("FirstUser");
+        verify(transactionMetrics, times(1)).recordTransition(EnumSet.of(TransactionStatus.PAYED),
+                TransactionStatus.CHECKEDIN, 1);
+        verify(flightCounters, times(1)).recordTransition(view1.iataFlight(), EnumSet.of(TransactionStatus.PAYED),
+                TransactionStatus.CHECKEDIN, 1);
+    }
+
+    @Test
+    @DisplayName("Update a transaction evicts caches only after the commit")
+    void whenUpdateTransactionInTransaction_thenEvictAfterCommit() {
+        when(transactionsRepository.updateStatus(1L, EnumSet.of(TransactionStatus.PAYED), TransactionStatus.CHECKEDIN))
+                .thenReturn(1);
+        when(transactionsRepository.findViewById(1L)).thenReturn(Optional.of(view1));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            transactionsServiceImpl.updateTransaction(1L);
+
+            verify(transactionsCache, never()).evictTransaction(anyLong());
+            verify(transactionsCache, never()).evictTransactionsByUser(anyString());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(transactionsCache, times(1)).evictTransaction(1L);
+        verify(transactionsCache, times(1)).evictTransactionsByUser("FirstUser");
+        verify(readCoalescing, times(1)).forgetTransaction(1L);
     }
 
     @Test
     @DisplayName("Update a transaction with invalid ID")
     void whenUpdateTransactionWithInvalidId_thenThrowException() {
-        when(transactionsRepository.findById(-1L)).thenReturn(Optional.empty()); // Mocking findById
+        when(transactionsRepository.existsById(-1L)).thenReturn(false);
 
         Throwable thrown = catchThrowable(() -> {
             transactionsServiceImpl.updateTransaction(-1L);
@@ -111,6 +205,54 @@ class TransactionsServiceTest {
                 .hasMessage("Transaction not found for id: -1");
     }
 
+    @Test
+    @DisplayName("Update an archived transaction")
+    void whenUpdateArchivedTransaction_thenThrowInvalidTransition() {
+        when(archivedTransactionsRepository.existsById(9L)).thenReturn(true);
+
+        assertThatThrownBy(() -> transactionsServiceImpl.updateTransaction(9L))
+                .isInstanceOf(InvalidStatusTransitionException.class)
+                .hasMessage("Transaction 9 is archived");
+    }
+
+    @Test
+    @DisplayName("Update a transaction in a status that cannot be checked in")
+    void whenUpdateCanceledTransaction_thenThrowConflict() {
+        when(transactionsRepository.existsById(3L)).thenReturn(true);
+
+        Throwable thrown = catchThrowable(() -> transactionsServiceImpl.updateTransaction(3L));
+
+        assertThat(thrown).isInstanceOf(InvalidStatusTransitionException.class);
+        verify(transactionsCache, never()).evictTransaction(3L);
+        verifyNoInteractions(transactionEventsRepository);
+    }
+
+    @Test
+    @DisplayName("Update a transaction that changed since the expected version")
+    void whenUpdateStaleVersion_thenThrowVersionConflict() {
+        when(transactionsRepository.existsById(1L)).thenReturn(true);
+        when(transactionsRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+
+        Throwable thrown = catchThrowable(() -> transactionsServiceImpl.updateTransaction(1L, 3L));
+
+        assertThat(thrown).isInstanceOf(VersionConflictException.class);
+        verify(transactionsRepository, times(1)).updateStatusIfVersion(1L, 3L, EnumSet.of(TransactionStatus.PAYED),
+                TransactionStatus.CHECKEDIN);
+        verifyNoInteractions(transactionEventsRepository);
+    }
+
+    @Test
+    @DisplayName("Update a transaction at the expected version")
+    void whenUpdateCurrentVersion_thenUpdateTransaction() {
+        when(transactionsRepository.updateStatusIfVersion(1L, 3L, EnumSet.of(TransactionStatus.PAYED),
+                TransactionStatus.CHECKEDIN)).thenReturn(1);
+
+        transactionsServiceImpl.updateTransaction(1L, 3L);
+
+        verify(transactionsRepository, never()).updateStatus(any(), any(), any());
+        verify(transactionsCache, times(1)).evictTransaction(1L);
+    }
+
     @Test
     @DisplayName("Get a transaction by ID")
     void whenGetTransactionById_thenReturnTransaction() {
@@ -129,5 +271,350 @@ class TransactionsServiceTest {
         Transactions foundTransaction = transactionsServiceImpl.getTransaction(-1L);
 
         assertThat(foundTransaction).isNull();
+        verify(transactionsCache, times(1)).putMissingTransaction(-1L);
+    }
+
+    @Test
+    @DisplayName("Get a transaction cached as missing")
+    void whenGetMissingCachedTransactionById_thenSkipRepository() {
+        when(transactionsCache.isTransactionMissing(-1L)).thenReturn(true);
+
+        Transactions foundTransaction = transactionsServiceImpl.getTransaction(-1L);
+
+        assertThat(foundTransaction).isNull();
+        verify(transactionsRepository, never()).findById(-1L);
+        verify(archivedTransactionsRepository, never()).findById(-1L);
+    }
+
+    @Test
+    @DisplayName("Get an archived transaction by ID")
+    void whenGetArchivedTransactionById_thenReturnFromArchive() {
+        ArchivedTransaction archived = new ArchivedTransaction();
+        archived.setId(9L);
+        archived.setUserEmail("ArchivedUser");
+        archived.setIataFlight("AA123");
+        archived.setStatus(TransactionStatus.CANCELED);
+        archived.setVersion(2L);
+        when(archivedTransactionsRepository.findById(9L)).thenReturn(Optional.of(archived));
+
+        Transactions foundTransaction = transactionsServiceImpl.getTransaction(9L);
+
+        assertThat(foundTransaction.getUserEmail()).isEqualTo("ArchivedUser");
+        assertThat(foundTransaction.getStatus()).isEqualTo(TransactionStatus.CANCELED);
+        assertThat(foundTransaction.getVersion()).isEqualTo(2L);
+        verify(transactionsCache, times(1)).putTransaction(foundTransaction);
+    }
+
+    @Test
+    @DisplayName("Look up transactions from the cache and one query for the misses")
+    void whenLookupTransactions_thenQueryOnlyMisses() {
+        when(transactionsCache.getTransactions(Set.of(1L, 2L, 3L, 4L, 9L))).thenReturn(Map.of(1L, transaction1));
+        when(transactionsCache.isTransactionMissing(anyLong()))
+                .thenAnswer(invocation -> invocation.getArgument(0).equals(4L));
+        when(transactionsRepository.findAllById(List.of(3L, 2L, 9L))).thenReturn(List.of(transaction2, transaction3));
+
+        TransactionsLookup lookup = transactionsServiceImpl.getTransactions(List.of(3L, 1L, 2L, 4L, 9L, 1L));
+
+        assertThat(lookup.found()).containsOnlyKeys(3L, 1L, 2L);
+        assertThat(lookup.found().keySet()).containsExactly(3L, 1L, 2L);
+        assertThat(lookup.missing()).containsExactly(4L, 9L);
+        verify(archivedTransactionsRepository, times(1)).findAllById(List.of(9L));
+        verify(transactionsCache, times(1)).putTransactions(List.of(transaction2, transaction3));
+        verify(transactionsCache, times(1)).putMissingTransaction(9L);
+        verify(transactionsCache, never()).putMissingTransaction(4L);
+    }
+
+    @Test
+    @DisplayName("Look up archived transactions")
+    void whenLookupArchivedTransaction_thenReturnFromArchive() {
+        ArchivedTransaction archived = new ArchivedTransaction();
+        archived.setId(9L);
+        archived.setUserEmail("ArchivedUser");
+        archived.setStatus(TransactionStatus.CANCELED);
+        when(archivedTransactionsRepository.findAllById(List.of(9L))).thenReturn(List.of(archived));
+
+        TransactionsLookup lookup = transactionsServiceImpl.getTransactions(List.of(9L));
+
+        assertThat(lookup.found().get(9L).getUserEmail()).isEqualTo("ArchivedUser");
+        assertThat(lookup.missing()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Look up more transactions than allowed")
+    void whenLookupTooManyTransactions_thenThrowException() {
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        assertThatThrownBy(() -> transactionsServiceImpl.getTransactions(ids)).isInstanceOf(BatchTooLargeException.class);
+        verify(transactionsRepository, never()).findAllById(anyList());
+    }
+
+    @Test
+    @DisplayName("Get a cached transaction by ID")
+    void whenGetCachedTransactionById_thenSkipRepository() {
+        when(transactionsCache.getTransaction(1L)).thenReturn(Optional.of(transaction1));
+
+        Transactions foundTransaction = transactionsServiceImpl.getTransaction(1L);
+
+        assertThat(foundTransaction).isEqualTo(transaction1);
+        verify(transactionsRepository, never()).findById(1L);
+    }
+
+    @Test
+    @DisplayName("Get a transaction by ID populates the cache")
+    void whenGetUncachedTransactionById_thenCacheTransaction() {
+        transactionsServiceImpl.getTransaction(1L);
+
+        verify(transactionsCache, times(1)).putTransaction(transaction1);
+    }
+
+    @Test
+    @DisplayName("Find cached transactions by user")
+    void whenFindCachedTransactionsByUser_thenSkipRepository() {
+        when(transactionsCache.getTransactionsByUser("FirstUser"))
+                .thenReturn(Optional.of(Arrays.asList(view1, view2)));
+
+        assertThat(transactionsServiceImpl.getTransactionsByUser("FirstUser")).hasSize(2);
+        verify(transactionsRepository, never()).findViewsByUserEmail("FirstUser");
+    }
+
+    @Test
+    @DisplayName("Find a page of transactions by user with more pages left")
+    void whenFindPageByUser_thenReturnItemsAndNextCursor() {
+        when(transactionsRepository.findViewsByUserEmailAfter("FirstUser", 0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(view1, view2));
+
+        TransactionsPage page = transactionsServiceImpl.getTransactionsByUser("FirstUser", null, 1);
+
+        assertThat(page.items()).containsExactly(view1);
+        assertThat(page.nextCursor()).isNotNull();
+        assertThat(PageCursor.decode(page.nextCursor())).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Find the last page of transactions by user")
+    void whenFindLastPageByUser_thenReturnNoCursor() {
+        when(transactionsRepository.findViewsByUserEmailAfter("FirstUser", 1L, Limit.of(3)))
+                .thenReturn(Arrays.asList(view2));
+
+        TransactionsPage page = transactionsServiceImpl.getTransactionsByUser("FirstUser", PageCursor.encode(1L), 2);
+
+        assertThat(page.items()).containsExactly(view2);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Page size is capped")
+    void whenFindPageWithHugeLimit_thenCapPageSize() {
+        transactionsServiceImpl.getTransactionsByUser("FirstUser", null, 100_000);
+
+        verify(transactionsRepository, times(1)).findViewsByUserEmailAfter("FirstUser", 0L,
+                Limit.of(TransactionsServiceImpl.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    @DisplayName("Find transactions by user and status filters the cached list")
+    void whenFindCachedByUserAndStatus_thenFilterCachedList() {
+        when(transactionsCache.getTransactionsByUser("FirstUser")).thenReturn(Optional.of(Arrays.asList(view1, view2)));
+
+        assertThat(transactionsServiceImpl.getTransactionsByUser("FirstUser", EnumSet.of(TransactionStatus.CHECKEDIN)))
+                .containsExactly(view2);
+        verify(transactionsRepository, never()).findViewsByUserEmailAndStatus(anyString(), anyCollection());
+    }
+
+    @Test
+    @DisplayName("Find transactions by user and status reads only matching rows")
+    void whenFindUncachedByUserAndStatus_thenQueryByStatus() {
+        when(transactionsRepository.findViewsByUserEmailAndStatus("FirstUser", EnumSet.of(TransactionStatus.PAYED)))
+                .thenReturn(Arrays.asList(view1));
+
+        assertThat(transactionsServiceImpl.getTransactionsByUser("FirstUser", EnumSet.of(TransactionStatus.PAYED)))
+                .containsExactly(view1);
+        verify(transactionsCache, never()).putTransactionsByUser(anyString(), anyList());
+    }
+
+    @Test
+    @DisplayName("Find a page of transactions by user and status")
+    void whenFindPageByUserAndStatus_thenQueryByStatus() {
+        when(transactionsRepository.findViewsByUserEmailAndStatusAfter("FirstUser",
+                EnumSet.of(TransactionStatus.PAYED), 0L, Limit.of(51))).thenReturn(Arrays.asList(view1));
+
+        TransactionsPage page = transactionsServiceImpl.getTransactionsByUser("FirstUser",
+                EnumSet.of(TransactionStatus.PAYED), null, 50);
+
+        assertThat(page.items()).containsExactly(view1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Find a page of transactions by flight and status")
+    void whenFindPageByFlightAndStatus_thenReturnItemsAndNextCursor() {
+        TransactionView view3 = new TransactionView(3L, "SecondUser", "AA456", TransactionStatus.PAYED, 0L);
+        when(transactionsRepository.findViewsByFlightAndStatusAfter("AA456", EnumSet.of(TransactionStatus.PAYED), 0L,
+                Limit.of(2))).thenReturn(Arrays.asList(view3, view3));
+
+        TransactionsPage page = transactionsServiceImpl.getTransactionsByFlight("AA456",
+                EnumSet.of(TransactionStatus.PAYED), null, 1);
+
+        assertThat(page.items()).containsExactly(view3);
+        assertThat(PageCursor.decode(page.nextCursor())).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Find a page of transactions by flight without a status filter")
+    void whenFindPageByFlight_thenQueryWithoutStatus() {
+        when(transactionsRepository.findViewsByFlightAfter("AA456", 0L, Limit.of(51)))
+                .thenReturn(Arrays.asList(view2));
+
+        TransactionsPage page = transactionsServiceImpl.getTransactionsByFlight("AA456", null, 50);
+
+        assertThat(page.items()).containsExactly(view2);
+        assertThat(page.nextCursor()).isNull();
+        verify(transactionsRepository, never()).findViewsByFlightAndStatusAfter(anyString(), anyCollection(),
+                anyLong(), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Stream transactions by user")
+    void whenStreamByUser_thenConsumeEveryViewAndCloseStream() {
+        List<TransactionView> consumed = new ArrayList<>();
+        boolean[] closed = { false };
+        when(transactionsRepository.streamViewsByUserEmail("FirstUser"))
+                .thenReturn(Stream.of(view1, view2).onClose(() -> closed[0] = true));
+
+        transactionsServiceImpl.streamTransactionsByUser("FirstUser", (Consumer<TransactionView>) consumed::add);
+
+        assertThat(consumed).containsExactly(view1, view2);
+        assertThat(closed[0]).isTrue();
+    }
+
+    @Test
+    @DisplayName("Find a page of transactions with an invalid cursor")
+    void whenFindPageWithInvalidCursor_thenThrowException() {
+        Throwable thrown = catchThrowable(() -> transactionsServiceImpl.getTransactionsByUser("FirstUser", "%%%", 10));
+
+        assertThat(thrown).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    @DisplayName("Create a batch of transactions")
+    void whenCreateBatch_thenSaveValidAndRejectInvalid() {
+        Transactions invalid = new Transactions();
+        invalid.setUserEmail("FirstUser");
+
+        List<BatchItemResult> results = transactionsServiceImpl
+                .createTransactions(Arrays.asList(transaction1, invalid, null, transaction3));
+
+        assertThat(results).extracting(BatchItemResult::index).containsExactly(0, 1, 2, 3);
+        assertThat(results).extracting(BatchItemResult::outcome).containsExactly(
+                BatchItemResult.Outcome.CREATED, BatchItemResult.Outcome.REJECTED,
+                BatchItemResult.Outcome.REJECTED, BatchItemResult.Outcome.CREATED);
+        assertThat(results.get(0).id()).isEqualTo(1L);
+        verify(transactionsRepository, times(1)).saveAllAndFlush(Arrays.asList(transaction1, transaction3));
+        verify(transactionsCache, times(1)).evictTransactionsByUser("FirstUser");
+        verify(transactionsCache, times(1)).evictTransactionsByUser("SecondUser");
+    }
+
+    @Test
+    @DisplayName("Create a batch of transactions in chunks")
+    void whenCreateLargeBatch_thenSaveInChunks() {
+        List<Transactions> transactions = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Transactions transaction = new Transactions();
+            transaction.setUserEmail("FirstUser");
+            transaction.setIataFlight("AA123");
+            transaction.setStatus(TransactionStatus.PAYED);
+            transactions.add(transaction);
+        }
+
+        assertThat(transactionsServiceImpl.createTransactions(transactions)).hasSize(120);
+        verify(transactionsRepository, times(3)).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    @DisplayName("Create a batch of transactions over the size limit")
+    void whenCreateOversizedBatch_thenThrowException() {
+        Throwable thrown = catchThrowable(
+                () -> transactionsServiceImpl.createTransactions(Collections.nCopies(1001, transaction1)));
+
+        assertThat(thrown).isInstanceOf(BatchTooLargeException.class);
+        verify(transactionsRepository, never()).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    @DisplayName("Check in every transaction of a flight")
+    void whenUpdateFlightStatus_thenUpdatePendingTransactions() {
+        when(transactionsRepository.findRefsByFlightAndStatus("AA456", EnumSet.of(TransactionStatus.PAYED), 0L,
+                Limit.of(500))).thenReturn(Arrays.asList(new TransactionRef(3L, "SecondUser")));
+        when(transactionsRepository.updateStatusByIds(Arrays.asList(3L), EnumSet.of(TransactionStatus.PAYED),
+                TransactionStatus.CHECKEDIN)).thenReturn(1);
+        when(transactionsRepository.countByFlightGroupByStatus("AA456"))
+                .thenReturn(Arrays.asList(statusCount(TransactionStatus.CHECKEDIN, 2)));
+
+        FlightStatusUpdate update = transactionsServiceImpl.updateFlightStatus("AA456", TransactionStatus.CHECKEDIN);
+
+        assertThat(update.updated()).isEqualTo(1);
+        assertThat(update.statusCounts()).containsEntry(TransactionStatus.CHECKEDIN, 2L);
+        verify(transactionEventsRepository, times(1)).recordStatusChanged(List.of(3L), TransactionStatus.CHECKEDIN);
+        verify(transactionsCache, times(1)).evictTransactions(List.of(3L));
+        verify(transactionsCache, times(1)).evictTransactionsByUser("SecondUser");
+        verify(transactionMetrics, times(1)).recordTransition(EnumSet.of(TransactionStatus.PAYED),
+                TransactionStatus.CHECKEDIN, 1);
+        verify(flightCounters, times(1)).recordTransition("AA456", EnumSet.of(TransactionStatus.PAYED),
+                TransactionStatus.CHECKEDIN, 1);
+    }
+
+    @Test
+    @DisplayName("Cancel a flight in chunks")
+    void whenUpdateLargeFlightStatus_thenUpdateInChunks() {
+        List<TransactionRef> firstChunk = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            firstChunk.add(new TransactionRef(id, "FirstUser"));
+        }
+        when(transactionsRepository.findRefsByFlightAndStatus(eq("AA123"), anyCollection(), eq(0L), any()))
+                .thenReturn(firstChunk);
+        when(transactionsRepository.findRefsByFlightAndStatus(eq("AA123"), anyCollection(), eq(500L), any()))
+                .thenReturn(Arrays.asList(new TransactionRef(501L, "FirstUser")));
+        when(transactionsRepository.updateStatusByIds(anyCollection(), anyCollection(), eq(TransactionStatus.CANCELED)))
+                .thenReturn(500, 1);
+        when(transactionsRepository.countByFlightGroupByStatus("AA123"))
+                .thenReturn(Arrays.asList(statusCount(TransactionStatus.CANCELED, 501)));
+
+        FlightStatusUpdate update = transactionsServiceImpl.updateFlightStatus("AA123", TransactionStatus.CANCELED);
+
+        assertThat(update.updated()).isEqualTo(501);
+        verify(transactionsRepository, times(2)).updateStatusByIds(anyCollection(), anyCollection(),
+                eq(TransactionStatus.CANCELED));
+    }
+
+    @Test
+    @DisplayName("Move a flight back to payed")
+    void whenUpdateFlightStatusToPayed_thenThrowException() {
+        Throwable thrown = catchThrowable(
+                () -> transactionsServiceImpl.updateFlightStatus("AA123", TransactionStatus.PAYED));
+
+        assertThat(thrown).isInstanceOf(InvalidStatusTransitionException.class);
+    }
+
+    @Test
+    @DisplayName("Update the status of a flight without transactions")
+    void whenUpdateUnknownFlightStatus_thenThrowException() {
+        Throwable thrown = catchThrowable(
+                () -> transactionsServiceImpl.updateFlightStatus("XX000", TransactionStatus.CANCELED));
+
+        assertThat(thrown).isInstanceOf(TransactionNotFoundException.class);
+    }
+
+    private static StatusCount statusCount(TransactionStatus status, long total) {
+        return new StatusCount() {
+            @Override
+            public TransactionStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
     }
 }
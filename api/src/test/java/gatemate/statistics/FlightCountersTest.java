@@ -0,0 +1,104 @@
+package gatemate.statistics;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import gatemate.entities.TransactionStatus;
+import gatemate.repositories.FlightStatusCount;
+import gatemate.repositories.TransactionsRepository;
+
+class FlightCountersTest {
+
+    private final TransactionsRepository transactionsRepository = mock(TransactionsRepository.class);
+    private final FlightCounters flightCounters = new FlightCounters(transactionsRepository);
+
+    @Test
+    @DisplayName("Creates and transitions move the per-flight and global counters")
+    void whenRecord_thenUpdateCounters() {
+        flightCounters.recordCreated("AA123", TransactionStatus.PAYED, 3);
+        flightCounters.recordTransition("AA123", Set.of(TransactionStatus.PAYED), TransactionStatus.CHECKEDIN, 2);
+
+        FlightStatistics statistics = flightCounters.getFlight("AA123");
+        assertThat(statistics.total()).isEqualTo(3);
+        assertThat(statistics.counts()).containsEntry(TransactionStatus.PAYED, 1L)
+                .containsEntry(TransactionStatus.CHECKEDIN, 2L).containsEntry(TransactionStatus.CANCELED, 0L);
+        assertThat(flightCounters.getTotals()).containsEntry(TransactionStatus.CHECKEDIN, 2L);
+        assertThat(flightCounters.getFlight("XX000")).isNull();
+    }
+
+    @Test
+    @DisplayName("Counters move only once the writing transaction commits")
+    void whenInTransaction_thenApplyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            flightCounters.recordCreated("AA123", TransactionStatus.PAYED, 1);
+            assertThat(flightCounters.getFlight("AA123")).isNull();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(flightCounters.getFlight("AA123").total()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Top flights are ordered by the requested status")
+    void whenTopFlights_thenReturnLargestFirst() {
+        flightCounters.recordCreated("AA123", TransactionStatus.PAYED, 5);
+        flightCounters.recordCreated("AA456", TransactionStatus.PAYED, 9);
+        flightCounters.recordCreated("AA789", TransactionStatus.PAYED, 1);
+        flightCounters.recordCreated("AA789", TransactionStatus.CANCELED, 20);
+
+        assertThat(flightCounters.getTopFlights(TransactionStatus.PAYED, 2)).extracting(FlightStatistics::iataFlight)
+                .containsExactly("AA456", "AA123");
+        assertThat(flightCounters.getTopFlights(null, 1)).extracting(FlightStatistics::iataFlight)
+                .containsExactly("AA789");
+    }
+
+    @Test
+    @DisplayName("Reconciliation resets the counters to the table and drops empty flights")
+    void whenReconcile_thenMatchDatabase() {
+        flightCounters.recordCreated("AA123", TransactionStatus.PAYED, 4);
+        flightCounters.recordCreated("AA999", TransactionStatus.PAYED, 1);
+        when(transactionsRepository.countGroupByFlightAndStatus()).thenReturn(List.of(
+                count("AA123", TransactionStatus.PAYED, 2), count("AA123", TransactionStatus.CHECKEDIN, 1),
+                count("AA456", TransactionStatus.CANCELED, 7)));
+
+        flightCounters.reconcile();
+
+        assertThat(flightCounters.getFlight("AA123").counts()).containsEntry(TransactionStatus.PAYED, 2L)
+                .containsEntry(TransactionStatus.CHECKEDIN, 1L);
+        assertThat(flightCounters.getFlight("AA456").total()).isEqualTo(7);
+        assertThat(flightCounters.getFlight("AA999")).isNull();
+        assertThat(flightCounters.getTotals()).containsEntry(TransactionStatus.PAYED, 2L)
+                .containsEntry(TransactionStatus.CANCELED, 7L);
+    }
+
+    private static FlightStatusCount count(String iataFlight, TransactionStatus status, long total) {
+        return new FlightStatusCount() {
+            @Override
+            public String getIataFlight() {
+                return iataFlight;
+            }
+
+            @Override
+            public TransactionStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}
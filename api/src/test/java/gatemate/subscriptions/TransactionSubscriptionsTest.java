@@ -0,0 +1,101 @@
+package gatemate.subscriptions;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import gatemate.entities.TransactionEvent;
+import gatemate.entities.TransactionEventType;
+import gatemate.entities.TransactionStatus;
+import gatemate.outbox.InMemoryTransactionEventSink;
+
+class TransactionSubscriptionsTest {
+
+    private final InMemoryTransactionEventSink sink = new InMemoryTransactionEventSink(10);
+    private final TransactionSubscriptions transactionSubscriptions = new TransactionSubscriptions(sink);
+
+    @BeforeEach
+    void setUp() {
+        transactionSubscriptions.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionSubscriptions.stop();
+    }
+
+    @Test
+    @DisplayName("Subscriptions are counted")
+    void whenSubscribe_thenCountSubscriber() {
+        transactionSubscriptions.subscribe("FirstUser");
+        transactionSubscriptions.subscribe("FirstUser");
+        transactionSubscriptions.subscribe("SecondUser");
+
+        assertThat(transactionSubscriptions.getSubscriberCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Subscribing past the node limit is rejected")
+    void whenSubscriberLimitReached_thenThrowException() {
+        ReflectionTestUtils.setField(transactionSubscriptions, "maxSubscribers", 1);
+        transactionSubscriptions.subscribe("FirstUser");
+
+        assertThatThrownBy(() -> transactionSubscriptions.subscribe("SecondUser"))
+                .isInstanceOf(TooManySubscribersException.class);
+        assertThat(transactionSubscriptions.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A subscriber that falls too far behind is dropped")
+    void whenSubscriberFallsBehind_thenDropSubscriber() {
+        TransactionSubscriptions slowSubscriptions = new TransactionSubscriptions(sink);
+        ReflectionTestUtils.setField(slowSubscriptions, "sendThreads", 1);
+        ReflectionTestUtils.setField(slowSubscriptions, "maxPending", 2);
+        slowSubscriptions.start();
+        CountDownLatch release = new CountDownLatch(1);
+        ((ExecutorService) ReflectionTestUtils.getField(slowSubscriptions, "sender")).execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        slowSubscriptions.subscribe("FirstUser");
+
+        sink.publish(List.of(event(1L, "FirstUser"), event(2L, "FirstUser"), event(3L, "FirstUser")));
+        release.countDown();
+        slowSubscriptions.stop();
+
+        assertThat(slowSubscriptions.getSubscriberCount()).isZero();
+        assertThat(slowSubscriptions.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Events for users without subscribers are ignored")
+    void whenPublishForUnsubscribedUser_thenKeepSubscribers() {
+        transactionSubscriptions.subscribe("FirstUser");
+
+        sink.publish(List.of(event(1L, "SecondUser")));
+
+        assertThat(transactionSubscriptions.getSubscriberCount()).isEqualTo(1);
+        assertThat(transactionSubscriptions.getDroppedCount()).isZero();
+    }
+
+    private static TransactionEvent event(Long id, String userEmail) {
+        TransactionEvent event = new TransactionEvent();
+        event.setId(id);
+        event.setTransactionId(id);
+        event.setEventType(TransactionEventType.CREATED);
+        event.setUserEmail(userEmail);
+        event.setStatus(TransactionStatus.PAYED);
+        return event;
+    }
+}